@@ -0,0 +1,80 @@
+package com.github.qaware.adcl.benchmark;
+
+import com.github.qaware.adcl.depex.DependencyExtractor;
+import com.github.qaware.adcl.information.ProjectInformation;
+import com.github.qaware.adcl.information.RootInformation;
+import com.github.qaware.adcl.information.VersionInformation;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The class file corpora the benchmarks run on, resolved against the project directory
+ * <ul>
+ *     <li>{@code testproject}: the small test project of the functional tests</li>
+ *     <li>{@code adcl}: the compiled classes of ADCL itself</li>
+ * </ul>
+ */
+final class Corpora {
+    private Corpora() {
+    }
+
+    /**
+     * @param corpus the corpus name
+     * @return the class file directory of the corpus
+     */
+    @NotNull
+    static Path classes(@NotNull String corpus) {
+        switch (corpus) {
+            case "testproject":
+                return testProject("testproject");
+            case "adcl":
+                return Paths.get("target", "classes");
+            default:
+                throw new IllegalArgumentException("Unknown corpus " + corpus);
+        }
+    }
+
+    /**
+     * @param name the name of a test project version, e.g. testproject2
+     * @return the class file directory of the test project version
+     */
+    @NotNull
+    static Path testProject(@NotNull String name) {
+        return Paths.get("src", "test", "resources", "testclassfiles2", name, "target", "classes");
+    }
+
+    /**
+     * @param clazz a class loaded from a jar
+     * @return the jar the class was loaded from
+     */
+    @NotNull
+    static Path jarOf(@NotNull Class<?> clazz) {
+        try {
+            return Paths.get(clazz.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Could not locate jar of " + clazz, e);
+        }
+    }
+
+    /**
+     * Analyses class file directories as consecutive versions of one project
+     *
+     * @param versions the class file directories, in version order
+     * @return the tree containing the project
+     * @throws IOException if a directory could not be read
+     */
+    @NotNull
+    static RootInformation analyse(@NotNull Path... versions) throws IOException {
+        RootInformation root = new RootInformation();
+        ProjectInformation project = new ProjectInformation(root, "benchmark", true, "1");
+        for (int i = 0; i < versions.length; i++) {
+            VersionInformation version = i == 0 ? project.getLatestVersion() : project.addVersion(String.valueOf(i + 1));
+            new DependencyExtractor(versions[i], version, null).runAnalysis();
+        }
+        return root;
+    }
+}
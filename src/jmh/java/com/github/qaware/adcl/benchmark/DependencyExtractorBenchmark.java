@@ -0,0 +1,42 @@
+package com.github.qaware.adcl.benchmark;
+
+import com.github.qaware.adcl.information.RootInformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analysis of a class file corpus into a new project tree, including indexing the corpus
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DependencyExtractorBenchmark {
+    /**
+     * The corpus to analyse, see {@link Corpora}
+     */
+    @Param({"testproject", "adcl"})
+    public String corpus;
+
+    /**
+     * @return the analysed tree
+     * @throws IOException if the corpus could not be read
+     */
+    @Benchmark
+    public RootInformation analyse() throws IOException {
+        return Corpora.analyse(Corpora.classes(corpus));
+    }
+}
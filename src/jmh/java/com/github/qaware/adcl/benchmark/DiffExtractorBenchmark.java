@@ -0,0 +1,83 @@
+package com.github.qaware.adcl.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.qaware.adcl.information.ProjectInformation;
+import com.github.qaware.adcl.information.RootInformation;
+import com.github.qaware.adcl.information.VersionInformation;
+import com.github.qaware.adcl.report.DiffExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The diff between two versions of an analysed project, with and without aggregating dependencies to the higher levels
+ * <ul>
+ *     <li>{@code testproject}: two versions of the test project with a few changes</li>
+ *     <li>{@code adcl}: ADCL's classes analysed twice, i.e. an unchanged release of a larger project</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiffExtractorBenchmark {
+    /**
+     * The versions to diff
+     */
+    @Param({"testproject", "adcl"})
+    public String corpus;
+
+    /**
+     * Whether dependencies are aggregated at their start and end
+     */
+    @Param({"false", "true"})
+    public boolean aggregate;
+
+    /**
+     * Whether the packages are diffed in parallel
+     */
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private VersionInformation from;
+    private VersionInformation to;
+
+    /**
+     * Analyses both versions
+     *
+     * @throws IOException if a corpus could not be read
+     */
+    @Setup
+    public void analyse() throws IOException {
+        Path[] versions = "testproject".equals(corpus)
+                ? new Path[]{Corpora.testProject("testproject2"), Corpora.testProject("testproject3")}
+                : new Path[]{Corpora.classes(corpus), Corpora.classes(corpus)};
+        RootInformation root = Corpora.analyse(versions);
+        ProjectInformation project = (ProjectInformation) root.find("benchmark", null);
+        from = project.getVersions().get(0);
+        to = project.getLatestVersion();
+    }
+
+    /**
+     * @return the diff
+     * @throws JsonProcessingException if the diff could not be serialized
+     */
+    @Benchmark
+    public DiffExtractor.Diff generateDiff() throws JsonProcessingException {
+        return new DiffExtractor(from, to, parallel).generateDiff(aggregate, aggregate);
+    }
+}
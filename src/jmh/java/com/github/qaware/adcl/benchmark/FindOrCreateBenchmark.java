@@ -0,0 +1,84 @@
+package com.github.qaware.adcl.benchmark;
+
+import com.github.qaware.adcl.information.Information;
+import com.github.qaware.adcl.information.ProjectInformation;
+import com.github.qaware.adcl.information.RootInformation;
+import com.github.qaware.adcl.information.VersionInformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of existing classes and methods by path, as done for every referenced class and method during the analysis
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindOrCreateBenchmark {
+    private static final int CLASSES_PER_PACKAGE = 100;
+
+    /**
+     * The number of classes in the project, each with one method
+     */
+    @Param({"1000", "50000"})
+    public int classes;
+
+    private ProjectInformation project;
+    private VersionInformation version;
+    private String[] classPaths;
+    private String[] methodPaths;
+    private int next;
+
+    /**
+     * Creates the project tree, the classes are spread over packages of {@value #CLASSES_PER_PACKAGE} classes
+     */
+    @Setup
+    public void createTree() {
+        project = new ProjectInformation(new RootInformation(), "benchmark", true, "1");
+        version = project.getLatestVersion();
+        classPaths = new String[classes];
+        methodPaths = new String[classes];
+        for (int i = 0; i < classes; i++) {
+            classPaths[i] = "com.example.p" + i / CLASSES_PER_PACKAGE + ".C" + i;
+            methodPaths[i] = classPaths[i] + ".run(java.lang.String)";
+            project.findOrCreate(methodPaths[i], version, Information.Type.METHOD);
+        }
+    }
+
+    /**
+     * @return the found class
+     */
+    @Benchmark
+    public Information<?> findClass() {
+        return project.findOrCreate(classPaths[nextIndex()], version, Information.Type.CLASS);
+    }
+
+    /**
+     * @return the found method
+     */
+    @Benchmark
+    public Information<?> findMethod() {
+        return project.findOrCreate(methodPaths[nextIndex()], version, Information.Type.METHOD);
+    }
+
+    /**
+     * @return the index of the next path to look up, cycling through all paths
+     */
+    private int nextIndex() {
+        if (++next == classes) next = 0;
+        return next;
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.qaware.adcl.benchmark;
+
+import com.github.qaware.adcl.IndexBuilder;
+import org.neo4j.ogm.session.SessionFactory;
+import org.objectweb.asm.ClassReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.SpringVersion;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexing the classes of dependency jars of different sizes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexBuilderBenchmark {
+    /**
+     * The jar to index, a dependency of ADCL
+     */
+    @Param({"asm", "neo4j-ogm-core", "spring-core"})
+    public String jar;
+
+    private Path jarFile;
+
+    /**
+     * Locates the jar on the class path
+     */
+    @Setup
+    public void locateJar() {
+        switch (jar) {
+            case "asm":
+                jarFile = Corpora.jarOf(ClassReader.class);
+                break;
+            case "neo4j-ogm-core":
+                jarFile = Corpora.jarOf(SessionFactory.class);
+                break;
+            case "spring-core":
+                jarFile = Corpora.jarOf(SpringVersion.class);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown jar " + jar);
+        }
+    }
+
+    /**
+     * @return the index of the jar
+     * @throws IOException if the jar could not be read
+     */
+    @Benchmark
+    public Map<String, String> indexJar() throws IOException {
+        return IndexBuilder.indexJar(jarFile, "benchmark", null);
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.qaware.adcl.benchmark;
+
+import com.github.qaware.adcl.database.Neo4jService;
+import com.github.qaware.adcl.information.RootInformation;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.kernel.configuration.BoltConnector;
+import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.session.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving an analysed history of three versions to an embedded database, which replaces the previously saved graph
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class Neo4jSaveBenchmark {
+    /**
+     * The local bolt port of the embedded database, differing from the port of the functional tests
+     */
+    private static final int BOLT_PORT = 7688;
+
+    /**
+     * The corpus analysed as each of the versions
+     */
+    @Param({"testproject", "adcl"})
+    public String corpus;
+
+    private Path databaseDirectory;
+    private GraphDatabaseService database;
+    private SessionFactory sessionFactory;
+    private Neo4jService neo4jService;
+
+    /**
+     * Starts the database and analyses the history
+     *
+     * @throws IOException if the database directory could not be created or a corpus could not be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        databaseDirectory = Files.createTempDirectory("adcl_Neo4jSaveBenchmark");
+        BoltConnector bolt = new BoltConnector("0");
+        database = new GraphDatabaseFactory()
+                .newEmbeddedDatabaseBuilder(databaseDirectory.toFile())
+                .setConfig(bolt.type, "BOLT")
+                .setConfig(bolt.enabled, "true")
+                .setConfig(bolt.listen_address, "localhost:" + BOLT_PORT)
+                .newGraphDatabase();
+        sessionFactory = new SessionFactory(new Configuration.Builder().uri("bolt://localhost:" + BOLT_PORT).build(),
+                RootInformation.class.getPackage().getName());
+        neo4jService = new Neo4jService(sessionFactory);
+        neo4jService.overrideRoot(Corpora.analyse(Corpora.classes(corpus), Corpora.classes(corpus), Corpora.classes(corpus)));
+    }
+
+    /**
+     * Saves the history
+     */
+    @Benchmark
+    public void saveRoot() {
+        neo4jService.saveRoot();
+    }
+
+    /**
+     * Stops the database and deletes its files
+     *
+     * @throws IOException if the database files could not be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        sessionFactory.close();
+        database.shutdown();
+        FileSystemUtils.deleteRecursively(databaseDirectory);
+    }
+}
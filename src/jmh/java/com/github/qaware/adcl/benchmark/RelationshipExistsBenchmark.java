@@ -0,0 +1,92 @@
+package com.github.qaware.adcl.benchmark;
+
+import com.github.qaware.adcl.information.ClassInformation;
+import com.github.qaware.adcl.information.Information;
+import com.github.qaware.adcl.information.ProjectInformation;
+import com.github.qaware.adcl.information.RelationshipInformation;
+import com.github.qaware.adcl.information.RootInformation;
+import com.github.qaware.adcl.information.VersionInformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Existence checks of a dependency at the first, a middle and the latest version of a project history.
+ * The dependency is added and removed alternately, so every version carries a marker
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RelationshipExistsBenchmark {
+    /**
+     * The number of versions of the project
+     */
+    @Param({"1", "10", "100", "1000"})
+    public int depth;
+
+    private RelationshipInformation<?> relation;
+    private VersionInformation first;
+    private VersionInformation middle;
+    private VersionInformation latest;
+
+    /**
+     * Creates the history of the dependency
+     */
+    @Setup
+    public void createHistory() {
+        ProjectInformation project = new ProjectInformation(new RootInformation(), "benchmark", true, "0");
+        ClassInformation<?> from = (ClassInformation<?>) project.findOrCreate("com.example.From", null, Information.Type.CLASS);
+        ClassInformation<?> to = (ClassInformation<?>) project.findOrCreate("com.example.To", null, Information.Type.CLASS);
+        for (int i = 0; i < depth; i++) {
+            VersionInformation version = i == 0 ? project.getLatestVersion() : project.addVersion(String.valueOf(i));
+            if (i == 0) {
+                from.addClassDependency(to, version);
+                relation = from.getDependencyRelations().findFirst().orElseThrow(IllegalStateException::new);
+            } else {
+                relation.setExists(version, i % 2 == 0);
+            }
+        }
+        List<VersionInformation> versions = project.getVersions();
+        first = versions.get(0);
+        middle = versions.get(versions.size() / 2);
+        latest = versions.get(versions.size() - 1);
+    }
+
+    /**
+     * @return whether the dependency exists at the first version
+     */
+    @Benchmark
+    public boolean existsFirst() {
+        return relation.exists(first);
+    }
+
+    /**
+     * @return whether the dependency exists at the middle version
+     */
+    @Benchmark
+    public boolean existsMiddle() {
+        return relation.exists(middle);
+    }
+
+    /**
+     * @return whether the dependency exists at the latest version
+     */
+    @Benchmark
+    public boolean existsLatest() {
+        return relation.exists(latest);
+    }
+}
@@ -1,20 +1,28 @@
 package com.github.qaware.adcl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.github.qaware.adcl.database.Neo4jService;
 import com.github.qaware.adcl.depex.DependencyExtractor;
+import com.github.qaware.adcl.depex.HistoryBackfill;
+import com.github.qaware.adcl.information.Information;
+import com.github.qaware.adcl.information.MemoryBudget;
+import com.github.qaware.adcl.information.ModelStatistics;
 import com.github.qaware.adcl.information.ProjectInformation;
 import com.github.qaware.adcl.information.RootInformation;
 import com.github.qaware.adcl.information.VersionInformation;
 import com.github.qaware.adcl.pm.ProjectManager;
+import com.github.qaware.adcl.report.CycleTracker;
 import com.github.qaware.adcl.report.DiffExtractor;
+import com.github.qaware.adcl.report.DiffGenerator;
 import com.github.qaware.adcl.report.HTMLReporter;
+import com.github.qaware.adcl.report.ImpactAnalyzer;
+import com.github.qaware.adcl.util.RunMetrics;
 import com.github.qaware.adcl.util.Utils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.neo4j.driver.exceptions.AuthenticationException;
 import org.neo4j.driver.exceptions.ServiceUnavailableException;
 import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.session.SessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
@@ -27,7 +35,14 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.data.neo4j.repository.config.EnableNeo4jRepositories;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 /**
  * Application is a SpringBootApplication and the main Class for ADCL, which configures itself and handles everything from configuration loading to database accessing.
@@ -50,7 +65,7 @@ public class Application {
     }
 
     /**
-     * launches the application
+     * launches the application. Hands the run over to a running daemon if there is one, or starts the daemon if configured
      *
      * @param args CLI args
      * @return the exit code
@@ -58,42 +73,244 @@ public class Application {
     public static int launch(String... args) {
         ConfigurableApplicationContext ctx = null;
         try {
-            ApplicationConfig appConfig = loadConfig(args);
+            LOGGER.info("Loading configuration");
+            Config.load(args);
+            RunMetrics.reset();
+            if (Config.get("daemon.stop", false)) return Daemon.stop(ApplicationConfig.getDaemonPort()) ? 0 : 1;
+            if (Config.get("daemon", false)) return serve();
+            String[] backfillSources = Config.getStringList("backfill", null);
+            if (backfillSources != null) return backfill(backfillSources);
+
+            ApplicationConfig appConfig = loadConfig();
             if (appConfig == null) return 1;
 
             LOGGER.info("Working Directory: {}", appConfig.basedir.toAbsolutePath());
 
-            ctx = launchSpring(appConfig);
+            if (appConfig.useDaemon) {
+                Integer exitCode = Daemon.run(appConfig.daemonPort, Config.getAll());
+                if (exitCode != null && exitCode == Daemon.UNAUTHORIZED) {
+                    // a local run would save a graph the daemon of the other user overwrites with its next run
+                    LOGGER.error("Daemon on port {} rejected the token of {}, stop the daemon of the other user or configure another daemon.port",
+                            appConfig.daemonPort, Daemon.tokenFile(appConfig.daemonPort));
+                    return 1;
+                }
+                if (exitCode != null) {
+                    LOGGER.info("Run executed by daemon on port {}, exit code {}", appConfig.daemonPort, exitCode);
+                    return exitCode;
+                }
+            }
+
+            if (appConfig.localOnly || appConfig.impactChanged != null) return runWithoutSpring(appConfig);
+
+            ctx = launchSpring(appConfig.neo4jConfig);
             if (ctx == null) return 1;
 
-            ExecutionData executionData = queryData(ctx, appConfig);
-            if (executionData == null) return 1;
+            return run(ctx.getBean(Neo4jService.class), appConfig);
+        } catch (Exception e) {
+            LOGGER.error("Application run failed!", e);
+            return 1;
+        } finally {
+            if (ctx != null) ctx.close();
+        }
+    }
+
+    /**
+     * Executes a run
+     *
+     * @param neo4jService the neo4jService
+     * @param appConfig    containing the configured options
+     * @return the exit code
+     */
+    private static int run(@NotNull Neo4jService neo4jService, @NotNull ApplicationConfig appConfig) {
+        try {
+            if (appConfig.impactChanged != null) return analyseImpact(neo4jService, appConfig) ? 0 : 1;
 
-            if (executionData.runAnalysis && !analyse(appConfig, executionData.currentVersion)) return 1;
+            ExecutionData executionData;
+            try (RunMetrics.Phase ignored = RunMetrics.phase("query")) {
+                executionData = queryData(neo4jService, appConfig);
+            }
+            if (executionData == null) return 1;
 
-            generateReport(appConfig.reportPath, executionData.currentVersion, executionData.previousVersion);
+            if (executionData.currentVersion != null && executionData.previousVersion != null) {
+                if (executionData.runAnalysis && !analyse(appConfig, executionData.currentVersion)) return 1;
+                if (!checkModel(executionData.currentVersion.getProject().getRoot(), appConfig.memoryBudget, appConfig.metricsSummary != null)) return 1;
+                DiffGenerator diffExtractor = new DiffExtractor(executionData.previousVersion, executionData.currentVersion, appConfig.parallelReport);
+                if (!appConfig.localOnly && appConfig.diffCache) {
+                    // diffs cached for an earlier analysis of this version are outdated
+                    if (executionData.runAnalysis) executionData.neo4jService.invalidateDiffCache(appConfig.projectName, executionData.currentVersionName);
+                    diffExtractor = executionData.neo4jService.createCachingDiffGenerator(diffExtractor, executionData.previousVersionName, executionData.currentVersionName);
+                }
+                List<CycleTracker.CycleEntry> cycles = appConfig.cycleReport ? findCycles(executionData.previousVersion, executionData.currentVersion) : null;
 
-            if (!appConfig.localOnly) save(executionData.neo4jService);
+                if (appConfig.localOnly) {
+                    if (!generateReport(appConfig, diffExtractor, cycles)) return 1;
+                } else if (appConfig.asyncSave) {
+                    // the report only reads the analysed data, so it can be generated while the data is written
+                    CompletableFuture<Void> saving = saveAsync(executionData.neo4jService);
+                    boolean reported = false;
+                    boolean saved;
+                    try {
+                        reported = generateReport(appConfig, diffExtractor, cycles);
+                    } finally {
+                        saved = awaitSave(saving);
+                    }
+                    if (!reported || !saved) return 1;
+                } else {
+                    // the analysed data is saved even if the report fails, like with asyncSave
+                    boolean reported = generateReport(appConfig, diffExtractor, cycles);
+                    save(executionData.neo4jService);
+                    if (!reported) return 1;
+                }
+            } else {
+                // version already analysed, compute the report inside the database without loading the graph
+                DiffGenerator diffExtractor = executionData.neo4jService.createDiffExtractor(appConfig.projectName, executionData.previousVersionName, executionData.currentVersionName);
+                if (!appConfig.localOnly && appConfig.diffCache) {
+                    diffExtractor = executionData.neo4jService.createCachingDiffGenerator(diffExtractor, executionData.previousVersionName, executionData.currentVersionName);
+                }
+                if (!generateReport(appConfig, diffExtractor, null)) return 1;
+            }
 
             return 0;
         } catch (Exception e) {
             LOGGER.error("Application run failed!", e);
             return 1;
         } finally {
-            if (ctx != null) ctx.close();
+            writeMetrics(appConfig.metricsSummary);
+        }
+    }
+
+    /**
+     * Runs the daemon until a stop request. Spring and the graph are loaded once, the runs of the clients use them
+     *
+     * @return the exit code
+     * @throws ApplicationConfig.ConfigurationException if the neo4j configuration is invalid
+     * @throws IOException                              if the daemon port could not be bound
+     * @see Daemon
+     */
+    private static int serve() throws ApplicationConfig.ConfigurationException, IOException {
+        ConfigurableApplicationContext ctx = launchSpring(ApplicationConfig.getNeo4jConfig());
+        if (ctx == null) return 1;
+        try {
+            Neo4jService neo4jService = ctx.getBean(Neo4jService.class);
+            LOGGER.info("Loading graph");
+            neo4jService.getRoot();
+            List<String> database = ApplicationConfig.getNeo4jTarget();
+            Daemon daemon = new Daemon(ApplicationConfig.getDaemonPort(), options -> {
+                RunMetrics.reset();
+                Config.load(options);
+                if (!database.equals(ApplicationConfig.getNeo4jTarget())) {
+                    LOGGER.warn("Refusing run configured for another database than the one of the daemon");
+                    return Daemon.REFUSED;
+                }
+                ApplicationConfig appConfig = loadConfig();
+                if (appConfig == null) return 1;
+                if (appConfig.impactChanged != null && appConfig.impactOutput == null) {
+                    // the impact would be printed to the output of the daemon instead of the one of the client
+                    LOGGER.info("Refusing impact run without impact.output");
+                    return Daemon.REFUSED;
+                }
+                int exitCode = run(neo4jService, appConfig);
+                // a failed, local only or impact run may leave unsaved changes in the graph
+                if (exitCode != 0 || appConfig.localOnly || appConfig.impactChanged != null) {
+                    neo4jService.discardRoot();
+                    CycleTracker.clearCache();
+                }
+                return exitCode;
+            });
+            daemon.serve();
+            return 0;
+        } finally {
+            ctx.close();
         }
     }
 
     /**
-     * Loads the available project data from the neo4j database
-     * @param ctx the configurableApplicationContext to retrieve the Neo4jService bean
+     * Analyses released archives of a project version by version and saves the graph once at the end
+     *
+     * @param sources the jar files or maven coordinates of the versions, in version order
+     * @return the exit code
+     * @throws ApplicationConfig.ConfigurationException if the configuration is invalid
+     * @throws IOException                              if an archive could not be resolved or read
+     * @see HistoryBackfill
+     */
+    private static int backfill(@NotNull String[] sources) throws ApplicationConfig.ConfigurationException, IOException {
+        int daemonPort = ApplicationConfig.getDaemonPort();
+        if (Daemon.isRunning(daemonPort)) {
+            // the daemon would keep its outdated graph and overwrite the backfilled versions with its next save
+            LOGGER.error("A daemon is running on port {}, stop it before the backfill", daemonPort);
+            return 1;
+        }
+        Map<String, Path> archives = HistoryBackfill.resolve(sources, Config.getBasedir(), ApplicationConfig.getBackfillRepository());
+        String projectName = ApplicationConfig.getBackfillProjectName(sources);
+        LOGGER.info("Backfilling {} versions of {}", archives.size(), projectName);
+
+        ConfigurableApplicationContext ctx = launchSpring(ApplicationConfig.getNeo4jConfig());
+        if (ctx == null) return 1;
+        try {
+            Neo4jService neo4jService = ctx.getBean(Neo4jService.class);
+            LOGGER.info("Loading graph");
+            List<VersionInformation> added = new HistoryBackfill(neo4jService.getRoot(), projectName, archives).run();
+            if (!checkModel(neo4jService.getRoot(), ApplicationConfig.getMemoryBudget(), ApplicationConfig.getMetricsSummary() != null)) return 1;
+            if (added.isEmpty()) {
+                LOGGER.info("All versions already analysed");
+            } else {
+                save(neo4jService);
+                LOGGER.info("Backfilled versions {}", added);
+            }
+            return 0;
+        } finally {
+            ctx.close();
+            writeMetrics(ApplicationConfig.getMetricsSummary());
+        }
+    }
+
+    /**
+     * Executes a run that never saves the graph without Spring. Component scanning and repository creation are skipped,
+     * only the object graph mapping of the information package is set up
+     *
+     * @param appConfig containing the configured options
+     * @return the exit code
+     */
+    private static int runWithoutSpring(@NotNull ApplicationConfig appConfig) {
+        LOGGER.info("Connecting to neo4j without Spring");
+        SessionFactory sessionFactory = null;
+        try {
+            Neo4jService neo4jService;
+            try (RunMetrics.Phase ignored = RunMetrics.phase("neo4j.connect")) {
+                sessionFactory = new SessionFactory(appConfig.neo4jConfig, RootInformation.class.getPackage().getName());
+                neo4jService = new Neo4jService(sessionFactory);
+            }
+            LOGGER.info("Connected to neo4j");
+            return run(neo4jService, appConfig);
+        } catch (RuntimeException e) {
+            if (!isConnectionFailure(e)) throw e;
+            return 1;
+        } finally {
+            if (sessionFactory != null) sessionFactory.close();
+        }
+    }
+
+    /**
+     * Loads the available project data from the neo4j database. The graph is only loaded if the current version has to be analysed
+     * @param neo4jService the neo4jService
      * @param appConfig containing the configured options
      * @return the project data
      */
     @Nullable
-    private static ExecutionData queryData(@NotNull ConfigurableApplicationContext ctx, @NotNull ApplicationConfig appConfig) {
+    private static ExecutionData queryData(@NotNull Neo4jService neo4jService, @NotNull ApplicationConfig appConfig) {
         LOGGER.info("Querying project data");
-        Neo4jService neo4jService = ctx.getBean(Neo4jService.class);
+        List<String> versionNames = neo4jService.getVersionNames(appConfig.projectName);
+        if (versionNames != null && versionNames.contains(appConfig.currentVersionName)) {
+            int currentIndex = versionNames.indexOf(appConfig.currentVersionName);
+            String previousVersionName = appConfig.previousVersionName == null ? (currentIndex == 0 ? null : versionNames.get(currentIndex - 1)) : appConfig.previousVersionName;
+            if (previousVersionName == null || !versionNames.contains(previousVersionName)) {
+                LOGGER.error("Specified previous version ({}) does not exist!", previousVersionName);
+                return null;
+            }
+            LOGGER.info("Queried project data, version {} already analysed", appConfig.currentVersionName);
+            return new ExecutionData(appConfig.currentVersionName, previousVersionName, neo4jService);
+        }
+
         RootInformation root = neo4jService.getRoot();
         ProjectInformation project = (ProjectInformation) root.find(appConfig.projectName, null);
         if (project == null) {
@@ -114,27 +331,37 @@ public class Application {
 
     /**
      * Launches Spring for the neo4jService
-     * @param appConfig containing the configured options
+     * @param neo4jConfig the configuration of the database connection
      * @return the configurableApplicationContext
      */
     @Nullable
-    private static ConfigurableApplicationContext launchSpring(ApplicationConfig appConfig) {
+    private static ConfigurableApplicationContext launchSpring(@NotNull Configuration neo4jConfig) {
         LOGGER.info("Launching Spring");
-        try {
-            neo4jConfig = appConfig.neo4jConfig;
+        try (RunMetrics.Phase ignored = RunMetrics.phase("spring")) {
+            Application.neo4jConfig = neo4jConfig;
             ConfigurableApplicationContext ctx = SpringApplication.run(Application.class);
             LOGGER.info("Launched Spring");
             return ctx;
         } catch (Exception e) {
-            if (Utils.hasCause(e, AuthenticationException.class)) {
-                LOGGER.error("Could not authenticate to neo4j");
-            } else if (Utils.hasCause(e, ServiceUnavailableException.class)) {
-                LOGGER.error("Could not connect to neo4j, service unavailable");
-            } else throw e;
+            if (!isConnectionFailure(e)) throw e;
             return null;
         }
     }
 
+    /**
+     * Logs an exception caused by an unreachable database or invalid credentials
+     * @param e the exception
+     * @return whether the exception was caused by the database connection
+     */
+    private static boolean isConnectionFailure(@NotNull Exception e) {
+        if (Utils.hasCause(e, AuthenticationException.class)) {
+            LOGGER.error("Could not authenticate to neo4j");
+        } else if (Utils.hasCause(e, ServiceUnavailableException.class)) {
+            LOGGER.error("Could not connect to neo4j, service unavailable");
+        } else return false;
+        return true;
+    }
+
     /**
      * Initiates the analysis of the pom and code dependencies
      * @param appConfig containing the configured options
@@ -146,6 +373,28 @@ public class Application {
         return analyseCodeDependencies(appConfig, currentVersion);
     }
 
+    /**
+     * Enforces the memory budget of the graph and records its statistics. The statistics are only computed if needed, as they visit the whole graph
+     * @param root the graph
+     * @param memoryBudget the memory budget or null
+     * @param publish whether to record the statistics in the run metrics
+     * @return false if the graph exceeds the memory budget
+     */
+    private static boolean checkModel(@NotNull RootInformation root, @Nullable MemoryBudget memoryBudget, boolean publish) {
+        if (memoryBudget == null && !publish && !LOGGER.isDebugEnabled()) return true;
+        ModelStatistics statistics;
+        try (RunMetrics.Phase ignored = RunMetrics.phase("model")) {
+            statistics = memoryBudget == null ? ModelStatistics.of(root) : memoryBudget.enforce(root);
+        } catch (MemoryBudget.ExceededException e) {
+            LOGGER.error(e.getMessage());
+            e.getStatistics().publish();
+            return false;
+        }
+        LOGGER.debug("Model: {}", statistics);
+        statistics.publish();
+        return true;
+    }
+
     /**
      * Persists the current analysis into the neo4j database
      * @param neo4jService the neo4jService
@@ -156,6 +405,36 @@ public class Application {
         LOGGER.info("Saved collected data");
     }
 
+    /**
+     * Starts persisting the current analysis into the neo4j database in the background
+     * @param neo4jService the neo4jService
+     * @return the future of the save operation
+     */
+    @NotNull
+    private static CompletableFuture<Void> saveAsync(@NotNull Neo4jService neo4jService) {
+        LOGGER.info("Saving collected data in background");
+        return neo4jService.saveRootAsync();
+    }
+
+    /**
+     * Waits for a background save to complete
+     * @param saving the future of the save operation
+     * @return true if successful
+     */
+    private static boolean awaitSave(@NotNull CompletableFuture<Void> saving) {
+        try {
+            saving.get();
+            LOGGER.info("Saved collected data");
+            return true;
+        } catch (ExecutionException e) {
+            LOGGER.error("Could not save collected data", e.getCause());
+        } catch (InterruptedException e) {
+            LOGGER.error("Interrupted while saving collected data", e);
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
     /**
      * Initiates the analysis of the pom dependencies.
      * @param projectManager the projectManager
@@ -163,7 +442,9 @@ public class Application {
      */
     private static void analysePomDependencies(@NotNull ProjectManager projectManager, VersionInformation currentVersion) {
         LOGGER.info("Analysing pom dependencies");
-        PomDependencyExtractor.updatePomDependencies(projectManager, currentVersion);
+        try (RunMetrics.Phase ignored = RunMetrics.phase("pom")) {
+            PomDependencyExtractor.updatePomDependencies(projectManager, currentVersion);
+        }
         LOGGER.info("Analysed pom dependencies");
     }
 
@@ -188,29 +469,113 @@ public class Application {
     /**
      * Initiates the generation of the static HTML report for the current version
      *
-     * @param reportPath     the directory to store the report file
-     * @param currentVersion the current versionInformation
+     * @param appConfig     containing the configured options
+     * @param diffGenerator the generator for the diff between previous and current version
+     * @param cycles        the changed dependency cycles between previous and current version, null if not computed
+     * @return true if successful
      */
-    private static void generateReport(Path reportPath, VersionInformation currentVersion, VersionInformation previousVersion) {
+    private static boolean generateReport(@NotNull ApplicationConfig appConfig, @NotNull DiffGenerator diffGenerator, @Nullable List<CycleTracker.CycleEntry> cycles) {
         LOGGER.info("Generating static report artifact");
-        try {
-            HTMLReporter.generateReport(new DiffExtractor(previousVersion, currentVersion).generateDiff(true, true), reportPath);
+        try (RunMetrics.Phase ignored = RunMetrics.phase("report")) {
+            if (appConfig.shardedReport) {
+                HTMLReporter.generateShardedReport(diffGenerator, true, true, cycles, appConfig.reportPath);
+            } else {
+                HTMLReporter.generateReport(diffGenerator, true, true, cycles, appConfig.reportPath);
+            }
+            if (appConfig.binaryDiff) {
+                String fileName = "adcl_diff_" + diffGenerator.getProjectName().replace(":", "_") + "_" + diffGenerator.getProjectVersion() + ".bin";
+                diffGenerator.writeBinaryDiff(Files.newOutputStream(appConfig.reportPath.resolve(fileName)), false, false);
+                LOGGER.info("Wrote binary diff to {}", appConfig.reportPath.resolve(fileName));
+            }
             LOGGER.info("Generated static report artifact");
-        } catch (JsonProcessingException e) {
+            return true;
+        } catch (IOException e) {
             LOGGER.error("Could not generate static report", e);
+            return false;
         }
     }
 
     /**
-     * Loads the applicationConfig containing the configured options
-     * @param args the CLI args
-     * @return the applicationConfig containing the configured options
+     * Finds the package and class cycles introduced and resolved between two versions
+     *
+     * @param previousVersion the previous version
+     * @param currentVersion  the current version
+     * @return the changed cycles
      */
-    @Nullable
-    private static ApplicationConfig loadConfig(String[] args) {
-        LOGGER.info("Loading configuration");
-        Config.load(args);
+    @NotNull
+    private static List<CycleTracker.CycleEntry> findCycles(@NotNull VersionInformation previousVersion, @NotNull VersionInformation currentVersion) {
+        LOGGER.info("Searching dependency cycles");
+        List<CycleTracker.CycleEntry> result;
+        try (RunMetrics.Phase ignored = RunMetrics.phase("cycles")) {
+            result = CycleTracker.diff(previousVersion, currentVersion);
+        }
+        result.stream().filter(c -> c.change).forEach(c -> LOGGER.warn("New dependency cycle: {}", c));
+        return result;
+    }
+
+    /**
+     * Computes the classes and packages affected by the configured changed classes and prints or writes them, one {@code TYPE path} per line.
+     * A version not in the database yet gets analysed for this, but is not saved
+     *
+     * @param neo4jService the neo4jService
+     * @param appConfig    containing the configured options
+     * @return true if successful
+     */
+    private static boolean analyseImpact(@NotNull Neo4jService neo4jService, @NotNull ApplicationConfig appConfig) {
+        LOGGER.info("Analysing change impact");
+        RootInformation root = neo4jService.getRoot();
+        ProjectInformation project = (ProjectInformation) root.find(appConfig.projectName, null);
+        if (project == null) project = new ProjectInformation(root, appConfig.projectName, true, "<unknown>");
+        VersionInformation version = project.getVersion(appConfig.currentVersionName);
+        if (version == null) {
+            version = project.addVersion(appConfig.currentVersionName);
+            if (!analyseCodeDependencies(appConfig, version)) return false;
+        }
+        assert appConfig.impactChanged != null;
+        ImpactAnalyzer.Impact impact;
+        try (RunMetrics.Phase ignored = RunMetrics.phase("impact")) {
+            impact = new ImpactAnalyzer(project, version, appConfig.impactGranularity).analyse(Arrays.asList(appConfig.impactChanged));
+        }
+        if (!impact.getUnresolved().isEmpty()) LOGGER.warn("Changed classes not found in {}: {}", version, impact.getUnresolved());
+
+        List<String> lines = Utils.<Information<?>>concatStreams(impact.getPackages().stream(), impact.getClasses().stream(), impact.getMethods().stream())
+                .map(i -> i.getType() + " " + i.getPath()).sorted().collect(Collectors.toList());
+        if (appConfig.impactOutput == null) {
+            lines.forEach(System.out::println);
+        } else {
+            try {
+                Files.write(appConfig.impactOutput, lines);
+            } catch (IOException e) {
+                LOGGER.error("Could not write impact analysis result to {}", appConfig.impactOutput, e);
+                return false;
+            }
+        }
+        LOGGER.info("Analysed change impact: {} classes in {} packages affected", impact.getClasses().size(), impact.getPackages().size());
+        return true;
+    }
+
+    /**
+     * Logs the phase durations of the run and writes the run metrics
+     * @param summaryFile the file to write the JSON summary to, null to only log the phase durations
+     */
+    private static void writeMetrics(@Nullable Path summaryFile) {
+        LOGGER.info("Phase durations in seconds: {}", RunMetrics.summary().get("phases"));
+        if (summaryFile == null) return;
         try {
+            RunMetrics.writeSummary(summaryFile);
+            LOGGER.info("Wrote run metrics to {}", summaryFile);
+        } catch (IOException e) {
+            LOGGER.error("Could not write run metrics to {}", summaryFile, e);
+        }
+    }
+
+    /**
+     * Creates the applicationConfig from the loaded options
+     * @return the applicationConfig containing the configured options, null if invalid
+     */
+    @Nullable
+    private static ApplicationConfig loadConfig() {
+        try (RunMetrics.Phase ignored = RunMetrics.phase("config")) {
             ApplicationConfig appConfig = new ApplicationConfig();
             LOGGER.info("ADCL args: {}", appConfig);
             return appConfig;
@@ -236,14 +601,18 @@ public class Application {
     private static class ExecutionData {
         public final boolean runAnalysis;
         @NotNull
-        public final VersionInformation currentVersion;
+        public final String currentVersionName;
         @NotNull
+        public final String previousVersionName;
+        @Nullable
+        public final VersionInformation currentVersion;
+        @Nullable
         public final VersionInformation previousVersion;
         @NotNull
         private final Neo4jService neo4jService;
 
         /**
-         * constructor
+         * constructor for a run with the graph loaded
          *
          * @param runAnalysis     false if current version is already contained in the database
          * @param currentVersion  the current version
@@ -252,9 +621,27 @@ public class Application {
          */
         private ExecutionData(boolean runAnalysis, @NotNull VersionInformation currentVersion, @NotNull VersionInformation previousVersion, @NotNull Neo4jService neo4jService) {
             this.runAnalysis = runAnalysis;
+            this.currentVersionName = currentVersion.getName();
+            this.previousVersionName = previousVersion.getName();
             this.currentVersion = currentVersion;
             this.previousVersion = previousVersion;
             this.neo4jService = neo4jService;
         }
+
+        /**
+         * constructor for a report only run, as current version is already contained in the database. The graph is not loaded
+         *
+         * @param currentVersionName  the current version name
+         * @param previousVersionName the previous version name
+         * @param neo4jService        the neo4jService
+         */
+        private ExecutionData(@NotNull String currentVersionName, @NotNull String previousVersionName, @NotNull Neo4jService neo4jService) {
+            this.runAnalysis = false;
+            this.currentVersionName = currentVersionName;
+            this.previousVersionName = previousVersionName;
+            this.currentVersion = null;
+            this.previousVersion = null;
+            this.neo4jService = neo4jService;
+        }
     }
 }
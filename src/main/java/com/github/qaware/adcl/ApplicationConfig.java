@@ -1,7 +1,10 @@
 package com.github.qaware.adcl;
 
+import com.github.qaware.adcl.depex.HistoryBackfill;
+import com.github.qaware.adcl.information.MemoryBudget;
 import com.github.qaware.adcl.pm.MavenProjectManager;
 import com.github.qaware.adcl.pm.ProjectManager;
+import com.github.qaware.adcl.report.DependencyGraph;
 import com.github.qaware.adcl.util.Utils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -15,6 +18,10 @@ import org.springframework.boot.autoconfigure.data.neo4j.Neo4jProperties;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.StringJoiner;
 import java.util.stream.Stream;
 
@@ -23,6 +30,8 @@ import java.util.stream.Stream;
  */
 public class ApplicationConfig {
     private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationConfig.class);
+    private static final String DEFAULT_NEO4J_URI = "bolt://127.0.0.1:7687";
+    private static final String DEFAULT_NEO4J_USERNAME = "neo4j";
 
     /**
      * the base directory for project analysis. All further relative path configurations start from there
@@ -69,6 +78,76 @@ public class ApplicationConfig {
      */
     public final boolean localOnly = Config.get("local", false);
 
+    /**
+     * Whether to save the analysis in the background while the report is generated
+     */
+    public final boolean asyncSave = Config.get("save.async", true);
+
+    /**
+     * Whether to compute the report diff of the packages in parallel
+     */
+    public final boolean parallelReport = Config.get("report.parallel", true);
+
+    /**
+     * Whether to split the report data into per package shards loaded on demand, for large diffs
+     */
+    public final boolean shardedReport = Config.get("report.sharded", false);
+
+    /**
+     * Whether to additionally write the diff in the compact binary format, e.g. for CI tooling
+     */
+    public final boolean binaryDiff = Config.get("report.binary", false);
+
+    /**
+     * Whether to store computed diffs in the database and reuse them for later reports of the same versions
+     */
+    public final boolean diffCache = Config.get("report.cache", true);
+
+    /**
+     * Whether to report introduced and resolved dependency cycles. Only computed if the graph is loaded for the analysis
+     */
+    public final boolean cycleReport = Config.get("report.cycles", true);
+
+    /**
+     * The changed classes to compute the impact of, as binary names or class file paths. If set, the impact analysis runs instead of the report
+     */
+    @Nullable
+    public final String[] impactChanged = Config.getStringList("impact.changed", null);
+
+    /**
+     * Whether the impact analysis traces dependencies between classes or between methods
+     */
+    @NotNull
+    public final DependencyGraph.Granularity impactGranularity = getImpactGranularity();
+
+    /**
+     * The file to write the impact analysis result to, or null to print it
+     */
+    @Nullable
+    public final Path impactOutput = Config.getPath("impact.output", null);
+
+    /**
+     * The file to write the JSON summary of the phase durations and counters of the run to, or null to only log the phase durations
+     */
+    @Nullable
+    public final Path metricsSummary = getMetricsSummary();
+
+    /**
+     * The limit for the estimated heap retained by the graph, or null to not check the graph
+     */
+    @Nullable
+    public final MemoryBudget memoryBudget = getMemoryBudget();
+
+    /**
+     * Whether to hand the run over to a running daemon, if there is one
+     */
+    public final boolean useDaemon = Config.get("daemon.use", true);
+
+    /**
+     * The port of the daemon
+     */
+    public final int daemonPort = getDaemonPort();
+
     /**
      * Where to place the static report. Existing directory ensured
      */
@@ -100,6 +179,21 @@ public class ApplicationConfig {
         return result;
     }
 
+    /**
+     * Retrieves the granularity of the impact analysis
+     * @return the granularity
+     * @throws ConfigurationException if the configured granularity is unknown
+     */
+    @NotNull
+    private static DependencyGraph.Granularity getImpactGranularity() throws ConfigurationException {
+        String raw = Config.get("impact.granularity", "class");
+        try {
+            return DependencyGraph.Granularity.valueOf(raw.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("impact.granularity has to be class or method. Is: {}", raw);
+        }
+    }
+
     /**
      * Retrieves the package name of the class on the given path.
      * @param classPath the path to the class.
@@ -247,20 +341,82 @@ public class ApplicationConfig {
     }
 
     /**
-     * Retrieves the neo4j configuration.
+     * Retrieves the file to write the run metrics to. Does not need the other options, as also used by the backfill
+     * @return the file or null if not configured
+     */
+    @Nullable
+    static Path getMetricsSummary() {
+        return Config.getPath("metrics.summary", null);
+    }
+
+    /**
+     * Retrieves the memory budget of the graph. Does not need the other options, as also used by the backfill
+     * @return the budget or null if not configured
+     * @throws ConfigurationException if the configured budget is not a size
+     */
+    @Nullable
+    static MemoryBudget getMemoryBudget() throws ConfigurationException {
+        String raw = Config.get("memory.budget", null);
+        if (raw == null) return null;
+        try {
+            return new MemoryBudget(MemoryBudget.parse(raw));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("memory.budget has to be a size like 512m or 4g. Is: {}", raw);
+        }
+    }
+
+    /**
+     * Retrieves the port of the daemon. Does not need the other options, as used to start the daemon
+     * @return the port
+     */
+    static int getDaemonPort() {
+        return Config.get("daemon.port", Daemon.DEFAULT_PORT);
+    }
+
+    /**
+     * Retrieves the local maven repository to resolve backfill coordinates in. Does not need the other options, as the backfill runs without a project setup
+     * @return the repository location
+     * @throws ConfigurationException if the configured path is invalid
+     */
+    @NotNull
+    static Path getBackfillRepository() throws ConfigurationException {
+        Path result = Config.getPath("backfill.repository", null);
+        if (result == null) {
+            String raw = Config.get("backfill.repository", null);
+            if (raw != null) throw new ConfigurationException("backfill.repository not valid. Is: {}", raw);
+            result = Paths.get(System.getProperty("user.home"), ".m2", "repository");
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the project name for a backfill. Does not need the other options, as the backfill runs without a project setup
+     * @param sources the backfill sources
+     * @return the project name
+     * @throws ConfigurationException if the project name is neither configured nor given by maven coordinates
+     */
+    @NotNull
+    static String getBackfillProjectName(@NotNull String[] sources) throws ConfigurationException {
+        String result = Config.get("project.name", HistoryBackfill.projectNameOf(sources));
+        if (result == null) throw new ConfigurationException("Option project.name not specified");
+        return result;
+    }
+
+    /**
+     * Retrieves the neo4j configuration. Does not need the other options, as used to start the daemon
      * @return the neo4j configuration.
      * @throws ConfigurationException if the neo4j configuration is invalid.
      */
     @NotNull
-    private Configuration getNeo4jConfig() throws ConfigurationException {
+    static Configuration getNeo4jConfig() throws ConfigurationException {
         String uri = Config.get("spring.data.neo4j.uri", null);
         if (uri == null) {
-            uri = "bolt://127.0.0.1:7687";
+            uri = DEFAULT_NEO4J_URI;
             LOGGER.warn("spring.data.neo4j.uri not specified, using {} instead", uri);
         }
         String username = Config.get("spring.data.neo4j.username", null);
         if (username == null) {
-            username = "neo4j";
+            username = DEFAULT_NEO4J_USERNAME;
             LOGGER.warn("spring.data.neo4j.username not specified, using {} instead", username);
         }
         String password = Config.get("spring.data.neo4j.password", null);
@@ -273,6 +429,18 @@ public class ApplicationConfig {
         return properties.createConfiguration();
     }
 
+    /**
+     * Retrieves the database the configuration points to, without validating it. Used by the daemon to only execute runs against its own database
+     *
+     * @return the uri, username and password, defaults applied
+     */
+    @NotNull
+    static List<String> getNeo4jTarget() {
+        return Arrays.asList(Config.get("spring.data.neo4j.uri", DEFAULT_NEO4J_URI),
+                Config.get("spring.data.neo4j.username", DEFAULT_NEO4J_USERNAME),
+                Config.get("spring.data.neo4j.password", null));
+    }
+
     // OTHER
 
     /**
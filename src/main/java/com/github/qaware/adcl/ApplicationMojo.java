@@ -10,6 +10,7 @@ import java.util.Properties;
 /**
  * ApplicationMojo is the entry point for maven goal {@code adcl:start}.
  * Goal is to start the application with the arguments given via Maven in the configuration tag.
+ * If a {@link Daemon} is running, the run is executed by the daemon.
  */
 @Mojo(name = "start")
 public class ApplicationMojo extends AbstractMojo {
@@ -225,6 +225,28 @@ public class Config {
         logger.info("Configuration loaded: {}", properties);
     }
 
+    /**
+     * Replaces all options by already merged ones, e.g. received from a client by the daemon. No config file is read
+     *
+     * @param options the options
+     */
+    static void load(@NotNull Map<String, String> options) {
+        properties.clear();
+        properties.putAll(options);
+        basedir = loadBasedir();
+        logger.info("Configuration loaded: {}", properties);
+    }
+
+    /**
+     * @return all loaded options, with the basedir as absolute path so they can be used from another working directory
+     */
+    @NotNull
+    static Map<String, String> getAll() {
+        Map<String, String> result = new HashMap<>(properties);
+        result.put("basedir", basedir.toAbsolutePath().normalize().toString());
+        return result;
+    }
+
     @NotNull
     private static Path loadBasedir() {
         basedir = Paths.get(".");
@@ -0,0 +1,336 @@
+package com.github.qaware.adcl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A long running ADCL process keeping Spring, the database connection and the loaded graph between runs.
+ * Clients send their configuration over a local socket and receive the exit code of the run.
+ * <br>Runs are executed one at a time: the graph is shared by all projects and saved as a whole, so writes of different projects cannot overlap either.
+ * Pings and stop requests are answered while a run is in progress.
+ * <br>Every request carries a token the daemon writes to a file only its user can read (see {@link #tokenFile(int)}),
+ * so other local users can neither execute runs as the daemon user nor stop the daemon.
+ * <p>
+ * Protocol (all connections to the loopback address): a request byte ({@link #RUN}, {@link #PING} or {@link #STOP}) and the token in modified UTF-8,
+ * for {@link #RUN} followed by the number of options and each option as key and value in modified UTF-8. The daemon answers with an int, the exit code, {@link #REFUSED} or {@link #UNAUTHORIZED} for {@link #RUN} and 0 otherwise.
+ */
+public class Daemon {
+    /**
+     * The port used if none is configured
+     */
+    public static final int DEFAULT_PORT = 27474;
+    /**
+     * The answer of a {@link Handler} that does not execute a run, so that the client executes it itself
+     */
+    public static final int REFUSED = -1;
+    /**
+     * The answer to a {@link #RUN} without valid token, the client must not execute the run itself:
+     * the daemon would keep its graph and overwrite whatever the client saves with its next run
+     */
+    public static final int UNAUTHORIZED = -2;
+
+    static final byte RUN = 'R';
+    static final byte PING = 'P';
+    static final byte STOP = 'S';
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Daemon.class);
+    private static final int CONNECT_TIMEOUT_MILLIS = 500;
+    private static final int TOKEN_BYTES = 32;
+
+    @NotNull
+    private final ServerSocket serverSocket;
+    @NotNull
+    private final Handler handler;
+    @NotNull
+    private final Path tokenFile;
+    @NotNull
+    private final byte[] token;
+    private final ExecutorService connections = Executors.newCachedThreadPool(r -> {
+        Thread result = new Thread(r, "adcl-daemon-connection");
+        result.setDaemon(true);
+        return result;
+    });
+    private final ReentrantLock runLock = new ReentrantLock();
+    private volatile boolean stopped;
+
+    /**
+     * Binds the daemon to the loopback address and writes its token
+     *
+     * @param port    the port, 0 for any free port
+     * @param handler executes the runs
+     * @throws IOException if the port could not be bound, e.g. because another daemon is running, or the token could not be written
+     */
+    public Daemon(int port, @NotNull Handler handler) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.handler = handler;
+        this.tokenFile = tokenFile(getPort());
+        try {
+            this.token = createToken(tokenFile);
+        } catch (IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the port the daemon listens on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts requests until stopped
+     */
+    public void serve() {
+        LOGGER.info("Daemon listening on port {}", getPort());
+        while (!stopped) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> handle(socket));
+            } catch (IOException e) {
+                if (!stopped) LOGGER.error("Could not accept daemon connection", e);
+            }
+        }
+        connections.shutdown();
+        try {
+            // let a run in progress finish
+            runLock.lockInterruptibly();
+            runLock.unlock();
+            connections.awaitTermination(CONNECT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.info("Daemon stopped");
+    }
+
+    /**
+     * Stops accepting requests. A run in progress is finished
+     */
+    public void stop() {
+        stopped = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            LOGGER.warn("Could not close daemon socket", e);
+        }
+        try {
+            Files.deleteIfExists(tokenFile);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete daemon token {}", tokenFile, e);
+        }
+    }
+
+    /**
+     * @param socket the connection of a client
+     */
+    private void handle(@NotNull Socket socket) {
+        try (Socket s = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+            byte request = in.readByte();
+            int result = 0;
+            if (!MessageDigest.isEqual(token, in.readUTF().getBytes(StandardCharsets.US_ASCII))) {
+                LOGGER.warn("Rejected daemon request without valid token");
+                result = request == RUN ? UNAUTHORIZED : 1;
+            } else if (request == RUN) {
+                Map<String, String> options = new HashMap<>();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) options.put(in.readUTF(), in.readUTF());
+                result = run(options);
+            } else if (request == STOP) {
+                LOGGER.info("Daemon stop requested");
+                stop();
+            } else if (request != PING) {
+                LOGGER.warn("Unknown daemon request {}", request);
+                result = 1;
+            }
+            out.writeInt(result);
+        } catch (IOException e) {
+            LOGGER.warn("Daemon connection failed", e);
+        }
+    }
+
+    /**
+     * @param options the options of the run
+     * @return the exit code
+     */
+    private int run(@NotNull Map<String, String> options) {
+        runLock.lock();
+        try {
+            if (stopped) return 1;
+            return handler.run(options);
+        } catch (RuntimeException e) {
+            LOGGER.error("Daemon run failed", e);
+            return 1;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    /**
+     * Lets a running daemon execute a run
+     *
+     * @param port    the port of the daemon
+     * @param options the options of the run, relative paths resolved by the daemon against the basedir option
+     * @return the exit code, {@link #UNAUTHORIZED} if the daemon rejected the token
+     * or null if no daemon is listening on the port or the daemon refused the run
+     */
+    @Nullable
+    public static Integer run(int port, @NotNull Map<String, String> options) {
+        Integer result = send(port, RUN, options);
+        if (result != null && result == REFUSED) {
+            LOGGER.info("Daemon on port {} refused the run", port);
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * @param port the port of the daemon
+     * @return whether a daemon is listening on the port
+     */
+    public static boolean isRunning(int port) {
+        return send(port, PING, null) != null;
+    }
+
+    /**
+     * Stops a running daemon after its current run
+     *
+     * @param port the port of the daemon
+     * @return whether a daemon was listening on the port
+     */
+    public static boolean stop(int port) {
+        return send(port, STOP, null) != null;
+    }
+
+    /**
+     * @param port    the port of the daemon
+     * @param request the request type
+     * @param options the options of a run
+     * @return the answer, 1 if the daemon failed to answer, or null if no daemon is listening on the port
+     */
+    @Nullable
+    private static Integer send(int port, byte request, @Nullable Map<String, String> options) {
+        try (Socket socket = new Socket()) {
+            try {
+                socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT_MILLIS);
+            } catch (IOException e) {
+                LOGGER.debug("No daemon on port {}", port, e);
+                return null;
+            }
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeByte(request);
+            out.writeUTF(readToken(port));
+            if (options != null) {
+                out.writeInt(options.size());
+                for (Map.Entry<String, String> option : options.entrySet()) {
+                    out.writeUTF(option.getKey());
+                    out.writeUTF(option.getValue());
+                }
+            }
+            out.flush();
+            return new DataInputStream(new BufferedInputStream(socket.getInputStream())).readInt();
+        } catch (IOException e) {
+            // the request may have been (partially) executed, so it must not be repeated locally
+            LOGGER.error("Daemon on port {} did not answer", port, e);
+            return 1;
+        }
+    }
+
+    /**
+     * The file holding the token of the daemon on a port, in the home directory of the user
+     *
+     * @param port the port of the daemon
+     * @return the token file
+     */
+    @NotNull
+    static Path tokenFile(int port) {
+        return Paths.get(System.getProperty("user.home"), ".adcl", "daemon-" + port + ".token");
+    }
+
+    /**
+     * Writes a new random token to a file only readable and writable by the current user
+     *
+     * @param file the token file, replaced if it exists
+     * @return the token
+     * @throws IOException if the file could not be written
+     */
+    @NotNull
+    private static byte[] createToken(@NotNull Path file) throws IOException {
+        byte[] random = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(random);
+        StringBuilder token = new StringBuilder(2 * TOKEN_BYTES);
+        for (byte b : random) token.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        byte[] result = token.toString().getBytes(StandardCharsets.US_ASCII);
+
+        Files.deleteIfExists(file);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(file.getParent(), PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createDirectories(file.getParent());
+            Files.createFile(file);
+            File f = file.toFile();
+            if (!(f.setReadable(false, false) && f.setReadable(true, true) && f.setWritable(false, false) && f.setWritable(true, true))) {
+                throw new IOException("Could not restrict access to " + file);
+            }
+        }
+        Files.write(file, result);
+        return result;
+    }
+
+    /**
+     * @param port the port of the daemon
+     * @return the token of the daemon, empty if it is not readable by the current user
+     */
+    @NotNull
+    private static String readToken(int port) {
+        Path file = tokenFile(port);
+        try {
+            return new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim();
+        } catch (IOException e) {
+            LOGGER.debug("Could not read daemon token {}", file, e);
+            return "";
+        }
+    }
+
+    /**
+     * Executes a run of the daemon
+     */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * @param options the options of the run
+         * @return the exit code or {@link #REFUSED} if the run has to be executed by the client
+         */
+        int run(@NotNull Map<String, String> options);
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.qaware.adcl;
 
 import com.github.qaware.adcl.pm.Dependency;
+import com.github.qaware.adcl.util.RunMetrics;
 import com.github.qaware.adcl.util.Utils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -46,6 +47,7 @@ public class IndexBuilder {
     @NotNull
     public static Map<String, String> indexJar(@NotNull Path jarFile, @NotNull String projectName, @Nullable Map<String, String> appendTo) throws IOException {
         Map<String, String> index = appendTo == null ? new HashMap<>() : appendTo;
+        int sizeBefore = index.size();
 
         try (ZipFile zipFile = new ZipFile(jarFile.toFile())) {
             zipFile.stream().forEach(e -> {
@@ -55,6 +57,7 @@ public class IndexBuilder {
             });
         }
 
+        RunMetrics.record("adcl.index.jar.classes", index.size() - sizeBefore);
         return index;
     }
 
@@ -70,12 +73,14 @@ public class IndexBuilder {
     @NotNull
     public static Map<String, String> indexDirectory(Path directory, String projectName, @Nullable Map<String, String> appendTo) throws IOException {
         Map<String, String> index = appendTo == null ? new HashMap<>() : appendTo;
+        int sizeBefore = index.size();
 
         try (Stream<Path> walker = Files.walk(directory)) {
             walker.filter(Files::isRegularFile).map(p -> Utils.pathToPackage(directory.relativize(p)))
                     .filter(s -> s.endsWith(".class")).forEach(s -> index.put(s.substring(0, s.length() - 6), projectName));
         }
 
+        RunMetrics.record("adcl.index.directory.classes", index.size() - sizeBefore);
         return index;
     }
 }
@@ -3,62 +3,221 @@ package com.github.qaware.adcl.database;
 import com.github.qaware.adcl.information.Information;
 import com.github.qaware.adcl.information.PomDependencyInformation;
 import com.github.qaware.adcl.information.RootInformation;
+import com.github.qaware.adcl.report.CachingDiffGenerator;
+import com.github.qaware.adcl.report.CypherDiffExtractor;
+import com.github.qaware.adcl.report.DiffCache;
+import com.github.qaware.adcl.report.DiffGenerator;
+import com.github.qaware.adcl.util.RunMetrics;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.neo4j.ogm.session.Session;
 import org.neo4j.ogm.session.SessionFactory;
 import org.neo4j.ogm.transaction.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.neo4j.repository.Neo4jRepository;
 import org.springframework.stereotype.Repository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 /**
- * ADCLs database service. Holds the root node represented by the database
+ * ADCLs database service. Holds the root node represented by the database, which is loaded on first access.
+ * <br>Usually created by Spring, but can also be created on a plain {@link SessionFactory} for runs not worth starting Spring for
  */
 @Service
 public class Neo4jService {
+    @Nullable
     private final InformationRepository infoRepo;
+    @Nullable
     private final PomDependencyRepository pomDepRepo;
     private final SessionFactory sessionFactory;
 
-    @SuppressWarnings("NotNullFieldNotInitialized" /* gets initialized in constructor */)
-    @NotNull
+    @Nullable
     private RootInformation root;
+    /**
+     * Session of the plain queries, which map no entities. Loading and saving use sessions of their own
+     */
+    @Nullable
+    private Session querySession;
 
     /**
-     * Service init by spring. Instantly loads the root
+     * Service init by spring. Ensures the database schema, the root gets loaded lazily
      *
      * @param infoRepo       the information repository bean
+     * @param pomDepRepo     the pom dependency repository bean
      * @param sessionFactory the neo4j driver session factory
      */
-    @SuppressWarnings("java:S2637" /* gets initialized in constructor */)
+    @Autowired
     public Neo4jService(InformationRepository infoRepo, PomDependencyRepository pomDepRepo, SessionFactory sessionFactory) {
         this.infoRepo = infoRepo;
         this.pomDepRepo = pomDepRepo;
         this.sessionFactory = sessionFactory;
-        loadRoot();
+        ensureSchema();
+    }
+
+    /**
+     * Service init without Spring. Entities are loaded through sessions of the factory instead of repositories, the caller closes the factory
+     *
+     * @param sessionFactory the neo4j driver session factory, scanning the information package
+     */
+    public Neo4jService(@NotNull SessionFactory sessionFactory) {
+        this.infoRepo = null;
+        this.pomDepRepo = null;
+        this.sessionFactory = sessionFactory;
+        ensureSchema();
+    }
+
+    /**
+     * Creates all indexes and constraints ADCL needs for fast lookups, if not already present
+     *
+     * @see SchemaManager#ensureSchema(Session)
+     */
+    public void ensureSchema() {
+        SchemaManager.ensureSchema(querySession());
+    }
+
+    /**
+     * @return the state of each index in the database
+     * @see SchemaManager#getIndexStatus(Session)
+     */
+    @NotNull
+    public Map<String, String> getIndexStatus() {
+        return SchemaManager.getIndexStatus(querySession());
     }
 
     /**
-     * @return the current root
+     * @return the session for queries not mapping entities, opened on first use and reused afterwards
+     */
+    @NotNull
+    private synchronized Session querySession() {
+        if (querySession == null) querySession = sessionFactory.openSession();
+        return querySession;
+    }
+
+    /**
+     * @return the current root. Loads the root from database if not loaded yet
      */
     @NotNull
     public RootInformation getRoot() {
+        if (root == null) loadRoot();
+        assert root != null;
         return root;
     }
 
+    /**
+     * Queries the version history of a project without loading the root
+     *
+     * @param projectName the name of the project
+     * @return the version names of the project in chronological order or null if the project does not exist
+     */
+    @Nullable
+    public List<String> getVersionNames(@NotNull String projectName) {
+        Iterator<Map<String, Object>> result = querySession().query("MATCH (p:ProjectInformation {name: $project}) RETURN p.versions AS versions",
+                Collections.singletonMap("project", projectName)).queryResults().iterator();
+        if (!result.hasNext()) return null;
+        Object versions = result.next().get("versions");
+        if (versions instanceof String[]) return Arrays.asList((String[]) versions);
+        return versions == null ? Collections.emptyList() : ((List<?>) versions).stream().map(String::valueOf).collect(Collectors.toList());
+    }
+
+    /**
+     * Creates a diff extractor working on the database directly, without loading the root
+     *
+     * @param projectName the project whose versions should be compared
+     * @param from        the name of the start version
+     * @param to          the name of the end version
+     * @return the diff extractor
+     * @throws IllegalArgumentException if project or versions do not exist
+     */
+    @NotNull
+    public CypherDiffExtractor createDiffExtractor(@NotNull String projectName, @NotNull String from, @NotNull String to) {
+        List<String> versions = getVersionNames(projectName);
+        if (versions == null) throw new IllegalArgumentException("Project " + projectName + " does not exist");
+        return new CypherDiffExtractor(querySession(), projectName, versions, from, to);
+    }
+
+    /**
+     * Wraps a diff generator to serve its diffs from the diff cache in the database, computing and storing them on a miss
+     *
+     * @param delegate the generator computing the diff on a cache miss
+     * @param from     the name of the start version of the delegate
+     * @param to       the name of the end version of the delegate
+     * @return the caching generator
+     * @see DiffCache
+     */
+    @NotNull
+    public CachingDiffGenerator createCachingDiffGenerator(@NotNull DiffGenerator delegate, @NotNull String from, @NotNull String to) {
+        return new CachingDiffGenerator(delegate, new DiffCache(querySession()), from, to);
+    }
+
+    /**
+     * Removes all cached diffs from or to a version, to be called when the version gets analysed
+     *
+     * @param projectName the project name
+     * @param version     the name of the analysed version
+     */
+    public void invalidateDiffCache(@NotNull String projectName, @NotNull String version) {
+        new DiffCache(querySession()).invalidate(projectName, version);
+    }
+
     /**
      * (re)load the root from database, which can be retrieved by {@link Neo4jService#getRoot()}
      */
     @Transactional(readOnly = true)
     public void loadRoot() {
-        root = StreamSupport.stream(infoRepo.findAll().spliterator(), true)
+        Iterable<? extends Information<?>> infos;
+        Iterable<PomDependencyInformation> pomDependencies;
+        try (RunMetrics.Phase ignored = RunMetrics.phase("neo4j.load")) {
+            if (infoRepo == null || pomDepRepo == null) {
+                // one session, so the relations are mapped to the loaded nodes
+                Session session = sessionFactory.openSession();
+                infos = loadAllInformation(session);
+                pomDependencies = session.loadAll(PomDependencyInformation.class, 1);
+            } else {
+                infos = infoRepo.findAll();
+                pomDependencies = pomDepRepo.findAll();
+            }
+        }
+        RootInformation loaded = StreamSupport.stream(infos.spliterator(), true)
                 .filter(RootInformation.class::isInstance).findAny()
                 .map(RootInformation.class::cast).orElseGet(RootInformation::new);
-        pomDepRepo.findAll().forEach(root::addPomDependencyRaw);
+        pomDependencies.forEach(loaded::addPomDependencyRaw);
+        loaded.internNames();
+        loaded.rebuildSubtreeChanges();
+        loaded.rebuildDependents();
+        root = loaded;
+    }
+
+    /**
+     * Loads all information nodes with the depth {@link Neo4jRepository#findAll()} uses
+     *
+     * @param session the session to load with
+     * @return the loaded nodes
+     */
+    @NotNull
+    @SuppressWarnings("unchecked" /* the entity class is generic */)
+    private static Iterable<? extends Information<?>> loadAllInformation(@NotNull Session session) {
+        return (Iterable<? extends Information<?>>) (Iterable<?>) session.loadAll(Information.class, 1);
+    }
+
+    /**
+     * Drops the current root including unsaved changes, so it gets loaded from database again on next access
+     */
+    public void discardRoot() {
+        root = null;
     }
 
     /**
@@ -66,30 +225,91 @@ public class Neo4jService {
      */
     @Transactional
     public void saveRoot() {
-        Set<Information<?>> all = root.getAllChildren(null);
-        all.add(root);
+        saveSnapshot(createSnapshot());
+    }
+
+    /**
+     * Saves the current root to database in the background. The nodes and relations to save are captured before returning,
+     * so the model may be read concurrently but must not be modified until the returned future completes
+     *
+     * @return a future completing when the data is saved, or completing exceptionally if saving failed
+     */
+    @NotNull
+    public CompletableFuture<Void> saveRootAsync() {
+        Snapshot snapshot = createSnapshot();
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "adcl-persister"));
+        try {
+            return CompletableFuture.runAsync(() -> saveSnapshot(snapshot), executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Captures all nodes and relations of the current root to be saved
+     *
+     * @return the snapshot
+     */
+    @NotNull
+    private Snapshot createSnapshot() {
+        RootInformation toSave = getRoot();
+        Set<Information<?>> all = toSave.getAllChildren(null);
+        all.add(toSave);
         all.forEach(Purgeable::purgeIds);
+        // the paths are persisted, so they are materialized before the mapping reads them and released after saving
+        all.forEach(Information::materializePath);
+        return new Snapshot(all, all.stream().flatMap(Information::getOutgoingRelations).collect(Collectors.toList()));
+    }
 
-        Session session = sessionFactory.openSession();
-        session.purgeDatabase();
-        Transaction transaction = session.beginTransaction();
-        session.save(all, 0);
-        all.stream().flatMap(Information::getOutgoingRelations).forEach(r -> session.save(r, 0));
-        transaction.commit();
-        transaction.close();
+    /**
+     * Purges database and saves the given snapshot to it. Cached diffs are kept. Releases the paths of the snapshot afterwards
+     *
+     * @param snapshot the snapshot to save
+     */
+    private void saveSnapshot(@NotNull Snapshot snapshot) {
+        try (RunMetrics.Phase ignored = RunMetrics.phase("neo4j.save")) {
+            Session session = sessionFactory.openSession();
+            session.query("MATCH (n) WHERE NOT n:" + DiffCache.LABEL + " DETACH DELETE n", Collections.emptyMap());
+            Transaction transaction = session.beginTransaction();
+            session.save(snapshot.nodes, 0);
+            snapshot.relations.forEach(r -> session.save(r, 0));
+            transaction.commit();
+            transaction.close();
+        } finally {
+            snapshot.nodes.forEach(Information::releasePath);
+        }
+        RunMetrics.counter("adcl.neo4j.nodes.written").increment(snapshot.nodes.size());
+        RunMetrics.counter("adcl.neo4j.relations.written").increment(snapshot.relations.size());
+        RunMetrics.record("adcl.neo4j.transaction.entities", snapshot.nodes.size() + (double) snapshot.relations.size());
     }
 
     /**
-     * override the current root with a new root. Purges database and saves the new data to it
+     * override the current root with a new root. Purges database (including cached diffs) and saves the new data to it
      *
      * @param newRoot the new root
      */
     @Transactional
     public void overrideRoot(@NotNull RootInformation newRoot) {
         root = newRoot;
+        new DiffCache(querySession()).clear();
         saveRoot();
     }
 
+    /**
+     * The nodes and relations to be saved, captured at a point in time
+     */
+    private static final class Snapshot {
+        @NotNull
+        private final List<Information<?>> nodes;
+        @NotNull
+        private final List<Purgeable> relations;
+
+        private Snapshot(@NotNull Collection<Information<?>> nodes, @NotNull List<Purgeable> relations) {
+            this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+            this.relations = Collections.unmodifiableList(relations);
+        }
+    }
+
     /**
      * Information repository DAO
      */
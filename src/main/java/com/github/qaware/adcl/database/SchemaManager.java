@@ -0,0 +1,184 @@
+package com.github.qaware.adcl.database;
+
+import com.github.qaware.adcl.report.DiffCache;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.neo4j.ogm.session.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Manages the database schema (indexes and uniqueness constraints) ADCL relies on for fast node lookups.
+ * All operations are idempotent: already existing schema entries are detected and skipped.
+ */
+public class SchemaManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchemaManager.class);
+
+    /**
+     * The labels of all concrete nodes types. The path of a node is unique in each of them
+     */
+    private static final List<String> NODE_LABELS = Collections.unmodifiableList(Arrays.asList(
+            "RootInformation", "ProjectInformation", "RootPackageInformation", "SubPackageInformation",
+            "RootClassInformation", "OuterClassInformation", "MethodInformation"
+    ));
+
+    /**
+     * All schema entries managed by ADCL
+     */
+    private static final List<SchemaEntry> SCHEMA = Collections.unmodifiableList(createSchema());
+
+    /**
+     * The time in seconds to wait for newly created indexes to come online
+     */
+    private static final int AWAIT_INDEXES_TIMEOUT = 300;
+
+    private SchemaManager() {
+    }
+
+    /**
+     * @return all schema entries managed by ADCL
+     */
+    @NotNull
+    public static List<SchemaEntry> getSchema() {
+        return SCHEMA;
+    }
+
+    /**
+     * Creates all missing indexes and constraints. Failures are logged but not propagated, as a missing index only affects performance
+     *
+     * @param session the session to run the schema statements on. Must not have an open transaction as schema and data operations cannot be mixed
+     */
+    public static void ensureSchema(@NotNull Session session) {
+        Set<String> existing = getIndexStatus(session).keySet();
+        boolean created = false;
+        for (SchemaEntry entry : SCHEMA) {
+            if (existing.contains(entry.getKey())) continue;
+            try {
+                session.query(entry.getCreateStatement(), Collections.emptyMap());
+                LOGGER.info("Created {}", entry);
+                created = true;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not create {}", entry, e);
+            }
+        }
+        if (created) {
+            try {
+                session.query("CALL db.awaitIndexes(" + AWAIT_INDEXES_TIMEOUT + ")", Collections.emptyMap());
+            } catch (RuntimeException e) {
+                LOGGER.warn("Indexes did not come online in time", e);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the status of all indexes in the database, including the ones backing uniqueness constraints
+     *
+     * @param session the session to query on
+     * @return a map with keys in the format {@code Label(property)} and the index state (e.g. {@code ONLINE}, {@code POPULATING}, {@code FAILED}) as values
+     */
+    @NotNull
+    public static Map<String, String> getIndexStatus(@NotNull Session session) {
+        Map<String, String> result = new TreeMap<>();
+        session.query("CALL db.indexes()", Collections.emptyMap()).queryResults().forEach(row -> {
+            // column names differ between neo4j 3.5 (tokenNames) and 4.x (labelsOrTypes)
+            String label = firstElement(row.containsKey("labelsOrTypes") ? row.get("labelsOrTypes") : row.get("tokenNames"));
+            String property = firstElement(row.get("properties"));
+            if (label != null && property != null) result.put(SchemaEntry.key(label, property), String.valueOf(row.get("state")));
+        });
+        return result;
+    }
+
+    /**
+     * @param value a list or array value returned by a query
+     * @return the first element as String or null if not present
+     */
+    @Nullable
+    private static String firstElement(@Nullable Object value) {
+        if (value instanceof Object[]) value = Arrays.asList((Object[]) value);
+        if (!(value instanceof Collection)) return null;
+        Iterator<?> it = ((Collection<?>) value).iterator();
+        return it.hasNext() ? String.valueOf(it.next()) : null;
+    }
+
+    /**
+     * @return the schema entries managed by ADCL
+     */
+    @NotNull
+    private static List<SchemaEntry> createSchema() {
+        List<SchemaEntry> result = new ArrayList<>();
+        result.add(new SchemaEntry("ProjectInformation", "name", true));
+        for (String label : NODE_LABELS) result.add(new SchemaEntry(label, "path", true));
+        result.add(new SchemaEntry("Information", "path", false)); // for queries not knowing the concrete label
+        result.add(new SchemaEntry(DiffCache.LABEL, "project", false));
+        return result;
+    }
+
+    /**
+     * An index or uniqueness constraint on a single property of a label
+     */
+    public static final class SchemaEntry {
+        @NotNull
+        private final String label;
+        @NotNull
+        private final String property;
+        private final boolean unique;
+
+        private SchemaEntry(@NotNull String label, @NotNull String property, boolean unique) {
+            this.label = label;
+            this.property = property;
+            this.unique = unique;
+        }
+
+        /**
+         * @param label    the node label
+         * @param property the property name
+         * @return the key used in {@link SchemaManager#getIndexStatus(Session)}
+         */
+        @NotNull
+        static String key(@NotNull String label, @NotNull String property) {
+            return label + '(' + property + ')';
+        }
+
+        @NotNull
+        public String getLabel() {
+            return label;
+        }
+
+        @NotNull
+        public String getProperty() {
+            return property;
+        }
+
+        /**
+         * @return whether this entry is a uniqueness constraint instead of a plain index
+         */
+        public boolean isUnique() {
+            return unique;
+        }
+
+        /**
+         * @return the key used in {@link SchemaManager#getIndexStatus(Session)}
+         */
+        @NotNull
+        public String getKey() {
+            return key(label, property);
+        }
+
+        /**
+         * @return the cypher statement to create this entry
+         */
+        @NotNull
+        String getCreateStatement() {
+            return unique
+                    ? "CREATE CONSTRAINT ON (n:" + label + ") ASSERT n." + property + " IS UNIQUE"
+                    : "CREATE INDEX ON :" + label + "(" + property + ")";
+        }
+
+        @Override
+        public String toString() {
+            return (unique ? "uniqueness constraint " : "index ") + getKey();
+        }
+    }
+}
@@ -19,19 +19,19 @@ class AnnotationExtractor extends AnnotationVisitor {
 
     @Override
     public void visitEnum(String name, String descriptor, String value) {
-        Utils.getTypesFromDescriptor(descriptor).forEach(classDepConsumer);
+        Utils.forEachType(descriptor, classDepConsumer);
     }
 
     @Override
     public void visit(String name, Object value) {
-        Utils.analyseConstant(value, classDepConsumer, (a, b) -> {
+        Utils.analyseConstant(value, classDepConsumer, (a, b, c) -> {
             throw new UnsupportedOperationException("Annotations cannot have method dependencies");
         });
     }
 
     @Override
     public AnnotationVisitor visitAnnotation(String name, String descriptor) {
-        Utils.getTypesFromDescriptor(descriptor).forEach(classDepConsumer);
+        Utils.forEachType(descriptor, classDepConsumer);
         return new AnnotationExtractor(classDepConsumer);
     }
 
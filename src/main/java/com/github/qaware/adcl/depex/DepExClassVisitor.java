@@ -2,25 +2,42 @@ package com.github.qaware.adcl.depex;
 
 import com.github.qaware.adcl.information.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.FieldVisitor;
 import org.objectweb.asm.MethodVisitor;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
 import static org.objectweb.asm.Opcodes.ASM7;
 
 /**
- * A {@link ClassVisitor} that inserts a fitting class into the project. Also initiates method analysis
+ * A {@link ClassVisitor} that inserts a fitting class into the project. Also initiates method analysis.
+ * <br>The references of a class and of each of its methods are collected as distinct references first and added to the model at the end of the class or method,
+ * as most classes reference the same types many times. Reusable for all classes of a version, one class after another
  */
 class DepExClassVisitor extends ClassVisitor {
     private final VersionInformation versionInfo;
     private final RootInformation root;
     private final ProjectInformation project;
+    private final ExtractionStats stats;
+    // created once, a method reference per visited member would be allocated each time
+    private final Consumer<String> addClassDep = this::addDependency;
+    private final ReferenceSet.ReferenceConsumer flushDep = this::flushDependency;
+    private final ReferenceSet references = new ReferenceSet();
+    // shared by the method visitors, a method is visited completely before the next one
+    private final ReferenceSet methodReferences = new ReferenceSet();
+    // the referenced classes of the version by internal name, null for JRE classes
+    private final Map<String, ClassInformation<?>> resolvedClasses = new HashMap<>();
     private ClassInformation<?> classInfo;
 
-    public DepExClassVisitor(@NotNull VersionInformation versionInfo) {
+    public DepExClassVisitor(@NotNull VersionInformation versionInfo, @NotNull ExtractionStats stats) {
         super(ASM7);
         this.versionInfo = versionInfo;
+        this.stats = stats;
         this.project = versionInfo.getProject();
         this.root = project.getRoot();
     }
@@ -34,8 +51,9 @@ class DepExClassVisitor extends ClassVisitor {
     @Override
     public void visit(int version, int access, @NotNull String name, String signature, String superName, @NotNull String[] interfaces) {
         classInfo = (ClassInformation<?>) versionInfo.getProject().findOrCreate(name.replace('/', '.'), versionInfo, Information.Type.CLASS);
-        new SignatureExtractor(signature, this::addDependency);
-        addDependency(superName);
+        stats.countClassFile();
+        new SignatureExtractor(signature, addClassDep);
+        if (superName != null) addDependency(superName);
         for (String i : interfaces) addDependency(i);
     }
 
@@ -45,8 +63,8 @@ class DepExClassVisitor extends ClassVisitor {
     @Override
     public AnnotationVisitor visitAnnotation(@NotNull String descriptor, boolean visible) {
         if (descriptor.equals("Lorg/springframework/stereotype/Service;")) classInfo.setIsService(true);
-        Utils.getTypesFromDescriptor(descriptor).forEach(this::addDependency);
-        return new AnnotationExtractor(this::addDependency);
+        Utils.forEachType(descriptor, addClassDep);
+        return new AnnotationExtractor(addClassDep);
     }
 
     /*
@@ -54,9 +72,9 @@ class DepExClassVisitor extends ClassVisitor {
      */
     @Override
     public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
-        Utils.getTypesFromDescriptor(descriptor).forEach(this::addDependency);
-        new SignatureExtractor(signature, this::addDependency);
-        return new FieldExtractor(this::addDependency);
+        Utils.forEachType(descriptor, addClassDep);
+        new SignatureExtractor(signature, addClassDep);
+        return new FieldExtractor(addClassDep);
     }
 
     /*
@@ -64,20 +82,57 @@ class DepExClassVisitor extends ClassVisitor {
      */
     @Override
     public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
-        return new DepExMethodVisitor(classInfo, versionInfo, name, descriptor, signature, exceptions);
+        return new DepExMethodVisitor(this, classInfo, versionInfo, stats, methodReferences, name, descriptor, signature, exceptions);
+    }
+
+    /*
+     * Class exit point, adds the collected dependencies to the model
+     */
+    @Override
+    public void visitEnd() {
+        references.forEach(flushDep);
+        references.clear();
+    }
+
+    /**
+     * Resolves a referenced class in the model, creating it if needed. The result is kept for the following classes of the version
+     *
+     * @param internalName the internal name of the class (e.g. {@code java/lang/String})
+     * @return the class, null for internal (JRE) classes
+     */
+    @Nullable
+    ClassInformation<?> resolveClass(@NotNull String internalName) {
+        ClassInformation<?> result = resolvedClasses.get(internalName);
+        if (result == null && !resolvedClasses.containsKey(internalName)) {
+            String className = internalName.replace('/', '.');
+            if (!Utils.isJRE(className)) {
+                result = (ClassInformation<?>) root.findOrCreate(project.resolveProjectByClassName(className) + '.' + className, null, Information.Type.CLASS);
+            }
+            resolvedClasses.put(internalName, result);
+        }
+        return result;
+    }
+
+    /**
+     * Collects a class dependency of the class, added to the model at the end of the class
+     *
+     * @param toClass the internal name of the class the class dependency is pointing to
+     */
+    private void addDependency(@NotNull String toClass) {
+        if (!references.add(toClass)) stats.countRepeatedReference();
     }
 
     /**
      * Add a new class dependency to the list of dependencies the class has. Dependencies to internal (JRE) classes are omitted
      * The (new) resulting class will be marked external, but the dependencyExtractor will mark them internal afterwards
      *
-     * @param toClass the class the class dependency is pointing to
+     * @param toClass    the internal name of the class the class dependency is pointing to
+     * @param name       always null, classes only have class dependencies
+     * @param descriptor always null, classes only have class dependencies
      */
-    private void addDependency(String toClass) {
-        toClass = toClass.replace('/', '.');
-        if (Utils.isJRE(toClass)) return;
-        String path = project.resolveProjectByClassName(toClass) + '.' + toClass;
-        if (path.equals(classInfo.getPath())) return;
-        classInfo.addClassDependency((ClassInformation<?>) root.findOrCreate(path, null, Information.Type.CLASS), versionInfo);
+    private void flushDependency(@NotNull String toClass, @Nullable String name, @Nullable String descriptor) {
+        ClassInformation<?> target = resolveClass(toClass);
+        if (target == null || target == classInfo) return;
+        stats.countEdge(classInfo.addClassDependency(target, versionInfo));
     }
 }
@@ -3,29 +3,51 @@ package com.github.qaware.adcl.depex;
 import com.github.qaware.adcl.information.*;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.*;
 
+import java.util.function.Consumer;
+
 import static org.objectweb.asm.Opcodes.ASM7;
 import static org.objectweb.asm.Opcodes.NEW;
 
 /**
- * A {@link MethodVisitor} that inserts a fitting method into the project
+ * A {@link MethodVisitor} that inserts a fitting method into the project.
+ * The references of the method are collected as distinct references first and added to the model at the end of the method
  */
 class DepExMethodVisitor extends MethodVisitor {
+    private final DepExClassVisitor classVisitor;
     private final MethodInformation methodInfo;
     private final VersionInformation versionInfo;
-    private final RootInformation root;
-    private final ProjectInformation project;
+    private final ExtractionStats stats;
+    private final ReferenceSet references;
+    // created once, a method reference per visited instruction would be allocated each time
+    private final Consumer<String> addClassDep = this::addDependency;
+    private final ReferenceSet.ReferenceConsumer addMethodDep = this::addDependency;
+    private final ReferenceSet.ReferenceConsumer flushDep = this::flushDependency;
 
-    public DepExMethodVisitor(@NotNull ClassInformation<?> parent, @NotNull VersionInformation versionInfo, String name, String descriptor, String signature, String[] exceptions) {
+    /**
+     * @param classVisitor the visitor of the class, resolving the referenced classes
+     * @param parent       the visited class
+     * @param versionInfo  the analysed version
+     * @param stats        the counts of the analysis
+     * @param references   an empty set to collect the references of the method in, cleared again at the end of the method
+     * @param name         the name of the method
+     * @param descriptor   the descriptor of the method
+     * @param signature    the generic signature of the method, may be null
+     * @param exceptions   the internal names of the declared exceptions, may be null
+     */
+    public DepExMethodVisitor(@NotNull DepExClassVisitor classVisitor, @NotNull ClassInformation<?> parent, @NotNull VersionInformation versionInfo, @NotNull ExtractionStats stats,
+                              @NotNull ReferenceSet references, String name, String descriptor, String signature, String[] exceptions) {
         super(ASM7);
+        this.classVisitor = classVisitor;
         this.methodInfo = (MethodInformation) parent.findOrCreate(name + Utils.convertDescriptor(descriptor), versionInfo, Information.Type.METHOD);
         this.versionInfo = versionInfo;
-        this.project = versionInfo.getProject();
-        this.root = project.getRoot();
+        this.stats = stats;
+        this.references = references;
 
-        Utils.getTypesFromDescriptor(descriptor).forEach(this::addDependency);
-        new SignatureExtractor(signature, this::addDependency);
+        Utils.forEachType(descriptor, addClassDep);
+        new SignatureExtractor(signature, addClassDep);
         if (exceptions != null) for (String exception : exceptions) addDependency(exception);
     }
 
@@ -35,7 +57,7 @@ class DepExMethodVisitor extends MethodVisitor {
      */
     @Override
     public void visitLdcInsn(Object value) {
-        Utils.analyseConstant(value, this::addDependency, this::addDependency);
+        Utils.analyseConstant(value, addClassDep, addMethodDep);
     }
 
     /*
@@ -97,9 +119,9 @@ class DepExMethodVisitor extends MethodVisitor {
      */
     @Override
     public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle, @NotNull Object... bootstrapMethodArguments) {
-        Utils.analyseConstant(bootstrapMethodHandle, this::addDependency, this::addDependency);
+        Utils.analyseConstant(bootstrapMethodHandle, addClassDep, addMethodDep);
         for (Object arg : bootstrapMethodArguments)
-            Utils.analyseConstant(arg, this::addDependency, this::addDependency);
+            Utils.analyseConstant(arg, addClassDep, addMethodDep);
     }
 
     /*
@@ -107,7 +129,7 @@ class DepExMethodVisitor extends MethodVisitor {
      */
     @Override
     public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
-        Utils.getTypesFromDescriptor(descriptor).forEach(this::addDependency);
+        Utils.forEachType(descriptor, addClassDep);
     }
 
     /*
@@ -127,7 +149,7 @@ class DepExMethodVisitor extends MethodVisitor {
     public void visitTypeInsn(int opcode, String type) {
         if (opcode != NEW) { // new handled with constructor call (MethodInsn)
             if (type.startsWith("[")) {
-                Utils.getTypesFromDescriptor(type).forEach(this::addDependency);
+                Utils.forEachType(type, addClassDep);
             } else {
                 addDependency(type);
             }
@@ -139,7 +161,7 @@ class DepExMethodVisitor extends MethodVisitor {
      */
     @Override
     public void visitMethodInsn(int opcode, @NotNull String owner, String name, String descriptor, boolean isInterface) { // method calls
-        addDependency(owner.startsWith("[") ? Utils.getTypesFromDescriptor(owner).iterator().next() : owner, name + Utils.convertDescriptor(descriptor));
+        addDependency(owner, name, descriptor);
     }
 
     /*
@@ -147,9 +169,9 @@ class DepExMethodVisitor extends MethodVisitor {
      */
     @Override
     public void visitLocalVariable(@NotNull String name, String descriptor, String signature, Label start, Label end, int index) {
-        if (!name.matches("this(?:\\$\\d+)?")) { // this not needed
-            Utils.getTypesFromDescriptor(descriptor).forEach(this::addDependency);
-            new SignatureExtractor(signature, this::addDependency);
+        if (!Utils.isThisReference(name)) { // this not needed
+            Utils.forEachType(descriptor, addClassDep);
+            new SignatureExtractor(signature, addClassDep);
         }
     }
 
@@ -162,36 +184,56 @@ class DepExMethodVisitor extends MethodVisitor {
     @NotNull
     @Contract("_ -> new")
     private AnnotationVisitor visitAnnotation(String descriptor) {
-        Utils.getTypesFromDescriptor(descriptor).forEach(this::addDependency);
-        return new AnnotationExtractor(this::addDependency);
+        Utils.forEachType(descriptor, addClassDep);
+        return new AnnotationExtractor(addClassDep);
+    }
+
+    /*
+     * Method exit point, adds the collected dependencies to the model
+     */
+    @Override
+    public void visitEnd() {
+        references.forEach(flushDep);
+        references.clear();
     }
 
     /**
-     * Add a new method dependency to the list of dependencies the method has. Dependencies to internal (JRE) methods are omitted
-     * The (new) resulting class will be marked external, but the dependencyExtractor will mark them internal afterwards
+     * Collects a method dependency of the method, added to the model at the end of the method
      *
-     * @param toClass  the class the method dependency is pointing to
-     * @param toMethod the method the method dependency is pointing to
+     * @param owner      the internal name or array descriptor of the class the method dependency is pointing to
+     * @param name       the name of the method the method dependency is pointing to
+     * @param descriptor the descriptor of the method the method dependency is pointing to
      */
-    private void addDependency(String toClass, String toMethod) {
-        toClass = toClass.replace('/', '.');
-        if (Utils.isJRE(toClass)) return;
-        String path = project.resolveProjectByClassName(toClass) + '.' + toClass + '.' + toMethod;
-        if (path.equals(methodInfo.getPath())) return;
-        methodInfo.addMethodDependency((MethodInformation) root.findOrCreate(path, null, Information.Type.METHOD), versionInfo);
+    private void addDependency(@NotNull String owner, @Nullable String name, @Nullable String descriptor) {
+        String ownerClass = Utils.elementType(owner);
+        if (ownerClass != null && !references.add(ownerClass, name, descriptor)) stats.countRepeatedReference();
     }
 
     /**
-     * Add a new class dependency to the list of dependencies the method has. Dependencies to internal (JRE) classes are omitted
-     * The (new) resulting class will be marked external, but the dependencyExtractor will mark them internal afterwards
+     * Collects a class dependency of the method, added to the model at the end of the method
      *
-     * @param toClass the class the class dependency is pointing to
+     * @param toClass the internal name of the class the class dependency is pointing to
      */
-    private void addDependency(String toClass) {
-        toClass = toClass.replace('/', '.');
-        if (Utils.isJRE(toClass)) return;
-        String path = project.resolveProjectByClassName(toClass) + '.' + toClass;
-        if (path.equals(methodInfo.getParent().getPath())) return;
-        methodInfo.addClassDependency((ClassInformation<?>) root.findOrCreate(path, null, Information.Type.CLASS), versionInfo);
+    private void addDependency(@NotNull String toClass) {
+        if (!references.add(toClass)) stats.countRepeatedReference();
+    }
+
+    /**
+     * Add a new class or method dependency to the list of dependencies the method has. Dependencies to internal (JRE) classes and methods are omitted
+     * The (new) resulting class will be marked external, but the dependencyExtractor will mark them internal afterwards
+     *
+     * @param toClass    the internal name of the class the dependency is pointing to
+     * @param name       the name of the method the method dependency is pointing to, null for class dependencies
+     * @param descriptor the descriptor of the method the method dependency is pointing to, null for class dependencies
+     */
+    private void flushDependency(@NotNull String toClass, @Nullable String name, @Nullable String descriptor) {
+        ClassInformation<?> target = classVisitor.resolveClass(toClass);
+        if (target == null) return;
+        if (name == null || descriptor == null) {
+            if (target != methodInfo.getParent()) stats.countEdge(methodInfo.addClassDependency(target, versionInfo));
+            return;
+        }
+        MethodInformation targetMethod = (MethodInformation) target.findOrCreate(name + Utils.convertDescriptor(descriptor), null, Information.Type.METHOD);
+        if (targetMethod != methodInfo) stats.countEdge(methodInfo.addMethodDependency(targetMethod, versionInfo));
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.github.qaware.adcl.depex;
 
 import com.github.qaware.adcl.information.VersionInformation;
 import com.github.qaware.adcl.pm.ProjectManager;
+import com.github.qaware.adcl.util.RunMetrics;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.ClassReader;
@@ -45,25 +46,34 @@ public class DependencyExtractor {
      */
     public void runAnalysis() throws IOException {
         LOGGER.info("Updating indices...");
-        version.getProject().updateIndices(scanLocation, projectManager);
+        try (RunMetrics.Phase ignored = RunMetrics.phase("index")) {
+            version.getProject().updateIndices(scanLocation, projectManager);
+        }
         LOGGER.info("Updated");
         version.getProject().getDirectChildren(version).forEach(c -> c.setExists(version, false));
 
         LOGGER.info("Analysing project classes...");
-        analyseClasses();
-        LOGGER.info("Done");
+        ExtractionStats stats = new ExtractionStats();
+        try (RunMetrics.Phase phase = RunMetrics.phase("parse")) {
+            analyseClasses(stats);
+            RunMetrics.record("adcl.depex.class.files.per.second", stats.getClassFiles() / phase.elapsedSeconds());
+        }
+        stats.publish();
+        LOGGER.info("Done, analysed {} class files", stats.getClassFiles());
     }
 
     /**
      * Runs the class analysis after indices are updated and next version got prepared in {@link DependencyExtractor#runAnalysis()}
      *
+     * @param stats the counts of the analysis
      * @throws IOException if scanLocation is invalid
      */
-    private void analyseClasses() throws IOException {
+    private void analyseClasses(@NotNull ExtractionStats stats) throws IOException {
+        DepExClassVisitor visitor = new DepExClassVisitor(version, stats);
         try (Stream<Path> classes = Files.walk(scanLocation)) {
             classes.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".class")).forEach(p -> {
                 try {
-                    new ClassReader(Files.newInputStream(p)).accept(new DepExClassVisitor(version), 0);
+                    new ClassReader(Files.newInputStream(p)).accept(visitor, 0);
                 } catch (IOException e) {
                     LOGGER.error("Could not analyse class file {}", p);
                 }
@@ -0,0 +1,55 @@
+package com.github.qaware.adcl.depex;
+
+import com.github.qaware.adcl.util.RunMetrics;
+
+/**
+ * Counts the analysed class files and dependencies of one analysis, shared by its visitors.
+ * Plain fields instead of meters, as dependencies are added for each referenced type. Not thread safe, classes are analysed one after another
+ */
+final class ExtractionStats {
+    private int classFiles;
+    private int edgesCreated;
+    private int edgesDeduplicated;
+    private int referencesRepeated;
+
+    /**
+     * Counts an analysed class file
+     */
+    void countClassFile() {
+        classFiles++;
+    }
+
+    /**
+     * Counts an added dependency
+     *
+     * @param created whether the dependency relation was created, false if an existing one was reused
+     */
+    void countEdge(boolean created) {
+        if (created) edgesCreated++;
+        else edgesDeduplicated++;
+    }
+
+    /**
+     * Counts a reference repeated within a class or method, which is not added to the model again
+     */
+    void countRepeatedReference() {
+        referencesRepeated++;
+    }
+
+    /**
+     * @return the number of analysed class files
+     */
+    int getClassFiles() {
+        return classFiles;
+    }
+
+    /**
+     * Adds the counts to the {@link RunMetrics} of the run
+     */
+    void publish() {
+        RunMetrics.counter("adcl.depex.class.files").increment(classFiles);
+        RunMetrics.counter("adcl.depex.edges.created").increment(edgesCreated);
+        RunMetrics.counter("adcl.depex.edges.deduplicated").increment(edgesDeduplicated);
+        RunMetrics.counter("adcl.depex.references.repeated").increment(referencesRepeated);
+    }
+}
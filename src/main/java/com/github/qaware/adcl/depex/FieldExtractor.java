@@ -23,7 +23,7 @@ class FieldExtractor extends FieldVisitor {
      */
     @Override
     public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
-        Utils.getTypesFromDescriptor(descriptor).forEach(addDependency);
+        Utils.forEachType(descriptor, addDependency);
         return new AnnotationExtractor(addDependency);
     }
 
@@ -33,7 +33,7 @@ class FieldExtractor extends FieldVisitor {
      */
     @Override
     public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
-        Utils.getTypesFromDescriptor(descriptor).forEach(addDependency);
+        Utils.forEachType(descriptor, addDependency);
         return new AnnotationExtractor(addDependency);
     }
 }
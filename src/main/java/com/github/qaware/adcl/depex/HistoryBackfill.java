@@ -0,0 +1,330 @@
+package com.github.qaware.adcl.depex;
+
+import com.github.qaware.adcl.information.ProjectInformation;
+import com.github.qaware.adcl.information.RootInformation;
+import com.github.qaware.adcl.information.VersionInformation;
+import com.github.qaware.adcl.util.RunMetrics;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Analyses the released archives of a project version by version within one run, e.g. to populate the history of an existing project.
+ * <br>Reading and parsing the archive of the next version happens in the background while the classes of the current version are inserted into the project tree,
+ * which is single threaded. At most two archives are held in memory at a time. Nothing is persisted, the caller saves the tree once afterwards.
+ * <br>Only the classes of the archives are indexed as classes of the project, so referenced classes of dependencies are assigned to the unknown project
+ * and pom dependencies are not analysed.
+ */
+public class HistoryBackfill {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HistoryBackfill.class);
+    private static final String CLASS_SUFFIX = ".class";
+
+    @NotNull
+    private final RootInformation root;
+    @NotNull
+    private final String projectName;
+    @NotNull
+    private final Map<String, Path> archives;
+
+    /**
+     * @param root        the tree to insert the versions into
+     * @param projectName the project name, the project is created if not in the tree yet
+     * @param archives    the version names and the archives of the versions, in version order
+     */
+    public HistoryBackfill(@NotNull RootInformation root, @NotNull String projectName, @NotNull Map<String, Path> archives) {
+        this.root = root;
+        this.projectName = projectName;
+        this.archives = archives;
+    }
+
+    /**
+     * Analyses all versions not yet contained in the project, in order
+     *
+     * @return the added versions
+     * @throws IOException              if an archive could not be read
+     * @throws IllegalArgumentException if a version not yet contained would precede a version of the project, as versions can only be appended
+     */
+    @NotNull
+    public List<VersionInformation> run() throws IOException {
+        ProjectInformation project = (ProjectInformation) root.find(projectName, null);
+        List<Map.Entry<String, Path>> pending = archives.entrySet().stream()
+                .filter(e -> project == null || project.getVersion(e.getKey()) == null).collect(Collectors.toList());
+        if (pending.size() < archives.size()) LOGGER.info("Skipping {} versions already analysed", archives.size() - pending.size());
+        if (project != null && !pending.isEmpty()) checkAppendable(project, pending.get(0).getKey());
+        List<VersionInformation> result = new ArrayList<>(pending.size());
+        if (pending.isEmpty()) return result;
+
+        ExecutorService reader = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "adcl-backfill-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Iterator<Map.Entry<String, Path>> iterator = pending.iterator();
+            Future<Archive> next = read(reader, iterator.next());
+            ProjectInformation target = project;
+            while (next != null) {
+                Archive current = await(next);
+                next = iterator.hasNext() ? read(reader, iterator.next()) : null;
+                VersionInformation version;
+                if (target == null) {
+                    LOGGER.warn("Project {} not found. Creating new project", projectName);
+                    target = new ProjectInformation(root, projectName, true, current.versionName);
+                    version = target.getLatestVersion();
+                } else {
+                    version = target.addVersion(current.versionName);
+                }
+                merge(current, version);
+                result.add(version);
+            }
+        } finally {
+            reader.shutdownNow();
+        }
+        return result;
+    }
+
+    /**
+     * Ensures that the versions not yet contained in the project all follow its versions,
+     * both in the order of the archives and in maven version order
+     *
+     * @param project      the existing project
+     * @param firstPending the first version not yet contained in the project
+     * @throws IllegalArgumentException if the version precedes a version of the project
+     */
+    private void checkAppendable(@NotNull ProjectInformation project, @NotNull String firstPending) {
+        boolean pendingSeen = false;
+        for (String version : archives.keySet()) {
+            pendingSeen |= version.equals(firstPending);
+            if (pendingSeen && project.getVersion(version) != null) {
+                throw new IllegalArgumentException("Version " + firstPending + " precedes the analysed version " + version + " of " + projectName);
+            }
+        }
+        String latest = project.getLatestVersion().getName();
+        if (new ComparableVersion(firstPending).compareTo(new ComparableVersion(latest)) < 0) {
+            throw new IllegalArgumentException("Version " + firstPending + " precedes the latest analysed version " + latest + " of " + projectName);
+        }
+    }
+
+    /**
+     * @param reader  the executor to read on
+     * @param archive the version name and archive
+     * @return the future of the read archive
+     */
+    @NotNull
+    private static Future<Archive> read(@NotNull ExecutorService reader, @NotNull Map.Entry<String, Path> archive) {
+        return reader.submit(() -> Archive.read(archive.getKey(), archive.getValue()));
+    }
+
+    /**
+     * @param archive the future of a read archive
+     * @return the read archive
+     * @throws IOException if the archive could not be read
+     */
+    @NotNull
+    private static Archive await(@NotNull Future<Archive> archive) throws IOException {
+        try {
+            return archive.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IllegalStateException("Could not read archive", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading archive", e);
+        }
+    }
+
+    /**
+     * Inserts the classes of an archive into the project tree, like {@link DependencyExtractor#runAnalysis()} does for a directory
+     *
+     * @param archive the read archive
+     * @param version the version of the archive
+     */
+    private static void merge(@NotNull Archive archive, @NotNull VersionInformation version) {
+        LOGGER.info("Analysing version {} ({} classes)", version.getName(), archive.classes.size());
+        ExtractionStats stats = new ExtractionStats();
+        try (RunMetrics.Phase ignored = RunMetrics.phase("backfill.merge")) {
+            ProjectInformation project = version.getProject();
+            project.updateIndices(archive.classNames);
+            project.getDirectChildren(version).forEach(c -> c.setExists(version, false));
+            DepExClassVisitor visitor = new DepExClassVisitor(version, stats);
+            for (ClassNode c : archive.classes) c.accept(visitor);
+        }
+        stats.publish();
+    }
+
+    /**
+     * Resolves the archives of the sources. A source is either
+     * <ul>
+     *     <li>a jar file, its version is the name of its directory in a maven repository and its file name without extension otherwise</li>
+     *     <li>maven coordinates {@code groupId:artifactId:version} of a jar in the repository</li>
+     *     <li>maven coordinates {@code groupId:artifactId} for all versions in the repository, in maven version order</li>
+     * </ul>
+     *
+     * @param sources    the sources, in version order
+     * @param basedir    the directory relative jar files are resolved against
+     * @param repository the local maven repository
+     * @return the version names and archives, in version order
+     * @throws IOException              if an archive does not exist or the repository could not be read
+     * @throws IllegalArgumentException if the sources contain a version twice
+     */
+    @NotNull
+    public static Map<String, Path> resolve(@NotNull String[] sources, @NotNull Path basedir, @NotNull Path repository) throws IOException {
+        Map<String, Path> result = new LinkedHashMap<>();
+        for (String source : sources) {
+            String trimmed = source.trim();
+            if (trimmed.isEmpty()) continue;
+            String[] coordinates = trimmed.split(":");
+            if (trimmed.endsWith(".jar") || coordinates.length < 2 || coordinates.length > 3) {
+                Path jar = basedir.resolve(trimmed);
+                if (!Files.isRegularFile(jar)) throw new NoSuchFileException(trimmed);
+                putVersion(result, versionOf(jar), jar);
+                continue;
+            }
+            Path artifactDirectory = repository.resolve(coordinates[0].replace('.', '/')).resolve(coordinates[1]);
+            List<String> versions = new ArrayList<>();
+            if (coordinates.length == 3) {
+                versions.add(coordinates[2]);
+            } else if (Files.isDirectory(artifactDirectory)) {
+                try (Stream<Path> children = Files.list(artifactDirectory)) {
+                    children.filter(p -> Files.isRegularFile(p.resolve(jarName(coordinates[1], p.getFileName().toString()))))
+                            .map(p -> p.getFileName().toString())
+                            .sorted(Comparator.comparing(ComparableVersion::new)).forEach(versions::add);
+                }
+            }
+            if (versions.isEmpty()) throw new NoSuchFileException(artifactDirectory.toString(), null, "no versions of " + trimmed + " found");
+            for (String version : versions) {
+                Path jar = artifactDirectory.resolve(version).resolve(jarName(coordinates[1], version));
+                if (!Files.isRegularFile(jar)) throw new NoSuchFileException(jar.toString());
+                putVersion(result, version, jar);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param archives the resolved archives
+     * @param version  the version of the archive
+     * @param jar      the archive
+     * @throws IllegalArgumentException if the version is already resolved
+     */
+    private static void putVersion(@NotNull Map<String, Path> archives, @NotNull String version, @NotNull Path jar) {
+        Path previous = archives.putIfAbsent(version, jar);
+        if (previous != null) throw new IllegalArgumentException("Version " + version + " given twice: " + previous + " and " + jar);
+    }
+
+    /**
+     * @param sources the sources as accepted by {@link #resolve(String[], Path, Path)}
+     * @return the project name of the first maven coordinates, as named by the maven project manager, or null if there are none
+     */
+    @Nullable
+    public static String projectNameOf(@NotNull String[] sources) {
+        for (String source : sources) {
+            String trimmed = source.trim();
+            String[] coordinates = trimmed.split(":");
+            if (!trimmed.endsWith(".jar") && coordinates.length >= 2 && coordinates.length <= 3) {
+                return coordinates[0].replace('.', '-') + ':' + coordinates[1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param jar a jar file
+     * @return the version of the jar
+     */
+    @NotNull
+    private static String versionOf(@NotNull Path jar) {
+        String fileName = jar.getFileName().toString();
+        Path versionDirectory = jar.toAbsolutePath().getParent();
+        if (versionDirectory != null && versionDirectory.getParent() != null) {
+            String version = versionDirectory.getFileName().toString();
+            Path artifactDirectory = versionDirectory.getParent().getFileName();
+            if (artifactDirectory != null && fileName.equals(jarName(artifactDirectory.toString(), version))) return version;
+        }
+        int extension = fileName.lastIndexOf('.');
+        return extension > 0 ? fileName.substring(0, extension) : fileName;
+    }
+
+    /**
+     * @param artifactId the artifact id
+     * @param version    the version
+     * @return the file name of the jar in a maven repository
+     */
+    @NotNull
+    private static String jarName(@NotNull String artifactId, @NotNull String version) {
+        return artifactId + '-' + version + ".jar";
+    }
+
+    /**
+     * The parsed classes of an archive
+     */
+    private static final class Archive {
+        @NotNull
+        private final String versionName;
+        @NotNull
+        private final List<String> classNames;
+        @NotNull
+        private final List<ClassNode> classes;
+
+        private Archive(@NotNull String versionName, @NotNull List<String> classNames, @NotNull List<ClassNode> classes) {
+            this.versionName = versionName;
+            this.classNames = classNames;
+            this.classes = classes;
+        }
+
+        /**
+         * Reads and parses all classes of an archive, except versioned classes of multi-release jars
+         *
+         * @param versionName the version of the archive
+         * @param jar         the archive
+         * @return the parsed classes
+         * @throws IOException if the archive could not be read
+         */
+        @NotNull
+        private static Archive read(@NotNull String versionName, @NotNull Path jar) throws IOException {
+            LOGGER.info("Reading {}", jar);
+            List<String> classNames = new ArrayList<>();
+            List<ClassNode> classes = new ArrayList<>();
+            try (RunMetrics.Phase ignored = RunMetrics.phase("backfill.read"); ZipFile zipFile = new ZipFile(jar.toFile())) {
+                Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    String name = entry.getName();
+                    if (entry.isDirectory() || !name.endsWith(CLASS_SUFFIX) || name.startsWith("META-INF/")) continue;
+                    ClassNode node = new ClassNode();
+                    try (InputStream in = zipFile.getInputStream(entry)) {
+                        new ClassReader(in).accept(node, 0);
+                    }
+                    classNames.add(name.substring(0, name.length() - CLASS_SUFFIX.length()).replace('/', '.'));
+                    classes.add(node);
+                }
+            }
+            return new Archive(versionName, classNames, classes);
+        }
+    }
+}
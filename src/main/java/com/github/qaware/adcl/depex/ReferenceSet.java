@@ -0,0 +1,124 @@
+package com.github.qaware.adcl.depex;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The distinct references found in a class or method, collected before they are added to the model.
+ * <br>A small open addressing hash set over the raw names ASM reports, iterated in insertion order. Cleared instead of recreated, so its arrays are reused for the next class.
+ * Not thread safe, classes are analysed one after another
+ */
+final class ReferenceSet {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] owners = new String[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] descriptors = new String[INITIAL_CAPACITY];
+    // the index of the reference + 1 per slot, 0 for free slots
+    private int[] slots = new int[2 * INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @param owner the internal name of the referenced class
+     * @return whether the class reference was new
+     */
+    boolean add(@NotNull String owner) {
+        return add(owner, null, null);
+    }
+
+    /**
+     * @param owner      the internal name of the referenced class, or of the owner of the referenced method
+     * @param name       the name of the referenced method, null for class references
+     * @param descriptor the descriptor of the referenced method, null for class references
+     * @return whether the reference was new
+     */
+    boolean add(@NotNull String owner, @Nullable String name, @Nullable String descriptor) {
+        int mask = slots.length - 1;
+        for (int slot = hash(owner, name, descriptor) & mask; ; slot = (slot + 1) & mask) {
+            int index = slots[slot] - 1;
+            if (index < 0) {
+                if (size == owners.length) {
+                    grow();
+                    return add(owner, name, descriptor);
+                }
+                owners[size] = owner;
+                names[size] = name;
+                descriptors[size] = descriptor;
+                slots[slot] = ++size;
+                return true;
+            }
+            if (owner.equals(owners[index]) && Objects.equals(name, names[index]) && Objects.equals(descriptor, descriptors[index])) return false;
+        }
+    }
+
+    /**
+     * Passes the references in the order they were added
+     *
+     * @param action receives the owner, the method name and the method descriptor of each reference, the latter two are null for class references
+     */
+    void forEach(@NotNull ReferenceConsumer action) {
+        for (int i = 0; i < size; i++) action.accept(owners[i], names[i], descriptors[i]);
+    }
+
+    /**
+     * @return the number of distinct references
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes all references, keeping the allocated arrays
+     */
+    void clear() {
+        Arrays.fill(owners, 0, size, null);
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(descriptors, 0, size, null);
+        Arrays.fill(slots, 0);
+        size = 0;
+    }
+
+    /**
+     * Doubles the capacity, rehashing the references
+     */
+    private void grow() {
+        int capacity = owners.length * 2;
+        owners = Arrays.copyOf(owners, capacity);
+        names = Arrays.copyOf(names, capacity);
+        descriptors = Arrays.copyOf(descriptors, capacity);
+        slots = new int[2 * capacity];
+        int mask = slots.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hash(owners[i], names[i], descriptors[i]) & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = i + 1;
+        }
+    }
+
+    /**
+     * @param owner      the owner of the reference
+     * @param name       the method name of the reference
+     * @param descriptor the method descriptor of the reference
+     * @return the spread hash of the reference
+     */
+    private static int hash(@NotNull String owner, @Nullable String name, @Nullable String descriptor) {
+        int hash = (owner.hashCode() * 31 + Objects.hashCode(name)) * 31 + Objects.hashCode(descriptor);
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Receives the references of a {@link ReferenceSet}
+     */
+    @FunctionalInterface
+    interface ReferenceConsumer {
+        /**
+         * @param owner      the internal name of the referenced class, or of the owner of the referenced method
+         * @param name       the name of the referenced method, null for class references
+         * @param descriptor the descriptor of the referenced method, null for class references
+         */
+        void accept(@NotNull String owner, @Nullable String name, @Nullable String descriptor);
+    }
+}
@@ -1,14 +1,14 @@
 package com.github.qaware.adcl.depex;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.Handle;
 import org.objectweb.asm.Type;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.function.BiConsumer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
@@ -17,6 +17,9 @@ import java.util.function.Consumer;
 class Utils {
     private static final Logger LOGGER = LoggerFactory.getLogger(Utils.class);
     private static final String PRIMITIVES_SHORT = "ZBCSIJFD";
+    private static final int SIGNATURE_CACHE_SIZE = 1 << 16;
+    // converted parameter lists by method descriptor
+    private static final Map<String, String> SIGNATURES = new ConcurrentHashMap<>();
 
     private Utils() {
 
@@ -32,99 +35,136 @@ class Utils {
      * @param addClassDep  consumer for found class dependencies
      * @param addMethodDep consumer for found method dependencies
      */
-    public static void analyseConstant(Object value, Consumer<String> addClassDep, BiConsumer<String, String> addMethodDep) {
-        if (value instanceof Type) Utils.getTypesFromDescriptor(((Type) value).getDescriptor()).forEach(addClassDep);
+    public static void analyseConstant(Object value, Consumer<String> addClassDep, ReferenceSet.ReferenceConsumer addMethodDep) {
+        if (value instanceof Type) forEachType(((Type) value).getDescriptor(), addClassDep);
         else if (value instanceof Handle) {
             Handle handle = (Handle) value;
-            addMethodDep.accept(handle.getOwner(), handle.getName() + convertDescriptor(handle.getDesc()));
+            addMethodDep.accept(handle.getOwner(), handle.getName(), handle.getDesc());
         }
     }
 
     /**
-     * Gets all types denoted by prefix 'L' and suffix ';' that can be found in the methods bytecode descriptor
+     * Calls the action for each class name denoted by prefix 'L' and suffix ';' in a descriptor, without collecting them first.
+     * A class referenced multiple times is passed multiple times
      *
-     * @param descriptor a java bytecode method descriptor (e.g. {@code getTypesFromDescriptor(Ljava/lang/String;)Ljava/com.github.qaware.adcl.util/Set;})
-     * @return a set of full class names (com.example.MyClass) that were found
+     * @param descriptor a java bytecode field, method or array descriptor (e.g. {@code (Ljava/lang/String;I)Ljava/util/Set;})
+     * @param action     receives the internal class names (e.g. {@code java/lang/String})
      */
-    @NotNull
-    public static Set<String> getTypesFromDescriptor(@NotNull String descriptor) {
-        Set<String> result = new HashSet<>();
-        int pos = 0;
-        while (true) {
-            int lpos = descriptor.indexOf('L', pos);
-            if (lpos == -1) break;
-            int spos = descriptor.indexOf(';', lpos);
-            result.add(descriptor.substring(lpos + 1, spos).replace('/', '.'));
-            pos = spos;
+    public static void forEachType(@NotNull String descriptor, @NotNull Consumer<String> action) {
+        int pos = descriptor.indexOf('L');
+        while (pos >= 0) {
+            int end = descriptor.indexOf(';', pos);
+            action.accept(descriptor.substring(pos + 1, end));
+            pos = descriptor.indexOf('L', end);
         }
-        return result;
     }
 
     /**
-     * Converts a bytecode descriptor to a java source descriptor (only parameter lists, starting with '(' and ending with ')')
+     * @param type an internal class name or array descriptor (e.g. {@code [[Ljava/lang/String;})
+     * @return the internal name of the class or array element class, null for arrays of primitives
+     */
+    @Nullable
+    public static String elementType(@NotNull String type) {
+        if (type.charAt(0) != '[') return type;
+        int start = type.lastIndexOf('[') + 1;
+        return type.charAt(start) == 'L' ? type.substring(start + 1, type.length() - 1) : null;
+    }
+
+    /**
+     * Converts a bytecode descriptor to a java source descriptor (only parameter lists, starting with '(' and ending with ')').
+     * The conversions are cached, as the same descriptors are referenced throughout a project
      *
      * @param descriptor the java bytecode method descriptor's parameter list in its parentheses (e.g. {@code (Ljava/lang/String;)})
      * @return the parameter list in java source form, also with parentheses (e.g. {@code (java.lang.String)})
      */
     @NotNull
     public static String convertDescriptor(@NotNull String descriptor) {
-        StringBuilder sb = new StringBuilder("(");
+        String result = SIGNATURES.get(descriptor);
+        if (result == null) {
+            result = convert(descriptor);
+            // a simple bound, the descriptors of a project fit well below it
+            if (SIGNATURES.size() >= SIGNATURE_CACHE_SIZE) SIGNATURES.clear();
+            SIGNATURES.put(descriptor, result);
+        }
+        return result;
+    }
 
+    /**
+     * @param descriptor the java bytecode method descriptor's parameter list in its parentheses
+     * @return the parameter list in java source form
+     * @see Utils#convertDescriptor(String)
+     */
+    @NotNull
+    private static String convert(@NotNull String descriptor) {
+        StringBuilder sb = new StringBuilder(descriptor.length() + 16).append('(');
+        int end = descriptor.indexOf(')');
         int pos = 1;
-        boolean array = false;
-
-        while (pos < descriptor.length()) {
-            switch (descriptor.charAt(pos)) {
-                case ')':
-                    pos = descriptor.length();
-                    if (sb.length() > 1) sb.setLength(sb.length() - 2); // remove last comma
-                    break;
-                case 'Z':
-                    sb.append("boolean");
-                    break;
-                case 'B':
-                    sb.append("byte");
-                    break;
-                case 'C':
-                    sb.append("char");
-                    break;
-                case 'S':
-                    sb.append("short");
-                    break;
-                case 'I':
-                    sb.append("int");
-                    break;
-                case 'J':
-                    sb.append("long");
-                    break;
-                case 'F':
-                    sb.append("float");
-                    break;
-                case 'D':
-                    sb.append("double");
-                    break;
-                case '[':
-                    array = true;
-                    pos++;
-                    continue;
-                case 'L':
-                    int sPos = descriptor.indexOf(';', pos);
-                    sb.append(descriptor, pos + 1, sPos);
-                    pos = sPos;
-                    break;
-                default:
-                    throw new IllegalStateException("Invalid character " + descriptor.charAt(pos) + " in method descriptor");
+        while (pos < end) {
+            int dimensions = 0;
+            while (descriptor.charAt(pos) == '[') {
+                dimensions++;
+                pos++;
             }
-            pos++;
-            if (array) {
-                sb.append("[]");
-                array = false;
+            char c = descriptor.charAt(pos);
+            if (c == 'L') {
+                int sPos = descriptor.indexOf(';', pos);
+                for (int i = pos + 1; i < sPos; i++) {
+                    char n = descriptor.charAt(i);
+                    sb.append(n == '/' ? '.' : n);
+                }
+                pos = sPos;
+            } else {
+                sb.append(primitiveName(c));
             }
-            if (pos < descriptor.length()) sb.append(", ");
+            pos++;
+            // a single [] for any number of dimensions, method paths in existing databases depend on it
+            if (dimensions > 0) sb.append("[]");
+            if (pos < end) sb.append(", ");
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * @param descriptor a primitive type descriptor
+     * @return the java source name of the primitive type
+     */
+    @NotNull
+    private static String primitiveName(char descriptor) {
+        switch (descriptor) {
+            case 'Z':
+                return "boolean";
+            case 'B':
+                return "byte";
+            case 'C':
+                return "char";
+            case 'S':
+                return "short";
+            case 'I':
+                return "int";
+            case 'J':
+                return "long";
+            case 'F':
+                return "float";
+            case 'D':
+                return "double";
+            default:
+                throw new IllegalStateException("Invalid character " + descriptor + " in method descriptor");
         }
+    }
 
-        sb.append(')');
-        return sb.toString().replace('/', '.');
+    /**
+     * @param name a local variable name
+     * @return whether the variable is a reference to this or to an outer this (this$0, this$1, ...)
+     */
+    public static boolean isThisReference(@NotNull String name) {
+        if (!name.startsWith("this")) return false;
+        if (name.length() == 4) return true;
+        if (name.length() == 5 || name.charAt(4) != '$') return false;
+        for (int i = 5; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
     }
 
     /**
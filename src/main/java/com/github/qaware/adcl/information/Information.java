@@ -3,6 +3,7 @@ package com.github.qaware.adcl.information;
 import com.github.qaware.adcl.database.Purgeable;
 import com.github.qaware.adcl.util.CompareHelper;
 import com.github.qaware.adcl.util.DeepComparable;
+import com.github.qaware.adcl.util.Symbols;
 import com.github.qaware.adcl.util.Utils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.jetbrains.annotations.Contract;
@@ -15,8 +16,12 @@ import org.neo4j.ogm.annotation.Property;
 import org.neo4j.ogm.annotation.Relationship;
 import org.neo4j.ogm.annotation.Transient;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -36,11 +41,20 @@ public abstract class Information<P extends Information<?>> implements Comparabl
 
     @Property
     @NotNull
-    private final String name;
+    private String name;
 
+    /**
+     * The absolute path. Persisted, so only held while a snapshot is saved or after loading until the names are interned, null otherwise
+     */
     @Property
-    @NotNull
-    private final String path;
+    @Nullable
+    private String path;
+
+    /**
+     * The hash of the path, derived from the hash of the parent path so that hashing does not materialize the path. 0 if not computed yet
+     */
+    @Transient
+    private int pathHash;
 
     @Transient
     private final CompareHelper<Information<?>> comparator = new CompareHelper<>();
@@ -63,6 +77,19 @@ public abstract class Information<P extends Information<?>> implements Comparabl
     private final Set<MethodDependency> methodDependencies = new HashSet<>();
     @Transient
     private final CompareHelper<Information<?>> deepComparator = new CompareHelper<>();
+    /**
+     * The incoming dependency relations, as reverse index of the outgoing dependency sets of all other nodes.
+     * By identity, as the hash of a relation changes with its existence markers
+     */
+    @Transient
+    @NotNull
+    private final Set<RelationshipInformation<?>> dependents = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * The versions of all existence markers in the subtree, including the parent relation of this node. May contain versions of removed markers
+     */
+    @Transient
+    @NotNull
+    private final Set<VersionInformation> subtreeChanges = new HashSet<>();
     @Id
     @GeneratedValue
     @Nullable Long id;
@@ -81,9 +108,7 @@ public abstract class Information<P extends Information<?>> implements Comparabl
      * @param name   it's *own* name (e.g. {@link Class#getSimpleName()} for {@link ClassInformation})
      */
     Information(@NotNull P parent, @NotNull String name) {
-        this.name = name;
-        String parentPath = parent.getPath();
-        this.path = parentPath.isEmpty() ? name : (parentPath + '.' + name);
+        this.name = Symbols.intern(name);
         this.parent = new ParentInformation<>(this, parent);
         parent.directChildren.add(this.parent);
         initializeComparators();
@@ -96,7 +121,7 @@ public abstract class Information<P extends Information<?>> implements Comparabl
      * @param name it's *own* name (e.g. {@link Class#getSimpleName()} for {@link ClassInformation})
      */
     Information(@NotNull String name) {
-        this.name = name;
+        this.name = Symbols.intern(name);
         this.path = "";
         this.parent = null;
         initializeComparators();
@@ -120,14 +145,207 @@ public abstract class Information<P extends Information<?>> implements Comparabl
     public abstract Type getType();
 
     /**
+     * Computed from the names of the parent chain on every call and not kept, callers needing it repeatedly should hold on to it
+     *
      * @return the absolute path of the node (e.g. for a {@link MethodInformation}: {@code projectA.packageA.packageB.Class1.InnerClass.foo(java.lang.String, int)})
      */
     @Contract(pure = true)
     @NotNull
     public String getPath() {
+        String result = path;
+        if (result != null) return result;
+        StringBuilder builder = new StringBuilder();
+        appendPath(builder);
+        return builder.toString();
+    }
+
+    /**
+     * @param builder the builder to append the absolute path to
+     */
+    private void appendPath(@NotNull StringBuilder builder) {
+        String materialized = path;
+        if (materialized != null) {
+            builder.append(materialized);
+            return;
+        }
+        assert parent != null;
+        Information<?> parentNode = parent.getTo();
+        parentNode.appendPath(builder);
+        if (builder.length() > 0) builder.append('.');
+        builder.append(name);
+    }
+
+    /**
+     * @return the path if it is materialized, null otherwise
+     */
+    @Nullable
+    final String getMaterializedPath() {
         return path;
     }
 
+    /**
+     * Holds the path in the persisted property until {@link Information#releasePath()}, as the database mapping reads it from there
+     */
+    public final void materializePath() {
+        if (parent != null) path = getPath();
+    }
+
+    /**
+     * Drops the materialized path, keeping its hash so it is not derived from the parent again for every lookup
+     */
+    public final void releasePath() {
+        if (parent == null) return;
+        pathHash = getPathHash();
+        path = null;
+    }
+
+    /**
+     * Compares the path of this node segment by segment, without materializing it
+     *
+     * @param path an absolute path
+     * @return whether this node is located at the path
+     */
+    public final boolean hasPath(@NotNull String path) {
+        return endsPath(path, path.length());
+    }
+
+    /**
+     * @param path a path
+     * @param end  the end of the prefix of the path to compare
+     * @return whether the prefix of the path ending at end is the path of this node
+     */
+    private boolean endsPath(@NotNull String path, int end) {
+        String materialized = this.path;
+        if (materialized != null) return materialized.length() == end && path.startsWith(materialized);
+        assert parent != null;
+        int start = end - name.length();
+        if (start < 0 || !path.startsWith(name, start)) return false;
+        Information<?> parentNode = parent.getTo();
+        if (parentNode.parent == null) return start == 0;
+        return start > 0 && path.charAt(start - 1) == '.' && parentNode.endsPath(path, start - 1);
+    }
+
+    /**
+     * @return the hash of the path, equal to {@code getPath().hashCode()}
+     */
+    private int getPathHash() {
+        int hash = pathHash;
+        if (hash != 0) return hash;
+        // not cached, as the database mapping sets the path after construction
+        if (path != null) return path.hashCode();
+        assert parent != null;
+        Information<?> parentNode = parent.getTo();
+        // the string hash of the parent path followed by '.' and the name, computed incrementally
+        hash = parentNode.parent == null ? 0 : 31 * parentNode.getPathHash() + '.';
+        for (int i = 0; i < name.length(); i++) hash = 31 * hash + name.charAt(i);
+        pathHash = hash;
+        return hash;
+    }
+
+    /**
+     * Interns the names of this subtree in the {@link Symbols} table and releases the paths loaded from database, which are computed on demand.
+     * Needed as names loaded from database are not interned
+     */
+    public final void internNames() {
+        Set<Information<?>> all = getAllChildren(null);
+        all.add(this);
+        for (Information<?> node : all) {
+            node.name = Symbols.intern(node.name);
+            node.releasePath();
+        }
+    }
+
+    /**
+     * @return the relation to the parent node, whose markers determine the existence of this node. Null for the root
+     */
+    @Nullable
+    public final ParentInformation<P> getParentRelation() {
+        return parent;
+    }
+
+    /**
+     * @return all outgoing dependency relations, regardless of their existence
+     */
+    @NotNull
+    public final Stream<RelationshipInformation<?>> getDependencyRelations() {
+        return Utils.concatStreams(projectDependencies.stream(), packageDependencies.stream(), classDependencies.stream(), methodDependencies.stream());
+    }
+
+    /**
+     * @param a a version
+     * @param b another version of the same project
+     * @return false if no existence marker in the subtree (including the parent relation of this node) lies between both versions.
+     * In that case, provided no parent node changed either, the subtree is identical in both versions
+     */
+    public final boolean hasSubtreeChangesBetween(@NotNull VersionInformation a, @NotNull VersionInformation b) {
+        VersionInformation low = a.isBefore(b) ? a : b;
+        VersionInformation high = low == a ? b : a;
+        return subtreeChanges.stream().anyMatch(v -> v.isAfter(low) && !v.isAfter(high));
+    }
+
+    /**
+     * Registers an existence marker in the subtree of this node and all parent nodes
+     *
+     * @param version the version of the marker
+     */
+    final void registerSubtreeChange(@NotNull VersionInformation version) {
+        // a version registered at a node is registered at all its parents as well
+        Information<?> current = this;
+        while (current != null && current.subtreeChanges.add(version)) current = current.parent == null ? null : current.parent.getTo();
+    }
+
+    /**
+     * Unregisters the version of a removed existence marker from this node and all parent nodes, as far as no other marker of their subtrees has the version
+     *
+     * @param version the version of the removed marker
+     */
+    final void unregisterSubtreeChange(@NotNull VersionInformation version) {
+        Information<?> current = this;
+        while (current != null && current.subtreeChanges.contains(version) && !current.hasMarkerInSubtree(version)) {
+            current.subtreeChanges.remove(version);
+            current = current.parent == null ? null : current.parent.getTo();
+        }
+    }
+
+    /**
+     * @param version a version
+     * @return whether the parent relation, an outgoing dependency relation or the subtree of a child has a marker at the version
+     */
+    private boolean hasMarkerInSubtree(@NotNull VersionInformation version) {
+        if (parent != null && parent.getVersionMarkers().containsKey(version)) return true;
+        if (getDependencyRelations().anyMatch(r -> r.getVersionMarkers().containsKey(version))) return true;
+        return directChildren.stream().anyMatch(c -> c.getFrom().subtreeChanges.contains(version));
+    }
+
+    /**
+     * @return the number of incoming dependency relations, regardless of their existence
+     * @see ModelStatistics
+     */
+    final int getDependentCount() {
+        return dependents.size();
+    }
+
+    /**
+     * @return the number of versions registered as subtree changes
+     * @see ModelStatistics
+     */
+    final int getSubtreeChangeCount() {
+        return subtreeChanges.size();
+    }
+
+    /**
+     * Recomputes the marker versions of this subtree, needed as markers loaded from database are not registered
+     *
+     * @see Information#hasSubtreeChangesBetween(VersionInformation, VersionInformation)
+     */
+    public final void rebuildSubtreeChanges() {
+        Set<Information<?>> all = getAllChildren(null);
+        all.add(this);
+        all.forEach(i -> i.subtreeChanges.clear());
+        all.forEach(i -> Stream.concat(i.parent == null ? Stream.empty() : Stream.of(i.parent), i.getDependencyRelations())
+                .forEach(r -> r.getVersionMarkers().keySet().forEach(i::registerSubtreeChange)));
+    }
+
     /**
      * @param version the version to check
      * @return whether the node exists at a given version.
@@ -207,19 +425,23 @@ public abstract class Information<P extends Information<?>> implements Comparabl
      * Adds a new project dependency at given version
      * @param to the dependency
      * @param at The start version on which the dependency should exist. If null existence will be ensured for latest version
+     * @return whether the dependency relation was created, false if an existing one was reused
      */
-    public final void addProjectDependency(@NotNull ProjectInformation to, @Nullable VersionInformation at) {
+    public final boolean addProjectDependency(@NotNull ProjectInformation to, @Nullable VersionInformation at) {
         VersionInformation fAt = at == null ? getProject().getLatestVersion() : at;
-        ProjectDependency dep = projectDependencies.stream().filter(d -> d.getTo().equals(to)).findAny().orElseGet(() -> {
-            ProjectDependency result = new ProjectDependency(this, to);
+        ProjectDependency dep = projectDependencies.stream().filter(d -> d.getTo().equals(to)).findAny().orElse(null);
+        boolean created = dep == null;
+        if (created) {
+            dep = new ProjectDependency(this, to);
+            registerDependent(to, dep);
             if (getType().isSub(Type.ROOT)) {
-                VersionInformation firstExistence = result.firstExistence();
-                if (!firstExistence.equals(fAt)) result.setExists(firstExistence, false);
+                VersionInformation firstExistence = dep.firstExistence();
+                if (!firstExistence.equals(fAt)) dep.setExists(firstExistence, false);
             }
-            return result;
-        });
+        }
         dep.setExists(fAt, true);
         projectDependencies.add(dep);
+        return created;
     }
 
     /**
@@ -258,19 +480,23 @@ public abstract class Information<P extends Information<?>> implements Comparabl
      * Adds a new package dependency at given version
      * @param to the dependency
      * @param at The start version on which the dependency should exist. If null existence will be ensured for latest version
+     * @return whether the dependency relation was created, false if an existing one was reused
      */
-    public final void addPackageDependency(@NotNull PackageInformation<?> to, @Nullable VersionInformation at) {
+    public final boolean addPackageDependency(@NotNull PackageInformation<?> to, @Nullable VersionInformation at) {
         VersionInformation fAt = at == null ? getProject().getLatestVersion() : at;
-        PackageDependency dep = packageDependencies.stream().filter(d -> d.getTo().equals(to)).findAny().orElseGet(() -> {
-            PackageDependency result = new PackageDependency(this, to);
+        PackageDependency dep = packageDependencies.stream().filter(d -> d.getTo().equals(to)).findAny().orElse(null);
+        boolean created = dep == null;
+        if (created) {
+            dep = new PackageDependency(this, to);
+            registerDependent(to, dep);
             if (getType().isSub(Type.ROOT)) {
-                VersionInformation firstExistence = result.firstExistence();
-                if (!firstExistence.equals(fAt)) result.setExists(firstExistence, false);
+                VersionInformation firstExistence = dep.firstExistence();
+                if (!firstExistence.equals(fAt)) dep.setExists(firstExistence, false);
             }
-            return result;
-        });
+        }
         dep.setExists(fAt, true);
         packageDependencies.add(dep);
+        return created;
     }
 
     /**
@@ -309,19 +535,23 @@ public abstract class Information<P extends Information<?>> implements Comparabl
      * Adds a new class dependency at given version
      * @param to the dependency
      * @param at The start version on which the dependency should exist. If null existence will be ensured for latest version
+     * @return whether the dependency relation was created, false if an existing one was reused
      */
-    public final void addClassDependency(@NotNull ClassInformation<?> to, @Nullable VersionInformation at) {
+    public final boolean addClassDependency(@NotNull ClassInformation<?> to, @Nullable VersionInformation at) {
         VersionInformation fAt = at == null ? getProject().getLatestVersion() : at;
-        ClassDependency dep = classDependencies.stream().filter(d -> d.getTo().equals(to)).findAny().orElseGet(() -> {
-            ClassDependency result = new ClassDependency(this, to);
+        ClassDependency dep = classDependencies.stream().filter(d -> d.getTo().equals(to)).findAny().orElse(null);
+        boolean created = dep == null;
+        if (created) {
+            dep = new ClassDependency(this, to);
+            registerDependent(to, dep);
             if (getType().isSub(Type.ROOT)) {
-                VersionInformation firstExistence = result.firstExistence();
-                if (!firstExistence.equals(fAt)) result.setExists(firstExistence, false);
+                VersionInformation firstExistence = dep.firstExistence();
+                if (!firstExistence.equals(fAt)) dep.setExists(firstExistence, false);
             }
-            return result;
-        });
+        }
         dep.setExists(fAt, true);
         classDependencies.add(dep);
+        return created;
     }
 
     /**
@@ -347,19 +577,83 @@ public abstract class Information<P extends Information<?>> implements Comparabl
      * Adds a new method dependency at given version
      * @param to the dependency
      * @param at The start version on which the dependency should exist. If null existence will be ensured for latest version
+     * @return whether the dependency relation was created, false if an existing one was reused
      */
-    public final void addMethodDependency(@NotNull MethodInformation to, @Nullable VersionInformation at) {
+    public final boolean addMethodDependency(@NotNull MethodInformation to, @Nullable VersionInformation at) {
         VersionInformation fAt = at == null ? getProject().getLatestVersion() : at;
-        MethodDependency dep = methodDependencies.stream().filter(d -> d.getTo().equals(to)).findAny().orElseGet(() -> {
-            MethodDependency result = new MethodDependency(this, to);
+        MethodDependency dep = methodDependencies.stream().filter(d -> d.getTo().equals(to)).findAny().orElse(null);
+        boolean created = dep == null;
+        if (created) {
+            dep = new MethodDependency(this, to);
+            registerDependent(to, dep);
             if (getType().isSub(Type.ROOT)) {
-                VersionInformation firstExistence = result.firstExistence();
-                if (!firstExistence.equals(fAt)) result.setExists(firstExistence, false);
+                VersionInformation firstExistence = dep.firstExistence();
+                if (!firstExistence.equals(fAt)) dep.setExists(firstExistence, false);
             }
-            return result;
-        });
+        }
         dep.setExists(fAt, true);
         methodDependencies.add(dep);
+        return created;
+    }
+
+    ////////// DEPENDENTS //////////
+
+    /**
+     * @param at the version to check. If null dependents at any time are returned
+     * @return all nodes with an *own* dependency to this node at a given version
+     */
+    @NotNull
+    public final Set<Information<?>> getDependents(@Nullable VersionInformation at) {
+        return dependents.stream().filter(d -> at == null || d.exists(at)).map(RelationshipInformation::getFrom).collect(Collectors.toSet());
+    }
+
+    /**
+     * @param at              the version to check. If null dependents at any time are returned
+     * @param includeInternal whether dependents that are child nodes of this should be included
+     * @return all nodes with an *own* dependency to this node or one of its children at a given version
+     */
+    @NotNull
+    public final Set<Information<?>> getAllDependents(@Nullable VersionInformation at, boolean includeInternal) {
+        return Stream.concat(Stream.of(this), getAllChildren(at).stream()).flatMap(i -> i.getDependents(at).stream())
+                .distinct().filter(d -> includeInternal || !d.hasParent(this)).collect(Collectors.toSet());
+    }
+
+    /**
+     * @param at              the version to check. If null dependents at any time are returned
+     * @param includeInternal whether dependents that are child nodes of this, or parent nodes of this, should be included
+     * @return *all* dependents - aggregating dependents to all their parents up to the project - at a given version
+     */
+    @NotNull
+    public final Set<Information<?>> getAllDependentsAggregated(@Nullable VersionInformation at, boolean includeInternal) {
+        Set<Information<?>> result = new HashSet<>();
+        for (Information<?> dependent : getAllDependents(at, includeInternal)) {
+            Information<?> current = dependent;
+            // parents already added had their parents added as well
+            while (current.getType() != Type.ROOT && (includeInternal || !hasParent(current)) && result.add(current)) current = current.getParent();
+        }
+        return result;
+    }
+
+    /**
+     * Registers a new dependency relation in the reverse index of its target
+     *
+     * @param target   the target node
+     * @param relation the relation
+     */
+    private static void registerDependent(@NotNull Information<?> target, @NotNull RelationshipInformation<?> relation) {
+        target.dependents.add(relation);
+    }
+
+    /**
+     * Rebuilds the dependents of all nodes in this subtree from the dependencies starting in this subtree, needed as relations loaded from database are not registered
+     *
+     * @see Information#getDependents(VersionInformation)
+     */
+    public final void rebuildDependents() {
+        Set<Information<?>> all = getAllChildren(null);
+        all.add(this);
+        all.forEach(i -> i.dependents.clear());
+        all.forEach(i -> i.getDependencyRelations().forEach(r -> registerDependent(r.getTo(), r)));
     }
 
     ////////// TREE //////////
@@ -588,7 +882,7 @@ public abstract class Information<P extends Information<?>> implements Comparabl
      */
     @Override
     public int hashCode() {
-        return Objects.hash(getType(), getPath());
+        return Objects.hash(getType(), getPathHash());
     }
 
     /**
@@ -597,7 +891,30 @@ public abstract class Information<P extends Information<?>> implements Comparabl
      * @param cmp the CompareHelper that should be filled with the comparator elements
      */
     protected void compareElements(@NotNull CompareHelper<Information<?>> cmp) {
-        cmp.add(Information::getType).add(Information::getPath);
+        cmp.add(Information::getType).add(Information::comparePaths);
+    }
+
+    /**
+     * Compares the paths of two nodes segment by segment along their parent chains, without materializing them
+     *
+     * @param a the first node
+     * @param b the second node
+     * @return the result of {@code a.getPath().compareTo(b.getPath())}
+     */
+    private static int comparePaths(@NotNull Information<?> a, @NotNull Information<?> b) {
+        if (a == b) return 0;
+        if (a.path == null && b.path == null && a.parent != null && b.parent != null && a.parent.getTo() == b.parent.getTo()) {
+            // siblings share the whole path up to their names
+            return a.name.compareTo(b.name);
+        }
+        PathCursor first = new PathCursor(a);
+        PathCursor second = new PathCursor(b);
+        while (true) {
+            int c1 = first.next();
+            int c2 = second.next();
+            if (c1 != c2) return c1 < 0 || c2 < 0 ? Integer.compare(c1, c2) : c1 - c2;
+            if (c1 < 0) return 0;
+        }
     }
 
     /**
@@ -649,7 +966,8 @@ public abstract class Information<P extends Information<?>> implements Comparabl
     @Contract(value = "null -> false", pure = true)
     @Override
     public final boolean equals(Object o) {
-        return o instanceof Information && compareTo((Information<?>) o) == 0;
+        // differing path hashes rule out equal paths without materializing them
+        return o instanceof Information && ((Information<?>) o).getPathHash() == getPathHash() && compareTo((Information<?>) o) == 0;
     }
 
     /**
@@ -720,4 +1038,46 @@ public abstract class Information<P extends Information<?>> implements Comparabl
             return ordinal() > type.ordinal();
         }
     }
+
+    /**
+     * Iterates the characters of a path as {@link Information#getPath()} would build them
+     */
+    private static final class PathCursor {
+        /**
+         * The segments of the path from the node up to the first materialized path
+         */
+        private final List<String> segments = new ArrayList<>();
+        private int segment;
+        private int index;
+        private boolean started;
+
+        PathCursor(@NotNull Information<?> node) {
+            Information<?> current = node;
+            while (current.path == null) {
+                assert current.parent != null;
+                segments.add(current.name);
+                current = current.parent.getTo();
+            }
+            segments.add(current.path);
+            segment = segments.size() - 1;
+        }
+
+        /**
+         * @return the next character of the path or -1 at its end
+         */
+        int next() {
+            while (segment >= 0) {
+                String current = segments.get(segment);
+                if (index < current.length()) {
+                    started = true;
+                    return current.charAt(index++);
+                }
+                segment--;
+                index = 0;
+                // the separator getPath appends between a non empty prefix and the next name
+                if (segment >= 0 && started) return '.';
+            }
+            return -1;
+        }
+    }
 }
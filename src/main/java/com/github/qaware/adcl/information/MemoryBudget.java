@@ -0,0 +1,129 @@
+package com.github.qaware.adcl.information;
+
+import com.github.qaware.adcl.util.Symbols;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A limit for the {@linkplain ModelStatistics estimated} heap retained by a model. A model exceeding the budget is compacted first,
+ * if it still exceeds the budget the run is to be stopped before it fails with an {@link OutOfMemoryError} somewhere later
+ */
+public final class MemoryBudget {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemoryBudget.class);
+
+    private final long limit;
+
+    /**
+     * @param limit the maximum estimated bytes of the model
+     */
+    public MemoryBudget(long limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * @param value a size in bytes, optionally with the suffix k, m or g (case insensitive, base 1024)
+     * @return the size in bytes
+     * @throws IllegalArgumentException if the value is not a positive size
+     */
+    public static long parse(@NotNull String value) {
+        String trimmed = value.trim().toLowerCase(Locale.ROOT);
+        int shift = 0;
+        if (trimmed.endsWith("k")) shift = 10;
+        else if (trimmed.endsWith("m")) shift = 20;
+        else if (trimmed.endsWith("g")) shift = 30;
+        try {
+            long result = Long.parseLong(shift == 0 ? trimmed : trimmed.substring(0, trimmed.length() - 1).trim());
+            if (result > 0 && result <= (Long.MAX_VALUE >> shift)) return result << shift;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid size " + value, e);
+        }
+        throw new IllegalArgumentException("Invalid size " + value);
+    }
+
+    /**
+     * @return the maximum estimated bytes of the model
+     */
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Checks the model against the budget, compacting it if it exceeds the budget
+     *
+     * @param root the model
+     * @return the statistics of the model, after compaction if compacted
+     * @throws ExceededException if the model exceeds the budget even after compaction
+     */
+    @NotNull
+    public ModelStatistics enforce(@NotNull RootInformation root) throws ExceededException {
+        ModelStatistics statistics = ModelStatistics.of(root);
+        if (statistics.getTotalBytes() <= limit) return statistics;
+        LOGGER.warn("Model exceeds the memory budget of {} with an estimated {}, compacting", ModelStatistics.format(limit), ModelStatistics.format(statistics.getTotalBytes()));
+        compact(root);
+        statistics = ModelStatistics.of(root);
+        if (statistics.getTotalBytes() > limit) throw new ExceededException(limit, statistics);
+        LOGGER.info("Compacted model to an estimated {}", ModelStatistics.format(statistics.getTotalBytes()));
+        return statistics;
+    }
+
+    /**
+     * Reduces the footprint of a model without changing its content: the class indices, only needed while analysing, are released,
+     * the version maps of the edges are replaced by right-sized copies keyed by the versions of the projects instead of the per edge copies created when loading,
+     * the names of the model are interned in the {@linkplain Symbols symbol table}, the materialized paths are released and the subtree change versions are rebuilt
+     *
+     * @param root the model
+     */
+    public static void compact(@NotNull RootInformation root) {
+        Set<Information<?>> all = root.getAllChildren(null);
+        Map<VersionInformation, VersionInformation> canonical = new HashMap<>();
+        for (Information<?> node : all) {
+            if (!(node instanceof ProjectInformation)) continue;
+            ProjectInformation project = (ProjectInformation) node;
+            project.releaseIndices();
+            project.getVersions().forEach(v -> canonical.put(v, v));
+        }
+        int replaced = 0;
+        for (Information<?> node : all) {
+            if (node.parent != null) replaced += node.parent.compactVersionMarkers(canonical);
+            replaced += node.getDependencyRelations().mapToInt(r -> r.compactVersionMarkers(canonical)).sum();
+        }
+        root.internNames();
+        root.rebuildSubtreeChanges();
+        LOGGER.info("Compacted model, replaced {} version copies", replaced);
+    }
+
+    /**
+     * Thrown if a model exceeds the memory budget even after compaction
+     */
+    public static class ExceededException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        @NotNull
+        private final transient ModelStatistics statistics;
+
+        /**
+         * @param limit      the budget
+         * @param statistics the statistics of the compacted model
+         */
+        ExceededException(long limit, @NotNull ModelStatistics statistics) {
+            super("Model exceeds the memory budget of " + ModelStatistics.format(limit) + " after compaction, mostly by its "
+                    + statistics.getLargestComponent().getKey().replace('.', ' ') + ". Model: " + statistics
+                    + ". Analyse fewer versions per run or raise memory.budget together with the heap (-Xmx)");
+            this.statistics = statistics;
+        }
+
+        /**
+         * @return the statistics of the compacted model
+         */
+        @NotNull
+        public ModelStatistics getStatistics() {
+            return statistics;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.github.qaware.adcl.information;
+
+import com.github.qaware.adcl.util.RunMetrics;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * The node and edge counts of a model and an estimation of the heap they retain, per component.
+ * <br>The estimation follows the object layout of a 64 bit JVM with compressed references and compact strings.
+ * Hash tables are assumed to be as small as their load factor allows, so the estimation rather is a lower bound.
+ * Strings and versions are counted once per instance, so duplicates show up as such. Paths are only counted if materialized
+ */
+public final class ModelStatistics {
+    private static final int REFERENCE = 4;
+    private static final int HASH_MAP = 48;
+    private static final int HASH_SET = 16 + HASH_MAP;
+    private static final int HASH_ENTRY = 32;
+    private static final int STRING = 24;
+    private static final int ARRAY = 16;
+    private static final int VERSION = 24;
+    // the fields of a node, its two comparators and its seven hash sets
+    private static final int NODE = 72 + 2 * 80 + 7 * HASH_SET;
+    // the fields of an edge and its entry in the outgoing set of its start
+    private static final int EDGE = 32 + HASH_ENTRY + REFERENCE;
+    // the wrapper of the existence markers and its two listeners
+    private static final int MARKER_WRAPPER = 24 + 2 * 16;
+
+    private final Map<Information.Type, Integer> nodes = new EnumMap<>(Information.Type.class);
+    private final Map<String, Integer> edges = new TreeMap<>();
+    private final Map<Component, Long> bytes = new EnumMap<>(Component.class);
+    private final Set<Object> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int versionMarkers;
+    private int indexEntries;
+
+    private ModelStatistics() {
+        for (Component component : Component.values()) bytes.put(component, 0L);
+    }
+
+    /**
+     * @param root the model
+     * @return the statistics of the model
+     */
+    @NotNull
+    public static ModelStatistics of(@NotNull RootInformation root) {
+        ModelStatistics result = new ModelStatistics();
+        Set<Information<?>> all = root.getAllChildren(null);
+        all.add(root);
+        for (Information<?> node : all) {
+            result.nodes.merge(node.getType(), 1, Integer::sum);
+            result.add(Component.NODES, NODE + hashEntries(node.directChildren.size()) + hashEntries(node.getDependentCount()) + hashEntries(node.getSubtreeChangeCount()));
+            String path = node.getMaterializedPath();
+            result.add(Component.NAMES, result.stringBytes(node.getName()) + (path == null ? 0 : result.stringBytes(path)));
+            if (node.parent != null) result.addEdge(node.parent);
+            node.getDependencyRelations().forEach(result::addEdge);
+            if (node instanceof ProjectInformation) result.addIndex(((ProjectInformation) node).getIndices());
+        }
+        result.counted.clear();
+        return result;
+    }
+
+    /**
+     * @param edge an edge of the model
+     */
+    private void addEdge(@NotNull RelationshipInformation<?> edge) {
+        edges.merge(edge.getClass().getSimpleName(), 1, Integer::sum);
+        add(Component.EDGES, EDGE);
+        Map<VersionInformation, Boolean> markers = edge.getVersionMarkers();
+        versionMarkers += markers.size();
+        // the markers and their persisted mirror keyed by the version names
+        long markerBytes = MARKER_WRAPPER + 2 * (HASH_MAP + hashEntries(markers.size()));
+        for (VersionInformation version : markers.keySet()) {
+            if (counted.add(version)) markerBytes += VERSION + stringBytes(version.getName());
+        }
+        add(Component.VERSION_MAPS, markerBytes);
+    }
+
+    /**
+     * @param index the class index of a project. Not counted if empty, as e.g. released indices are, which only leave the empty map of the project
+     */
+    private void addIndex(@NotNull Map<String, String> index) {
+        if (index.isEmpty()) return;
+        indexEntries += index.size();
+        long indexBytes = HASH_MAP + hashEntries(index.size());
+        for (Map.Entry<String, String> entry : index.entrySet()) indexBytes += stringBytes(entry.getKey()) + stringBytes(entry.getValue());
+        add(Component.CLASS_INDEX, indexBytes);
+    }
+
+    /**
+     * @param component the component
+     * @param amount    the bytes to add to the component
+     */
+    private void add(@NotNull Component component, long amount) {
+        bytes.merge(component, amount, Long::sum);
+    }
+
+    /**
+     * @param string a string of the model
+     * @return the size of the string, 0 if the instance is counted already
+     */
+    private long stringBytes(@NotNull String string) {
+        return counted.add(string) ? STRING + align(ARRAY + (long) string.length()) : 0;
+    }
+
+    /**
+     * @param size the number of entries of a hash map or set
+     * @return the size of the table and the entries
+     */
+    private static long hashEntries(int size) {
+        if (size == 0) return 0;
+        int needed = (int) Math.ceil(size / 0.75);
+        int tableSize = needed <= 1 ? 1 : Integer.highestOneBit(needed - 1) << 1;
+        return align(ARRAY + (long) REFERENCE * tableSize) + (long) HASH_ENTRY * size;
+    }
+
+    /**
+     * @param size an object size
+     * @return the size aligned to 8 bytes
+     */
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * @return the node counts per type
+     */
+    @NotNull
+    public Map<Information.Type, Integer> getNodeCounts() {
+        return Collections.unmodifiableMap(nodes);
+    }
+
+    /**
+     * @return the edge counts per relationship class, including the parent relations
+     */
+    @NotNull
+    public Map<String, Integer> getEdgeCounts() {
+        return Collections.unmodifiableMap(edges);
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        return nodes.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * @return the number of edges
+     */
+    public int getEdgeCount() {
+        return edges.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * @return the number of existence markers of all edges
+     */
+    public int getVersionMarkerCount() {
+        return versionMarkers;
+    }
+
+    /**
+     * @return the number of entries of the class indices of all projects
+     */
+    public int getIndexEntryCount() {
+        return indexEntries;
+    }
+
+    /**
+     * @param component a component
+     * @return the estimated bytes retained by the component
+     */
+    public long getBytes(@NotNull Component component) {
+        return bytes.get(component);
+    }
+
+    /**
+     * @return the estimated bytes retained by the model
+     */
+    public long getTotalBytes() {
+        return bytes.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @return the component retaining the most bytes
+     */
+    @NotNull
+    public Component getLargestComponent() {
+        return bytes.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(Component.NODES);
+    }
+
+    /**
+     * Records the counts and estimated bytes in the {@link RunMetrics}
+     */
+    public void publish() {
+        RunMetrics.record("adcl.model.nodes", getNodeCount());
+        RunMetrics.record("adcl.model.edges", getEdgeCount());
+        RunMetrics.record("adcl.model.version.markers", versionMarkers);
+        RunMetrics.record("adcl.model.index.entries", indexEntries);
+        for (Component component : Component.values()) RunMetrics.record("adcl.model.bytes." + component.getKey(), getBytes(component));
+    }
+
+    /**
+     * @param bytes a size in bytes
+     * @return the size in mebibytes
+     */
+    @NotNull
+    static String format(long bytes) {
+        return String.format(Locale.ROOT, "%.1f MiB", bytes / (double) (1 << 20));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return getNodeCount() + " nodes " + nodes + ", " + getEdgeCount() + " edges " + edges + ", " + versionMarkers + " version markers, "
+                + indexEntries + " class index entries; estimated " + format(getTotalBytes()) + " "
+                + bytes.entrySet().stream().map(e -> e.getKey() + " " + format(e.getValue())).collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    /**
+     * The parts of the model the retained bytes are estimated for
+     */
+    public enum Component {
+        /**
+         * The nodes with their child, dependent and subtree change sets
+         */
+        NODES,
+        /**
+         * The edges, including the parent relations
+         */
+        EDGES,
+        /**
+         * The existence markers of the edges and the version instances they refer to
+         */
+        VERSION_MAPS,
+        /**
+         * The class indices of the projects, mapping class names to projects during the analysis
+         */
+        CLASS_INDEX,
+        /**
+         * The names and materialized paths of the nodes
+         */
+        NAMES;
+
+        /**
+         * @return the key of the component in metric names
+         */
+        @NotNull
+        public String getKey() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '.');
+        }
+    }
+}
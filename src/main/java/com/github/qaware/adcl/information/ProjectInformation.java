@@ -34,9 +34,10 @@ public class ProjectInformation extends Information<RootInformation> {
     @Relationship(type = "PomDependency")
     final Set<PomDependencyInformation> pomDependencies = new HashSet<>();
 
+    // not final, released on compaction
     @Transient
     @Properties
-    private final Map<String, String> externalIndices = new HashMap<>();
+    private Map<String, String> externalIndices = new HashMap<>();
 
     @SuppressWarnings("unused")
     private ProjectInformation() {
@@ -160,6 +161,34 @@ public class ProjectInformation extends Information<RootInformation> {
         }
     }
 
+    /**
+     * Replaces the indices by the classes of the project only, e.g. read from an archive. Classes of dependencies are not indexed
+     *
+     * @param classNames the full names of the classes of the project
+     */
+    public void updateIndices(@NotNull Collection<String> classNames) {
+        externalIndices.clear();
+        classNames.forEach(c -> externalIndices.put(c, getName()));
+    }
+
+    /**
+     * @return the class index of the last analysis
+     * @see ModelStatistics
+     */
+    @NotNull
+    Map<String, String> getIndices() {
+        return externalIndices;
+    }
+
+    /**
+     * Drops the class index, which is only needed while analysing and rebuilt by the next analysis
+     *
+     * @see MemoryBudget#compact(RootInformation)
+     */
+    void releaseIndices() {
+        externalIndices = new HashMap<>();
+    }
+
     // Overrides
 
     @Override
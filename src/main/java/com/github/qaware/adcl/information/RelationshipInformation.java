@@ -16,6 +16,7 @@ import org.neo4j.ogm.annotation.RelationshipEntity;
 import org.neo4j.ogm.annotation.StartNode;
 import org.neo4j.ogm.annotation.Transient;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -38,17 +39,15 @@ public abstract class RelationshipInformation<T extends Information<?>> implemen
     @NotNull
     private final T to;
 
+    // not final, replaced by right-sized copies on compaction
     @Properties(prefix = "versionInfo")
-    private final Map<String, Object> versionInfoInternal = new HashMap<>();
+    private Map<String, Object> versionInfoInternal = new HashMap<>();
 
     @Transient
-    private final Map<VersionInformation, Boolean> versionInfoBacking = new HashMap<>();
+    private Map<VersionInformation, Boolean> versionInfoBacking = new HashMap<>();
 
     @Transient
-    private final MapWithListeners<VersionInformation, Boolean> versionInfo = new MapWithListeners<>(versionInfoBacking,
-            (k, v) -> versionInfoInternal.put(k.getName(), v),
-            (k, v) -> versionInfoInternal.remove(k.getName())
-    );
+    private MapWithListeners<VersionInformation, Boolean> versionInfo = createVersionInfo();
 
     @Id
     @GeneratedValue
@@ -82,6 +81,47 @@ public abstract class RelationshipInformation<T extends Information<?>> implemen
         new MapTool<>(Utils.resolveNestedMaps(Boolean.class, null, versionInfoInternal)).mapKeys(n -> new VersionInformation(n, getFrom().getProject())).overrideTo(versionInfoBacking);
     }
 
+    /**
+     * @return the existence markers, mirrored to the persisted {@link RelationshipInformation#versionInfoInternal}
+     */
+    @NotNull
+    private MapWithListeners<VersionInformation, Boolean> createVersionInfo() {
+        return new MapWithListeners<>(versionInfoBacking,
+                (k, v) -> {
+                    versionInfoInternal.put(k.getName(), v);
+                    getFrom().registerSubtreeChange(k);
+                },
+                (k, v) -> {
+                    versionInfoInternal.remove(k.getName());
+                    getFrom().unregisterSubtreeChange(k);
+                }
+        );
+    }
+
+    /**
+     * Replaces the version maps by right-sized copies keyed by the versions of the project, instead of the per edge copies created when loading
+     *
+     * @param canonical the versions of all projects, mapped to themselves
+     * @return the number of replaced version copies
+     * @see MemoryBudget#compact(RootInformation)
+     */
+    int compactVersionMarkers(@NotNull Map<VersionInformation, VersionInformation> canonical) {
+        int capacity = (int) (versionInfoBacking.size() / 0.75f) + 1;
+        Map<VersionInformation, Boolean> backing = new HashMap<>(capacity);
+        Map<String, Object> internal = new HashMap<>(capacity);
+        int replaced = 0;
+        for (Map.Entry<VersionInformation, Boolean> marker : versionInfoBacking.entrySet()) {
+            VersionInformation version = canonical.getOrDefault(marker.getKey(), marker.getKey());
+            if (version != marker.getKey()) replaced++;
+            backing.put(version, marker.getValue());
+            internal.put(version.getName(), marker.getValue());
+        }
+        versionInfoBacking = backing;
+        versionInfoInternal = internal;
+        versionInfo = createVersionInfo();
+        return replaced;
+    }
+
     /**
      * @return the edge start
      * @see RelationshipInformation#getTo()
@@ -118,6 +158,26 @@ public abstract class RelationshipInformation<T extends Information<?>> implemen
         return getTo();
     }
 
+    /**
+     * @return the existence markers set on this relation. An existence at a version is determined by the latest marker in the path to root
+     * @see RelationshipInformation#exists(VersionInformation)
+     */
+    @NotNull
+    public final Map<VersionInformation, Boolean> getVersionMarkers() {
+        return Collections.unmodifiableMap(versionInfoBacking);
+    }
+
+    /**
+     * @param a a version
+     * @param b another version of the same project
+     * @return whether an own existence marker lies between both versions, excluding the earlier one
+     */
+    public final boolean hasChangesBetween(@NotNull VersionInformation a, @NotNull VersionInformation b) {
+        VersionInformation low = a.isBefore(b) ? a : b;
+        VersionInformation high = low == a ? b : a;
+        return versionInfoBacking.keySet().stream().anyMatch(v -> v.isAfter(low) && !v.isAfter(high));
+    }
+
     /**
      * @param version the version to check
      * @return whether the relation exists at given version
@@ -0,0 +1,171 @@
+package com.github.qaware.adcl.report;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.qaware.adcl.report.BinaryDiffWriter.*;
+
+/**
+ * Streams a diff written by {@link BinaryDiffWriter}. Records are passed to a {@link Handler} one by one, so memory usage only depends on the number of distinct strings.
+ * Strings are shared between records, so handlers may compare paths and names cheaply.
+ */
+public class BinaryDiffReader implements Closeable {
+    @NotNull
+    private final InputStream in;
+    @NotNull
+    private final String projectName;
+    @NotNull
+    private final String projectVersion;
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * Creates a reader and reads the header
+     *
+     * @param in the stream to read from. Gets closed with this reader
+     * @throws IOException on read failure or if the stream does not contain a binary ADCL diff
+     */
+    public BinaryDiffReader(@NotNull InputStream in) throws IOException {
+        this.in = new BufferedInputStream(in);
+        byte[] magic = new byte[MAGIC.length];
+        for (int i = 0; i < magic.length; i++) magic[i] = (byte) readByte();
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a binary ADCL diff");
+        int version = readByte();
+        if (version != FORMAT_VERSION) throw new IOException("Unsupported binary ADCL diff version " + version);
+        projectName = readRawString();
+        projectVersion = readRawString();
+    }
+
+    @NotNull
+    public String getProjectName() {
+        return projectName;
+    }
+
+    @NotNull
+    public String getProjectVersion() {
+        return projectVersion;
+    }
+
+    /**
+     * Reads all remaining records
+     *
+     * @param handler the handler to pass the records to
+     * @throws IOException on read failure or malformed input
+     */
+    public void read(@NotNull Handler handler) throws IOException {
+        while (true) {
+            int tag = readByte();
+            switch (tag) {
+                case TAG_END:
+                    return;
+                case TAG_STRING:
+                    strings.add(readRawString());
+                    break;
+                case TAG_DEPENDENCY:
+                    handler.dependency(readDependency());
+                    break;
+                case TAG_POM_DEPENDENCY:
+                    handler.pomDependency(readPomDependency());
+                    break;
+                default:
+                    throw new IOException("Invalid record tag " + tag);
+            }
+        }
+    }
+
+    /**
+     * @return the dependency record
+     * @throws IOException on read failure or malformed input
+     */
+    @NotNull
+    private DiffExtractor.DependencyEntry readDependency() throws IOException {
+        int flags = readVarInt();
+        DiffExtractor.DependencyEntry result = new DiffExtractor.DependencyEntry(
+                (flags & FLAG_SYNTHETIC_START) != 0, typeOf(flags >>> START_TYPE_SHIFT & TYPE_MASK), string(), string(),
+                (flags & FLAG_SYNTHETIC_END) != 0, typeOf(flags >>> END_TYPE_SHIFT & TYPE_MASK), string(), string()
+        );
+        result.change = (flags & FLAG_CHANGE) != 0;
+        return result;
+    }
+
+    /**
+     * @return the pom dependency record
+     * @throws IOException on read failure or malformed input
+     */
+    @NotNull
+    private DiffExtractor.PomDependencyEntry readPomDependency() throws IOException {
+        int flags = readVarInt();
+        String toProject = string();
+        DiffExtractor.PomDependencyEntry result = new DiffExtractor.PomDependencyEntry((flags & FLAG_HAS_NEW_VERSION) != 0 ? string() : null, toProject);
+        return (flags & FLAG_UPDATED) != 0 ? result.flagUpdated() : result;
+    }
+
+    /**
+     * @return the string referenced by the next id
+     * @throws IOException on read failure or unknown id
+     */
+    @NotNull
+    private String string() throws IOException {
+        int id = readVarInt();
+        if (id >= strings.size()) throw new IOException("Undefined string " + id);
+        return strings.get(id);
+    }
+
+    @NotNull
+    private String readRawString() throws IOException {
+        byte[] bytes = new byte[readVarInt()];
+        int read = 0;
+        while (read < bytes.length) {
+            int count = in.read(bytes, read, bytes.length - read);
+            if (count < 0) throw new EOFException();
+            read += count;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readVarInt() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private int readByte() throws IOException {
+        int result = in.read();
+        if (result < 0) throw new EOFException();
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Receives the records of a binary diff in file order
+     */
+    public interface Handler {
+        /**
+         * @param entry a dependency change
+         */
+        default void dependency(@NotNull DiffExtractor.DependencyEntry entry) {
+        }
+
+        /**
+         * @param entry a pom dependency change
+         */
+        default void pomDependency(@NotNull DiffExtractor.PomDependencyEntry entry) {
+        }
+    }
+}
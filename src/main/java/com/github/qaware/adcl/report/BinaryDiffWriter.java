@@ -0,0 +1,164 @@
+package com.github.qaware.adcl.report;
+
+import com.github.qaware.adcl.information.Information;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes a diff in the compact binary ADCL diff format, meant for machine consumption (e.g. CI gates).
+ * <br>Format: the magic bytes {@code ADCL} and a format version byte, followed by the project name and version (length prefixed UTF-8) and a stream of tagged records:
+ * <ul>
+ * <li>{@link #TAG_STRING}: length prefixed UTF-8 string, appended to the string table. Strings are defined right before their first use</li>
+ * <li>{@link #TAG_DEPENDENCY}: flags (change, syntheticStart, syntheticEnd, start type and end type) followed by the string ids of start path, start name, end path and end name</li>
+ * <li>{@link #TAG_POM_DEPENDENCY}: flags (updated, has new version) followed by the string ids of the project and, if present, the new version</li>
+ * <li>{@link #TAG_END}: end of the diff</li>
+ * </ul>
+ * All numbers are unsigned LEB128 varints.
+ *
+ * @see BinaryDiffReader
+ */
+public class BinaryDiffWriter implements Closeable {
+    static final byte[] MAGIC = {'A', 'D', 'C', 'L'};
+    static final int FORMAT_VERSION = 1;
+
+    static final int TAG_END = 0;
+    static final int TAG_STRING = 1;
+    static final int TAG_DEPENDENCY = 2;
+    static final int TAG_POM_DEPENDENCY = 3;
+
+    static final int FLAG_CHANGE = 1;
+    static final int FLAG_SYNTHETIC_START = 1 << 1;
+    static final int FLAG_SYNTHETIC_END = 1 << 2;
+    static final int START_TYPE_SHIFT = 3;
+    static final int END_TYPE_SHIFT = 6;
+    static final int TYPE_MASK = 0b111;
+
+    static final int FLAG_UPDATED = 1;
+    static final int FLAG_HAS_NEW_VERSION = 1 << 1;
+
+    @NotNull
+    private final OutputStream out;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private boolean closed;
+
+    /**
+     * Creates a writer and writes the header
+     *
+     * @param out            the stream to write to. Gets closed with this writer
+     * @param projectName    the name of the project
+     * @param projectVersion the name of the end version of the diff
+     * @throws IOException on write failure
+     */
+    public BinaryDiffWriter(@NotNull OutputStream out, @NotNull String projectName, @NotNull String projectVersion) throws IOException {
+        this.out = new BufferedOutputStream(out);
+        this.out.write(MAGIC);
+        this.out.write(FORMAT_VERSION);
+        writeRawString(projectName);
+        writeRawString(projectVersion);
+    }
+
+    /**
+     * @param entry the dependency change to write
+     * @throws IOException on write failure
+     */
+    public void writeDependency(@NotNull DiffExtractor.DependencyEntry entry) throws IOException {
+        int startPath = stringId(entry.startPath);
+        int startName = stringId(entry.startName);
+        int endPath = stringId(entry.endPath);
+        int endName = stringId(entry.endName);
+        out.write(TAG_DEPENDENCY);
+        writeVarInt((entry.change ? FLAG_CHANGE : 0)
+                | (entry.syntheticStart ? FLAG_SYNTHETIC_START : 0)
+                | (entry.syntheticEnd ? FLAG_SYNTHETIC_END : 0)
+                | entry.startType.ordinal() << START_TYPE_SHIFT
+                | entry.endType.ordinal() << END_TYPE_SHIFT);
+        writeVarInt(startPath);
+        writeVarInt(startName);
+        writeVarInt(endPath);
+        writeVarInt(endName);
+    }
+
+    /**
+     * @param entry the pom dependency change to write
+     * @throws IOException on write failure
+     */
+    public void writePomDependency(@NotNull DiffExtractor.PomDependencyEntry entry) throws IOException {
+        int toProject = stringId(entry.toProject);
+        int newVersion = entry.newVersion == null ? -1 : stringId(entry.newVersion);
+        out.write(TAG_POM_DEPENDENCY);
+        writeVarInt((entry.updated ? FLAG_UPDATED : 0) | (newVersion < 0 ? 0 : FLAG_HAS_NEW_VERSION));
+        writeVarInt(toProject);
+        if (newVersion >= 0) writeVarInt(newVersion);
+    }
+
+    /**
+     * Writes the end marker and closes the underlying stream
+     *
+     * @throws IOException on write failure
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            out.write(TAG_END);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @param value the string
+     * @return the id of the string in the string table. Defines the string if not yet present
+     * @throws IOException on write failure
+     */
+    private int stringId(@NotNull String value) throws IOException {
+        Integer id = strings.get(value);
+        if (id != null) return id;
+        out.write(TAG_STRING);
+        writeRawString(value);
+        strings.put(value, strings.size());
+        return strings.size() - 1;
+    }
+
+    /**
+     * @param value the string to write length prefixed
+     * @throws IOException on write failure
+     */
+    private void writeRawString(@NotNull String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * @param value the non negative value to write as unsigned LEB128
+     * @throws IOException on write failure
+     */
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * @param ordinal the ordinal of a type
+     * @return the type
+     * @throws IOException if the ordinal is invalid
+     */
+    @NotNull
+    static Information.Type typeOf(int ordinal) throws IOException {
+        Information.Type[] types = Information.Type.values();
+        if (ordinal >= types.length) throw new IOException("Invalid information type " + ordinal);
+        return types[ordinal];
+    }
+}
@@ -0,0 +1,138 @@
+package com.github.qaware.adcl.report;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serves diffs from a {@link DiffCache}, computing them with another generator and storing them on a cache miss
+ */
+public class CachingDiffGenerator implements DiffGenerator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingDiffGenerator.class);
+
+    @NotNull
+    private final DiffGenerator delegate;
+    @NotNull
+    private final DiffCache cache;
+    @NotNull
+    private final String from;
+    @NotNull
+    private final String to;
+    private final Map<Integer, DiffCache.Entry> loaded = new HashMap<>();
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param delegate the generator computing the diff on a cache miss
+     * @param cache    the cache
+     * @param from     the name of the start version of the delegate
+     * @param to       the name of the end version of the delegate
+     */
+    public CachingDiffGenerator(@NotNull DiffGenerator delegate, @NotNull DiffCache cache, @NotNull String from, @NotNull String to) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.from = from;
+        this.to = to;
+        this.objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public Set<DiffExtractor.DependencyEntry> generateDependencyDiff(boolean aggregateDepStart, boolean aggregateDepEnd) {
+        return entry(aggregateDepStart, aggregateDepEnd).getDependencies();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void streamDependencyDiff(boolean aggregateDepStart, boolean aggregateDepEnd, @NotNull EntryAction action) throws IOException {
+        entry(aggregateDepStart, aggregateDepEnd).streamDependencies(action);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Taken from any diff already loaded, as the pom diff does not depend on the aggregation flags
+     */
+    @NotNull
+    @Override
+    public Set<DiffExtractor.PomDependencyEntry> generatePomDiff() {
+        return loaded.isEmpty() ? delegate.generatePomDiff() : loaded.values().iterator().next().getPomDependencies();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public DiffExtractor.Diff generateDiff(boolean aggregateDepStart, boolean aggregateDepEnd) throws JsonProcessingException {
+        return new DiffExtractor.Diff(objectMapper.writeValueAsString(generateDependencyDiff(aggregateDepStart, aggregateDepEnd)),
+                objectMapper.writeValueAsString(generatePomDiff()), getProjectName(), getProjectVersion());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeDependencyDiff(@NotNull JsonGenerator generator, boolean aggregateDepStart, boolean aggregateDepEnd) throws IOException {
+        generator.writeStartArray();
+        streamDependencyDiff(aggregateDepStart, aggregateDepEnd, generator::writeObject);
+        generator.writeEndArray();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writePomDiff(@NotNull JsonGenerator generator) throws IOException {
+        generator.writeStartArray();
+        for (DiffExtractor.PomDependencyEntry entry : generatePomDiff()) generator.writeObject(entry);
+        generator.writeEndArray();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String getProjectName() {
+        return delegate.getProjectName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String getProjectVersion() {
+        return delegate.getProjectVersion();
+    }
+
+    /**
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     * @return the diff for the flags, from memory, the cache or computed by the delegate
+     */
+    @NotNull
+    private DiffCache.Entry entry(boolean aggregateDepStart, boolean aggregateDepEnd) {
+        return loaded.computeIfAbsent((aggregateDepStart ? 2 : 0) | (aggregateDepEnd ? 1 : 0), k -> {
+            DiffCache.Entry cached = cache.get(getProjectName(), from, to, aggregateDepStart, aggregateDepEnd);
+            if (cached != null) {
+                LOGGER.info("Using cached diff of {} {}..{}", getProjectName(), from, to);
+                return cached;
+            }
+            return cache.put(getProjectName(), from, to, aggregateDepStart, aggregateDepEnd, delegate);
+        });
+    }
+}
@@ -0,0 +1,416 @@
+package com.github.qaware.adcl.report;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.qaware.adcl.information.ClassInformation;
+import com.github.qaware.adcl.information.Information;
+import com.github.qaware.adcl.information.MethodInformation;
+import com.github.qaware.adcl.information.PackageInformation;
+import com.github.qaware.adcl.information.ProjectInformation;
+import com.github.qaware.adcl.information.RelationshipInformation;
+import com.github.qaware.adcl.information.VersionInformation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks the dependency cycles between the packages or classes of a project while moving from version to version.
+ * <br>The cycles of the first version are found by a full pass of Tarjan's algorithm. Moving to another version only looks at the dependencies
+ * changed in between (pruned by {@link Information#hasSubtreeChangesBetween(VersionInformation, VersionInformation)}) and updates the cycles locally:
+ * a removed dependency inside a cycle re-runs Tarjan on the members of that cycle only, an added dependency from a to b merges
+ * everything reachable from b and reaching a, if there is such a path.
+ * <br>At class level inner classes belong to their outermost class, as cycles between a class and its inner classes are the normal case.
+ * At package level dependencies from classes of the default package are ignored.
+ * <br>{@link #diff(VersionInformation, VersionInformation)} keeps its trackers, so the next diff starting at the version the last one ended at
+ * (e.g. the next run of a daemon) only updates the cycles instead of running Tarjan's algorithm on the whole project again.
+ */
+public class CycleTracker {
+    // the trackers of the last diff, by level
+    private static final Map<Level, CycleTracker> LAST_TRACKERS = new EnumMap<>(Level.class);
+
+    @NotNull
+    private final ProjectInformation project;
+    @NotNull
+    private final Level level;
+    @NotNull
+    private VersionInformation version;
+    // dependencies between units, with the number of underlying relations
+    private final Map<Information<?>, Map<Information<?>, Integer>> dependencies = new HashMap<>();
+    private final Map<Information<?>, Set<Information<?>>> dependents = new HashMap<>();
+    // the cycle of each unit being part of one, shared by all its members
+    private final Map<Information<?>, Set<Information<?>>> cycles = new HashMap<>();
+    private final Map<Information<?>, Information<?>> outermostClasses = new HashMap<>();
+
+    /**
+     * Finds all cycles at the version
+     *
+     * @param project the project
+     * @param at      the version
+     * @param level   whether to track cycles between packages or classes
+     */
+    public CycleTracker(@NotNull ProjectInformation project, @NotNull VersionInformation at, @NotNull Level level) {
+        this.project = project;
+        this.level = level;
+        this.version = at;
+        addExisting(project, at);
+        findCycles(new ArrayList<>(dependencies.keySet()));
+    }
+
+    /**
+     * Finds the cycles introduced and resolved between two versions, at package and at class level.
+     * Advances the trackers of the last diff if they are at the start version of the same project instance, creates new ones otherwise
+     *
+     * @param from the start version
+     * @param to   the end version
+     * @return the changed cycles, package cycles first
+     * @implNote Reusing the trackers relies on the existence at analysed versions not changing, which holds as only new versions get analysed.
+     * Discarded models are recognised by identity
+     */
+    @NotNull
+    public static synchronized List<CycleEntry> diff(@NotNull VersionInformation from, @NotNull VersionInformation to) {
+        ProjectInformation project = to.getProject();
+        List<CycleEntry> result = new ArrayList<>();
+        for (Level level : Level.values()) {
+            CycleTracker tracker = LAST_TRACKERS.get(level);
+            if (tracker == null || tracker.project != project || tracker.version != from) tracker = new CycleTracker(project, from, level);
+            // not reusable if advancing fails halfway
+            LAST_TRACKERS.remove(level);
+            result.addAll(tracker.advance(to));
+            LAST_TRACKERS.put(level, tracker);
+        }
+        return result;
+    }
+
+    /**
+     * Drops the trackers kept by {@link #diff(VersionInformation, VersionInformation)}, e.g. after the model was discarded
+     */
+    public static synchronized void clearCache() {
+        LAST_TRACKERS.clear();
+    }
+
+    /**
+     * @param level a level
+     * @return the tracker kept by the last diff for the level, null if none
+     */
+    @Nullable
+    static synchronized CycleTracker lastTracker(@NotNull Level level) {
+        return LAST_TRACKERS.get(level);
+    }
+
+    /**
+     * @return the level of the tracked cycles
+     */
+    @NotNull
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * @return the current version
+     */
+    @NotNull
+    public VersionInformation getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the members of all cycles at the current version
+     */
+    @NotNull
+    public Set<Set<Information<?>>> getCycles() {
+        Set<Set<Information<?>>> result = new HashSet<>();
+        cycles.values().forEach(c -> result.add(Collections.unmodifiableSet(c)));
+        return result;
+    }
+
+    /**
+     * Moves to another version, updating the cycles from the dependencies changed in between
+     *
+     * @param to the version to move to
+     * @return the cycles introduced and resolved, sorted by change and paths
+     */
+    @NotNull
+    public List<CycleEntry> advance(@NotNull VersionInformation to) {
+        Set<Set<Information<?>>> before = getCycles();
+
+        // the existence of the unit dependencies before the change, for all touched ones
+        Map<List<Information<?>>, Boolean> touched = new LinkedHashMap<>();
+        collectChanges(project, version, to, false, touched);
+        version = to;
+
+        Set<Set<Information<?>>> split = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<List<Information<?>>> added = new ArrayList<>();
+        touched.forEach((edge, existed) -> {
+            boolean exists = dependencies.getOrDefault(edge.get(0), Collections.emptyMap()).containsKey(edge.get(1));
+            if (existed && !exists) {
+                Set<Information<?>> cycle = cycles.get(edge.get(0));
+                if (cycle != null && cycle == cycles.get(edge.get(1))) split.add(cycle);
+            } else if (!existed && exists) {
+                added.add(edge);
+            }
+        });
+        for (Set<Information<?>> cycle : split) {
+            cycle.forEach(cycles::remove);
+            findCycles(cycle);
+        }
+        for (List<Information<?>> edge : added) merge(edge.get(0), edge.get(1));
+
+        Set<Set<Information<?>>> after = getCycles();
+        List<CycleEntry> result = new ArrayList<>();
+        after.stream().filter(c -> !before.contains(c)).forEach(c -> result.add(new CycleEntry(level, true, c)));
+        before.stream().filter(c -> !after.contains(c)).forEach(c -> result.add(new CycleEntry(level, false, c)));
+        result.sort(Comparator.comparing((CycleEntry e) -> !e.change).thenComparing(e -> String.join(",", e.members)));
+        return result;
+    }
+
+    /**
+     * Adds the unit dependencies of all relations existing at the version
+     *
+     * @param node the root of the subtree to add
+     * @param at   the version
+     */
+    private void addExisting(@NotNull Information<?> node, @NotNull VersionInformation at) {
+        node.getDependencyRelations().filter(r -> r.exists(at)).forEach(r -> count(r, 1, null));
+        for (Information<?> child : node.getDirectChildren(at)) addExisting(child, at);
+    }
+
+    /**
+     * Applies the relations whose existence differs between both versions to the unit dependencies
+     *
+     * @param node        the root of the subtree to check
+     * @param from        the current version
+     * @param to          the version to move to
+     * @param pathChanged whether the existence of a parent node changed in between, so all relations of the subtree have to be checked
+     * @param touched     the touched unit dependencies with their existence before
+     */
+    private void collectChanges(@NotNull Information<?> node, @NotNull VersionInformation from, @NotNull VersionInformation to, boolean pathChanged,
+                                @NotNull Map<List<Information<?>>, Boolean> touched) {
+        if (!pathChanged && !node.hasSubtreeChangesBetween(from, to)) return;
+        boolean changed = pathChanged || (node.getParentRelation() != null && node.getParentRelation().hasChangesBetween(from, to));
+        Iterator<RelationshipInformation<?>> relations = node.getDependencyRelations().iterator();
+        while (relations.hasNext()) {
+            RelationshipInformation<?> relation = relations.next();
+            if (!changed && !relation.hasChangesBetween(from, to)) continue;
+            boolean existed = relation.exists(from);
+            if (existed != relation.exists(to)) count(relation, existed ? -1 : 1, touched);
+        }
+        for (Information<?> child : node.getDirectChildren(null)) collectChanges(child, from, to, changed, touched);
+    }
+
+    /**
+     * @param relation a dependency relation
+     * @param delta    the change of the number of relations underlying the unit dependency
+     * @param touched  the touched unit dependencies with their existence before, or null if not needed
+     */
+    private void count(@NotNull RelationshipInformation<?> relation, int delta, @Nullable Map<List<Information<?>>, Boolean> touched) {
+        Information<?> from = unitOf(relation.getFrom());
+        Information<?> to = unitOf(relation.getTo());
+        if (from == null || to == null || from.equals(to)) return;
+        Map<Information<?>, Integer> targets = dependencies.computeIfAbsent(from, k -> new HashMap<>());
+        if (touched != null) touched.putIfAbsent(Arrays.asList(from, to), targets.containsKey(to));
+        int count = targets.getOrDefault(to, 0) + delta;
+        if (count > 0) {
+            targets.put(to, count);
+            dependents.computeIfAbsent(to, k -> new HashSet<>()).add(from);
+            return;
+        }
+        targets.remove(to);
+        if (targets.isEmpty()) dependencies.remove(from);
+        Set<Information<?>> sources = dependents.get(to);
+        if (sources != null && sources.remove(from) && sources.isEmpty()) dependents.remove(to);
+    }
+
+    /**
+     * @param node a node
+     * @return the package or outermost class the node belongs to, null if not tracked
+     */
+    @Nullable
+    private Information<?> unitOf(@NotNull Information<?> node) {
+        if (!node.getType().isSub(Information.Type.PROJECT) || node.getProject() != project) return null;
+        if (level == Level.PACKAGE) {
+            Information<?> current = node;
+            while (current.getType().isSub(Information.Type.PACKAGE)) current = current.getParent();
+            return current instanceof PackageInformation ? current : null;
+        }
+        if (node instanceof MethodInformation) return unitOf(node.getParent());
+        if (!(node instanceof ClassInformation)) return null;
+        return outermostClasses.computeIfAbsent(node, n -> {
+            int inner = n.getName().indexOf('$');
+            Information<?> outer = inner <= 0 ? null : n.getParent().find(n.getName().substring(0, inner), null);
+            return outer instanceof ClassInformation ? outer : n;
+        });
+    }
+
+    /**
+     * Runs Tarjan's algorithm on the subgraph induced by the nodes and registers all found cycles
+     *
+     * @param nodes the nodes
+     */
+    private void findCycles(@NotNull Collection<Information<?>> nodes) {
+        Set<Information<?>> allowed = new HashSet<>(nodes);
+        Map<Information<?>, Integer> index = new HashMap<>();
+        Map<Information<?>, Integer> low = new HashMap<>();
+        Deque<Information<?>> stack = new ArrayDeque<>();
+        Set<Information<?>> onStack = new HashSet<>();
+        Deque<Information<?>> calls = new ArrayDeque<>();
+        Map<Information<?>, Iterator<Information<?>>> edges = new HashMap<>();
+        for (Information<?> root : nodes) {
+            if (index.containsKey(root)) continue;
+            visit(root, index, low, stack, onStack, calls, edges);
+            while (!calls.isEmpty()) {
+                Information<?> node = calls.peek();
+                Iterator<Information<?>> targets = edges.get(node);
+                if (targets.hasNext()) {
+                    Information<?> target = targets.next();
+                    if (!allowed.contains(target)) continue;
+                    if (!index.containsKey(target)) {
+                        visit(target, index, low, stack, onStack, calls, edges);
+                    } else if (onStack.contains(target)) {
+                        low.put(node, Math.min(low.get(node), index.get(target)));
+                    }
+                    continue;
+                }
+                calls.pop();
+                edges.remove(node);
+                if (!calls.isEmpty()) low.put(calls.peek(), Math.min(low.get(calls.peek()), low.get(node)));
+                if (!low.get(node).equals(index.get(node))) continue;
+                Set<Information<?>> component = new HashSet<>();
+                Information<?> member;
+                do {
+                    member = stack.pop();
+                    onStack.remove(member);
+                    component.add(member);
+                } while (member != node);
+                if (component.size() > 1) register(component);
+            }
+        }
+    }
+
+    private void visit(@NotNull Information<?> node, @NotNull Map<Information<?>, Integer> index, @NotNull Map<Information<?>, Integer> low,
+                       @NotNull Deque<Information<?>> stack, @NotNull Set<Information<?>> onStack, @NotNull Deque<Information<?>> calls,
+                       @NotNull Map<Information<?>, Iterator<Information<?>>> edges) {
+        index.put(node, index.size());
+        low.put(node, index.get(node));
+        stack.push(node);
+        onStack.add(node);
+        calls.push(node);
+        edges.put(node, dependencies.getOrDefault(node, Collections.emptyMap()).keySet().iterator());
+    }
+
+    /**
+     * Merges all cycles closed by a new dependency
+     *
+     * @param from the depending unit
+     * @param to   the unit depended on
+     */
+    private void merge(@NotNull Information<?> from, @NotNull Information<?> to) {
+        Set<Information<?>> cycle = cycles.get(from);
+        if (cycle != null && cycle == cycles.get(to)) return;
+        Set<Information<?>> reachable = search(to, dependencies.keySet(), n -> dependencies.getOrDefault(n, Collections.emptyMap()).keySet());
+        if (!reachable.contains(from)) return;
+        register(search(from, reachable, n -> dependents.getOrDefault(n, Collections.emptySet())));
+    }
+
+    /**
+     * @param start     the start node
+     * @param allowed   the nodes to restrict the search to, besides the start node
+     * @param neighbors the neighbors of a node
+     * @return all nodes reachable from the start node
+     */
+    @NotNull
+    private static Set<Information<?>> search(@NotNull Information<?> start, @NotNull Set<Information<?>> allowed,
+                                              @NotNull Function<Information<?>, Set<Information<?>>> neighbors) {
+        Set<Information<?>> result = new HashSet<>();
+        Deque<Information<?>> queue = new ArrayDeque<>();
+        result.add(start);
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            for (Information<?> neighbor : neighbors.apply(queue.poll())) {
+                if (allowed.contains(neighbor) && result.add(neighbor)) queue.add(neighbor);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param members the members of a cycle, replacing the cycles they were part of
+     */
+    private void register(@NotNull Set<Information<?>> members) {
+        members.forEach(m -> cycles.put(m, members));
+    }
+
+    /**
+     * The nodes between which cycles are tracked
+     */
+    public enum Level {
+        /**
+         * Packages, containing the dependencies of their classes and methods
+         */
+        PACKAGE,
+        /**
+         * Outermost classes, containing the dependencies of their inner classes and methods
+         */
+        CLASS
+    }
+
+    /**
+     * A cycle introduced or resolved between two versions
+     */
+    public static class CycleEntry {
+        @JsonProperty("level")
+        @NotNull
+        public final Level level;
+        @JsonProperty("changeStatus")
+        public final boolean change;
+        @JsonProperty("members")
+        @NotNull
+        public final List<String> members;
+
+        /**
+         * @param level   the level of the cycle
+         * @param change  true if introduced, false if resolved
+         * @param members the members of the cycle
+         */
+        CycleEntry(@NotNull Level level, boolean change, @NotNull Set<Information<?>> members) {
+            this.level = level;
+            this.change = change;
+            this.members = members.stream().map(Information::getPath).sorted().collect(Collectors.toList());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CycleEntry that = (CycleEntry) o;
+            return change == that.change && level == that.level && members.equals(that.members);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(level, change, members);
+        }
+
+        @Override
+        public String toString() {
+            return level + (change ? " introduced " : " resolved ") + members;
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package com.github.qaware.adcl.report;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.qaware.adcl.information.Information;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.neo4j.ogm.session.Session;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Generates a list of differences between two versions of a project like {@link DiffExtractor}, but computes them inside the database.
+ * The graph is never loaded into memory, only the query results are. The session materializes all rows of a query before they are iterated,
+ * so the memory needed grows with the number of returned dependencies, not with the size of the graph.
+ * Existence of a dependency at a version follows the rules of the data model: the latest version marker on the dependency or on the parent chain of its owner wins, nearer markers win on ties.
+ */
+public class CypherDiffExtractor implements DiffGenerator {
+    /**
+     * Matches every dependency of the project together with the version markers relevant for it (own and from the parent chain of its owner)
+     */
+    private static final String MATCH_DEPENDENCIES = "MATCH chain = (i:Information)-[:Parent*0..]->(:ProjectInformation {name: $project})-[:Parent]->(:RootInformation) " +
+            "MATCH (i)-[r:ProjectDependency|PackageDependency|ClassDependency|MethodDependency]->(d:Information) " +
+            "WITH i, d, chain, [r] + relationships(chain) AS rels " +
+            "WITH i, d, chain, reduce(markers = [], depth IN range(0, size(rels) - 1) | markers + " +
+            "[k IN keys(rels[depth]) WHERE k STARTS WITH 'versionInfo.' | {pos: $versionIndex[substring(k, 12)], depth: depth, value: rels[depth][k]}]) AS markers ";
+
+    /**
+     * Resolves the existence of the matched dependencies at both versions
+     */
+    private static final String RESOLVE_EXISTENCE = "WITH i, d, chain, " +
+            "reduce(best = {pos: -1, depth: 0, value: true}, m IN markers | CASE WHEN m.pos <= $fromIndex AND (m.pos > best.pos OR (m.pos = best.pos AND m.depth < best.depth)) THEN m ELSE best END).value AS existsBefore, " +
+            "reduce(best = {pos: -1, depth: 0, value: true}, m IN markers | CASE WHEN m.pos <= $toIndex AND (m.pos > best.pos OR (m.pos = best.pos AND m.depth < best.depth)) THEN m ELSE best END).value AS existsAfter ";
+
+    /**
+     * Returns all dependencies whose existence differs between both versions. Only dependencies with a marker between both versions can differ
+     */
+    private static final String QUERY_CHANGED = MATCH_DEPENDENCIES +
+            "WHERE any(m IN markers WHERE m.pos > $lowIndex AND m.pos <= $highIndex) " +
+            RESOLVE_EXISTENCE +
+            "WHERE existsBefore <> existsAfter " +
+            "RETURN i.path AS startPath, i.name AS startName, labels(i) AS startLabels, d.path AS endPath, d.name AS endName, labels(d) AS endLabels, existsAfter AS added";
+
+    /**
+     * Returns all dependencies existing in any of both versions, with the parent chains of both of their nodes for aggregation.
+     * Sorted by the path of the owner followed by a dot, so the dependencies of every subtree are consecutive and come after those of its root
+     */
+    private static final String QUERY_EXISTING = MATCH_DEPENDENCIES +
+            RESOLVE_EXISTENCE +
+            "WHERE existsBefore OR existsAfter " +
+            "MATCH target = (d)-[:Parent*0..]->(:ProjectInformation) " +
+            "RETURN [n IN nodes(chain)[0..-1] | {path: n.path, name: n.name, labels: labels(n)}] AS starts, " +
+            "[n IN nodes(target) | {path: n.path, name: n.name, labels: labels(n)}] AS ends, existsBefore, existsAfter, i.path + '.' AS subtreeKey " +
+            "ORDER BY subtreeKey";
+
+    /**
+     * Returns the remote version markers of all pom dependencies of the project
+     */
+    private static final String QUERY_POM = "MATCH (:ProjectInformation {name: $project})-[pd:PomDependency]->(t:ProjectInformation) " +
+            "RETURN t.name AS toProject, properties(pd) AS remoteVersions";
+
+    private static final String VERSION_INFO_PREFIX = "versionInfo.";
+    private static final String REMOTE_VERSIONS_PREFIX = "remoteVersions.";
+
+    @NotNull
+    private final Session session;
+    @NotNull
+    private final String projectName;
+    @NotNull
+    private final List<String> versions;
+    private final int fromIndex;
+    private final int toIndex;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Creates a new diff extractor. Does not take version order into consideration
+     *
+     * @param session     the session to query on
+     * @param projectName the project whose versions should be compared
+     * @param versions    the version history of the project, as stored in the project node
+     * @param from        the name of the start version to create a diff
+     * @param to          the name of the end version to create a diff
+     * @throws IllegalArgumentException if one of the versions is not part of the version history
+     */
+    public CypherDiffExtractor(@NotNull Session session, @NotNull String projectName, @NotNull List<String> versions, @NotNull String from, @NotNull String to) {
+        this.session = session;
+        this.projectName = projectName;
+        this.versions = versions;
+        this.fromIndex = versions.indexOf(from);
+        this.toIndex = versions.indexOf(to);
+        if (fromIndex < 0) throw new IllegalArgumentException("Version " + from + " does not exist in project " + projectName);
+        if (toIndex < 0) throw new IllegalArgumentException("Version " + to + " does not exist in project " + projectName);
+        this.objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * @param labels the labels of a node as returned by a query
+     * @return the information type represented by the labels
+     */
+    @NotNull
+    private static Information.Type typeOf(@Nullable Object labels) {
+        Collection<?> labelList = labels instanceof Object[] ? Arrays.asList((Object[]) labels) : (Collection<?>) labels;
+        if (labelList != null) {
+            for (Information.Type type : new Information.Type[]{Information.Type.METHOD, Information.Type.CLASS, Information.Type.PACKAGE, Information.Type.PROJECT}) {
+                String suffix = type.name().charAt(0) + type.name().substring(1).toLowerCase() + "Information";
+                if (labelList.stream().anyMatch(l -> String.valueOf(l).endsWith(suffix))) return type;
+            }
+        }
+        throw new IllegalStateException("Could not resolve information type from labels " + labels);
+    }
+
+    /**
+     * @return the query parameters shared by all dependency queries
+     */
+    @NotNull
+    private Map<String, Object> parameters() {
+        Map<String, Object> versionIndex = new HashMap<>();
+        for (int i = 0; i < versions.size(); i++) versionIndex.put(versions.get(i), i);
+        Map<String, Object> result = new HashMap<>();
+        result.put("project", projectName);
+        result.put("versionIndex", versionIndex);
+        result.put("fromIndex", fromIndex);
+        result.put("toIndex", toIndex);
+        result.put("lowIndex", Math.min(fromIndex, toIndex));
+        result.put("highIndex", Math.max(fromIndex, toIndex));
+        return result;
+    }
+
+    /**
+     * Passes all changed (not aggregated) dependencies to given consumer, without collecting them into a set first.
+     * The rows of the query are still materialized by the session
+     *
+     * @param consumer the consumer for the changed dependencies. {@link DiffExtractor.DependencyEntry#change} is true for added dependencies
+     */
+    public void streamChangedDependencies(@NotNull Consumer<DiffExtractor.DependencyEntry> consumer) {
+        session.query(QUERY_CHANGED, parameters()).queryResults().forEach(row -> {
+            DiffExtractor.DependencyEntry entry = new DiffExtractor.DependencyEntry(
+                    false, typeOf(row.get("startLabels")), (String) row.get("startPath"), (String) row.get("startName"),
+                    false, typeOf(row.get("endLabels")), (String) row.get("endPath"), (String) row.get("endName")
+            );
+            entry.change = Boolean.TRUE.equals(row.get("added"));
+            consumer.accept(entry);
+        });
+    }
+
+    /**
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     * @return a set describing the code differences between the specified versions in constructor
+     * @see DiffExtractor#generateDependencyDiff(boolean, boolean)
+     */
+    @NotNull
+    @Override
+    public Set<DiffExtractor.DependencyEntry> generateDependencyDiff(boolean aggregateDepStart, boolean aggregateDepEnd) {
+        Set<DiffExtractor.DependencyEntry> result = new HashSet<>();
+        generateDependencyDiff(aggregateDepStart, aggregateDepEnd, result::add);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void streamDependencyDiff(boolean aggregateDepStart, boolean aggregateDepEnd, @NotNull EntryAction action) throws IOException {
+        try {
+            generateDependencyDiff(aggregateDepStart, aggregateDepEnd, entry -> {
+                try {
+                    action.accept(entry);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Computes the changed dependencies while iterating the query results. Aggregated entries of a start node are passed on
+     * as soon as the results leave its subtree, so the aggregation only holds the start nodes on the parent chain of the current dependency.
+     * The query results themselves are materialized by the session before the iteration
+     *
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     * @param sink              receives each changed dependency once
+     */
+    private void generateDependencyDiff(boolean aggregateDepStart, boolean aggregateDepEnd, @NotNull Consumer<DiffExtractor.DependencyEntry> sink) {
+        if (!aggregateDepStart && !aggregateDepEnd) {
+            streamChangedDependencies(sink);
+            return;
+        }
+
+        // the start nodes of the subtrees the results are in, outermost first
+        Deque<StartState> open = new ArrayDeque<>();
+        session.query(QUERY_EXISTING, parameters()).queryResults().forEach(row -> {
+            List<Node> starts = toNodes(row.get("starts"));
+            List<Node> ends = toNodes(row.get("ends"));
+            boolean existsBefore = Boolean.TRUE.equals(row.get("existsBefore"));
+            boolean existsAfter = Boolean.TRUE.equals(row.get("existsAfter"));
+            Node start = starts.get(0);
+            Node end = ends.get(0);
+            List<Node> chain = aggregateDepStart ? starts : starts.subList(0, 1);
+
+            int common = 0;
+            Iterator<StartState> openStarts = open.iterator();
+            while (common < chain.size() && openStarts.hasNext() && openStarts.next().start.path.equals(chain.get(chain.size() - 1 - common).path)) common++;
+            while (open.size() > common) open.pollLast().finish(sink);
+            for (int i = chain.size() - 1 - common; i >= 0; i--) open.addLast(new StartState(chain.get(i)));
+
+            for (StartState state : open) {
+                for (Node aggEnd : aggregateDepEnd ? ends : ends.subList(0, 1)) {
+                    PairState pair = state.pairs.computeIfAbsent(aggEnd.path, k -> new PairState(state.start, aggEnd));
+                    if (existsBefore) pair.before.add(state.start.path.equals(start.path), aggEnd == end);
+                    if (existsAfter) pair.after.add(state.start.path.equals(start.path), aggEnd == end);
+                }
+            }
+        });
+        while (!open.isEmpty()) open.pollLast().finish(sink);
+    }
+
+    /**
+     * @param raw a list of node maps as returned by {@link CypherDiffExtractor#QUERY_EXISTING}
+     * @return the converted nodes, in chain order (the node itself first)
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    private static List<Node> toNodes(@Nullable Object raw) {
+        Collection<?> list = raw instanceof Object[] ? Arrays.asList((Object[]) raw) : (Collection<?>) raw;
+        List<Node> result = new ArrayList<>();
+        if (list == null) return result;
+        for (Object o : list) {
+            Map<String, Object> map = (Map<String, Object>) o;
+            result.add(new Node(typeOf(map.get("labels")), (String) map.get("path"), (String) map.get("name")));
+        }
+        return result;
+    }
+
+    /**
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     * @return a set describing the code differences between the specified versions in constructor as json string
+     * @throws JsonProcessingException on json generation failure
+     */
+    @NotNull
+    public String generateDependencyDiffAsJson(boolean aggregateDepStart, boolean aggregateDepEnd) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(generateDependencyDiff(aggregateDepStart, aggregateDepEnd));
+    }
+
+    /**
+     * @return a set describing the pom differences between the specified versions in constructor
+     * @see DiffExtractor#generatePomDiff()
+     */
+    @NotNull
+    @Override
+    public Set<DiffExtractor.PomDependencyEntry> generatePomDiff() {
+        Set<DiffExtractor.PomDependencyEntry> result = new HashSet<>();
+        session.query(QUERY_POM, parameters()).queryResults().forEach(row -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> remoteVersions = (Map<String, Object>) row.get("remoteVersions");
+            String before = remoteVersionAt(remoteVersions, fromIndex);
+            String after = remoteVersionAt(remoteVersions, toIndex);
+            if (Objects.equals(before, after)) return;
+            DiffExtractor.PomDependencyEntry entry = new DiffExtractor.PomDependencyEntry(after, (String) row.get("toProject"));
+            result.add(before != null && after != null ? entry.flagUpdated() : entry);
+        });
+        return result;
+    }
+
+    /**
+     * @param remoteVersions the properties of a pom dependency edge
+     * @param index          the index of the version to query
+     * @return the remote version at given version or null if the dependency does not exist there
+     * @see com.github.qaware.adcl.information.PomDependencyInformation#getVersionAt(com.github.qaware.adcl.information.VersionInformation) same logic
+     */
+    @Nullable
+    private String remoteVersionAt(@NotNull Map<String, Object> remoteVersions, int index) {
+        for (int i = index; i >= 0; i--) {
+            Object value = remoteVersions.get(REMOTE_VERSIONS_PREFIX + versions.get(i));
+            if (value != null) return "null".equals(value) ? null : value.toString();
+        }
+        return null;
+    }
+
+    /**
+     * @return a set describing the pom differences between the specified versions in constructor as json string
+     * @throws JsonProcessingException on json generation failure
+     */
+    @NotNull
+    public String generatePomDiffAsJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(generatePomDiff());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public DiffExtractor.Diff generateDiff(boolean aggregateDepStart, boolean aggregateDepEnd) throws JsonProcessingException {
+        return new DiffExtractor.Diff(generateDependencyDiffAsJson(aggregateDepStart, aggregateDepEnd), generatePomDiffAsJson(), projectName, getProjectVersion());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeDependencyDiff(@NotNull JsonGenerator generator, boolean aggregateDepStart, boolean aggregateDepEnd) throws IOException {
+        generator.writeStartArray();
+        streamDependencyDiff(aggregateDepStart, aggregateDepEnd, generator::writeObject);
+        generator.writeEndArray();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writePomDiff(@NotNull JsonGenerator generator) throws IOException {
+        generator.writeStartArray();
+        for (DiffExtractor.PomDependencyEntry entry : generatePomDiff()) generator.writeObject(entry);
+        generator.writeEndArray();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String getProjectName() {
+        return projectName;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String getProjectVersion() {
+        return versions.get(toIndex);
+    }
+
+    /**
+     * A node as returned by the database
+     */
+    private static class Node {
+        private final Information.Type type;
+        private final String path;
+        private final String name;
+
+        private Node(Information.Type type, String path, String name) {
+            this.type = type;
+            this.path = path;
+            this.name = name;
+        }
+    }
+
+    /**
+     * The (aggregated) dependencies of a start node whose subtree is being iterated, by end path
+     */
+    private static class StartState {
+        private final Node start;
+        private final Map<String, PairState> pairs = new HashMap<>();
+
+        private StartState(Node start) {
+            this.start = start;
+        }
+
+        /**
+         * @param sink receives the dependencies of the start node whose existence differs between both versions
+         */
+        private void finish(@NotNull Consumer<DiffExtractor.DependencyEntry> sink) {
+            pairs.values().forEach(state -> {
+                if (state.before.exists == state.after.exists) return;
+                DiffExtractor.DependencyEntry entry = (state.after.exists ? state.after : state.before).toEntry(state.start, state.end);
+                entry.change = state.after.exists;
+                sink.accept(entry);
+            });
+        }
+    }
+
+    /**
+     * Collected state of an (aggregated) dependency in both versions
+     */
+    private static class PairState {
+        private final Node start;
+        private final Node end;
+        private final SideState before = new SideState();
+        private final SideState after = new SideState();
+
+        private PairState(Node start, Node end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Collected state of an (aggregated) dependency in one version.
+     * An aggregated entry is only synthetic if no own dependency supports it, like in {@link DiffExtractor}, which prefers own dependencies over aggregated ones
+     */
+    private static class SideState {
+        private boolean exists;
+        private boolean ownStart;
+        private boolean ownStartRealEnd;
+        private boolean realEnd;
+
+        /**
+         * @param realStart whether the supporting dependency starts at the start node of the entry
+         * @param realEnd   whether the supporting dependency ends at the end node of the entry
+         */
+        private void add(boolean realStart, boolean realEnd) {
+            exists = true;
+            ownStart |= realStart;
+            ownStartRealEnd |= realStart && realEnd;
+            this.realEnd |= realEnd;
+        }
+
+        @NotNull
+        private DiffExtractor.DependencyEntry toEntry(@NotNull Node start, @NotNull Node end) {
+            boolean syntheticEnd = ownStart ? !ownStartRealEnd : !realEnd;
+            return new DiffExtractor.DependencyEntry(!ownStart, start.type, start.path, start.name, syntheticEnd, end.type, end.path, end.name);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.qaware.adcl.report;
+
+import com.github.qaware.adcl.information.Information;
+import com.github.qaware.adcl.information.VersionInformation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Computes the dependency diff of a subtree as fork/join task. Projects and packages fork a task per child, classes are processed sequentially.
+ * Run without forking when not parallel, then children are computed one after another in the calling thread.
+ * <br>As every dependency entry belongs to its start node, the diff of each node can be computed on its own and the changes of a node are passed on right away,
+ * so at no time more than the entries of the nodes in progress are held.
+ * The task result are the ends reachable from the subtree in both versions, which the parent needs for aggregation
+ * <br>Subtrees without any existence marker between both versions are identical in both versions, so they are skipped or only traversed once for aggregation
+ */
+final class DependencyDiffTask extends RecursiveTask<DependencyDiffTask.SubtreeEnds> {
+    @NotNull
+    private final Information<?> info;
+    @Nullable
+    private final VersionInformation from;
+    @Nullable
+    private final VersionInformation to;
+    private final boolean aggregateDepStart;
+    private final boolean aggregateDepEnd;
+    private final boolean parentsChanged;
+    private final boolean parallel;
+    @NotNull
+    private final Consumer<DiffExtractor.DependencyEntry> changes;
+
+    /**
+     * @param info              the root of the subtree
+     * @param from              the start version or null if the node does not exist there
+     * @param to                the end version or null if the node does not exist there
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     * @param parentsChanged    whether the parent relation of a parent node has an existence marker between both versions
+     * @param parallel          whether to fork the tasks of the children, requires running in a fork/join pool
+     * @param changes           receives the changed entries, has to be thread safe if parallel
+     */
+    DependencyDiffTask(@NotNull Information<?> info, @Nullable VersionInformation from, @Nullable VersionInformation to,
+                       boolean aggregateDepStart, boolean aggregateDepEnd, boolean parentsChanged, boolean parallel,
+                       @NotNull Consumer<DiffExtractor.DependencyEntry> changes) {
+        this.info = info;
+        this.from = from;
+        this.to = to;
+        this.aggregateDepStart = aggregateDepStart;
+        this.aggregateDepEnd = aggregateDepEnd;
+        this.parentsChanged = parentsChanged;
+        this.parallel = parallel;
+        this.changes = changes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected SubtreeEnds compute() {
+        if (from != null && to != null && !parentsChanged && !info.hasSubtreeChangesBetween(from, to)) {
+            if (!aggregateDepStart) return new SubtreeEnds(DependencySetBuilder.Ends.NONE, DependencySetBuilder.Ends.NONE);
+            DependencySetBuilder.Ends ends = new DependencySetBuilder(to, true, aggregateDepEnd, null).buildSubtree(info);
+            return new SubtreeEnds(ends, ends);
+        }
+
+        DependencySetBuilder before = from == null ? null : new DependencySetBuilder(from, aggregateDepStart, aggregateDepEnd);
+        DependencySetBuilder after = to == null ? null : new DependencySetBuilder(to, aggregateDepStart, aggregateDepEnd);
+        SubtreeEnds result;
+        if (info.getType().isSuper(Information.Type.CLASS)) {
+            Set<Information<?>> beforeChildren = from == null ? Collections.emptySet() : info.getDirectChildren(from);
+            Set<Information<?>> afterChildren = to == null ? Collections.emptySet() : info.getDirectChildren(to);
+            Map<Information<?>, DependencyDiffTask> tasks = new LinkedHashMap<>();
+            for (Information<?> child : beforeChildren) tasks.put(child, createChildTask(child, beforeChildren, afterChildren));
+            for (Information<?> child : afterChildren) tasks.computeIfAbsent(child, c -> createChildTask(c, beforeChildren, afterChildren));
+            Map<Information<?>, SubtreeEnds> childEnds = new HashMap<>();
+            if (parallel) invokeAll(tasks.values());
+            tasks.forEach((child, task) -> childEnds.put(child, parallel ? task.join() : task.compute()));
+
+            result = new SubtreeEnds(
+                    before == null ? null : before.aggregate(info, collectEnds(beforeChildren, childEnds, true)),
+                    after == null ? null : after.aggregate(info, collectEnds(afterChildren, childEnds, false))
+            );
+        } else {
+            result = new SubtreeEnds(before == null ? null : before.buildSubtree(info), after == null ? null : after.buildSubtree(info));
+        }
+
+        DiffExtractor.generateDependencyDiff(
+                before == null ? Collections.emptySet() : before.getResult(),
+                after == null ? Collections.emptySet() : after.getResult()
+        ).forEach(changes);
+        return result;
+    }
+
+    /**
+     * @param child          the child to create the task for
+     * @param beforeChildren the children in the start version
+     * @param afterChildren  the children in the end version
+     * @return the task for the child subtree
+     */
+    @NotNull
+    private DependencyDiffTask createChildTask(@NotNull Information<?> child, @NotNull Set<Information<?>> beforeChildren, @NotNull Set<Information<?>> afterChildren) {
+        boolean childParentsChanged = parentsChanged || from == null || to == null
+                || info.getParentRelation() != null && info.getParentRelation().hasChangesBetween(from, to);
+        return new DependencyDiffTask(child, beforeChildren.contains(child) ? from : null, afterChildren.contains(child) ? to : null,
+                aggregateDepStart, aggregateDepEnd, childParentsChanged, parallel, changes);
+    }
+
+    /**
+     * @param children  the children in iteration order
+     * @param childEnds the results of the completed tasks by child
+     * @param before    whether to collect the ends of the start or the end version
+     * @return the ends of the children
+     */
+    @NotNull
+    private static List<DependencySetBuilder.Ends> collectEnds(@NotNull Set<Information<?>> children, @NotNull Map<Information<?>, SubtreeEnds> childEnds, boolean before) {
+        List<DependencySetBuilder.Ends> result = new ArrayList<>(children.size());
+        for (Information<?> child : children) {
+            SubtreeEnds ends = childEnds.get(child);
+            result.add(before ? ends.before : ends.after);
+        }
+        return result;
+    }
+
+    /**
+     * The ends reachable from a subtree in both versions. Null if the subtree does not exist in a version
+     */
+    static final class SubtreeEnds {
+        @Nullable
+        private final DependencySetBuilder.Ends before;
+        @Nullable
+        private final DependencySetBuilder.Ends after;
+
+        private SubtreeEnds(@Nullable DependencySetBuilder.Ends before, @Nullable DependencySetBuilder.Ends after) {
+            this.before = before;
+            this.after = after;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.github.qaware.adcl.report;
+
+import com.github.qaware.adcl.information.ClassInformation;
+import com.github.qaware.adcl.information.Information;
+import com.github.qaware.adcl.information.ProjectInformation;
+import com.github.qaware.adcl.information.RelationshipInformation;
+import com.github.qaware.adcl.information.VersionInformation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact, immutable snapshot of the internal dependencies of a project at a version, at class or method granularity.
+ * <br>Nodes are numbered densely, edges are stored in compressed sparse row format in both directions,
+ * so traversals only touch int arrays and track visited nodes in a {@link BitSet}
+ */
+public final class DependencyGraph {
+    @NotNull
+    private final Granularity granularity;
+    @NotNull
+    private final Information<?>[] nodes;
+    @NotNull
+    private final Map<String, Integer> ids;
+    @NotNull
+    private final int[] outOffsets;
+    @NotNull
+    private final int[] outTargets;
+    @NotNull
+    private final int[] inOffsets;
+    @NotNull
+    private final int[] inTargets;
+    @Nullable
+    private Reachability reachability;
+    @Nullable
+    private Reachability dependentReachability;
+
+    private DependencyGraph(@NotNull Granularity granularity, @NotNull Information<?>[] nodes, @NotNull Map<String, Integer> ids,
+                            @NotNull int[] outOffsets, @NotNull int[] outTargets) {
+        this.granularity = granularity;
+        this.nodes = nodes;
+        this.ids = ids;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.inOffsets = new int[nodes.length + 1];
+        this.inTargets = new int[outTargets.length];
+        for (int target : outTargets) inOffsets[target + 1]++;
+        for (int i = 0; i < nodes.length; i++) inOffsets[i + 1] += inOffsets[i];
+        int[] fill = Arrays.copyOf(inOffsets, nodes.length);
+        for (int source = 0; source < nodes.length; source++) {
+            for (int e = outOffsets[source]; e < outOffsets[source + 1]; e++) inTargets[fill[outTargets[e]]++] = source;
+        }
+    }
+
+    /**
+     * Builds the graph of all classes (and methods) of a project existing at a version.
+     * Dependencies to packages, projects and other projects are not part of the graph.
+     * At class granularity the dependencies of the methods of a class belong to the class
+     *
+     * @param project     the project
+     * @param at          the version
+     * @param granularity the node granularity
+     * @return the graph
+     */
+    @NotNull
+    public static DependencyGraph build(@NotNull ProjectInformation project, @NotNull VersionInformation at, @NotNull Granularity granularity) {
+        List<Information<?>> nodes = new ArrayList<>();
+        collectNodes(project, at, granularity, nodes);
+        Map<Information<?>, Integer> nodeIds = new IdentityHashMap<>(nodes.size() * 2);
+        Map<String, Integer> pathIds = new HashMap<>(nodes.size() * 2);
+        for (int i = 0; i < nodes.size(); i++) {
+            nodeIds.put(nodes.get(i), i);
+            pathIds.put(nodes.get(i).getPath(), i);
+        }
+
+        int[] offsets = new int[nodes.size() + 1];
+        int[] targets = new int[Math.max(nodes.size(), 16)];
+        int edgeCount = 0;
+        BitSet seen = new BitSet(nodes.size());
+        for (int source = 0; source < nodes.size(); source++) {
+            Information<?> node = nodes.get(source);
+            List<Information<?>> sources = new ArrayList<>();
+            sources.add(node);
+            if (granularity == Granularity.CLASS) sources.addAll(node.getDirectChildren(at));
+            seen.clear();
+            for (Information<?> s : sources) {
+                Iterator<RelationshipInformation<?>> relations = s.getDependencyRelations().iterator();
+                while (relations.hasNext()) {
+                    RelationshipInformation<?> relation = relations.next();
+                    Integer target = nodeIds.get(unitOf(relation.getTo(), granularity));
+                    if (target == null || target == source || seen.get(target) || !relation.exists(at)) continue;
+                    seen.set(target);
+                    if (edgeCount == targets.length) targets = Arrays.copyOf(targets, edgeCount * 2);
+                    targets[edgeCount++] = target;
+                }
+            }
+            offsets[source + 1] = edgeCount;
+        }
+        return new DependencyGraph(granularity, nodes.toArray(new Information<?>[0]), pathIds, offsets, Arrays.copyOf(targets, edgeCount));
+    }
+
+    /**
+     * @param info        the node
+     * @param at          the version
+     * @param granularity the node granularity
+     * @param result      the list to add the classes (and methods) of the subtree to
+     */
+    private static void collectNodes(@NotNull Information<?> info, @NotNull VersionInformation at, @NotNull Granularity granularity, @NotNull List<Information<?>> result) {
+        if (info instanceof ClassInformation) {
+            result.add(info);
+            if (granularity == Granularity.METHOD) result.addAll(info.getDirectChildren(at));
+            return;
+        }
+        for (Information<?> child : info.getDirectChildren(at)) collectNodes(child, at, granularity, result);
+    }
+
+    /**
+     * @param target      the target of a dependency
+     * @param granularity the node granularity
+     * @return the node of the graph representing the target, null if not representable
+     */
+    @Nullable
+    private static Information<?> unitOf(@NotNull Information<?> target, @NotNull Granularity granularity) {
+        switch (target.getType()) {
+            case CLASS:
+                return target;
+            case METHOD:
+                return granularity == Granularity.METHOD ? target : target.getParent();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the node granularity
+     */
+    @NotNull
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * @return the number of edges
+     */
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * @param id the node id
+     * @return the node
+     */
+    @NotNull
+    public Information<?> getNode(int id) {
+        return nodes[id];
+    }
+
+    /**
+     * @param path the path of a class or method
+     * @return the node id or -1 if the path is not part of the graph
+     */
+    public int getId(@NotNull String path) {
+        Integer result = ids.get(path);
+        return result == null ? -1 : result;
+    }
+
+    /**
+     * @param id the node id
+     * @return the ids of the nodes the node depends on
+     */
+    @NotNull
+    public int[] getDependencies(int id) {
+        return Arrays.copyOfRange(outTargets, outOffsets[id], outOffsets[id + 1]);
+    }
+
+    /**
+     * @param id the node id
+     * @return the ids of the nodes depending on the node
+     */
+    @NotNull
+    public int[] getDependents(int id) {
+        return Arrays.copyOfRange(inTargets, inOffsets[id], inOffsets[id + 1]);
+    }
+
+    /**
+     * @param ids node ids
+     * @return the nodes, ordered by id
+     */
+    @NotNull
+    public List<Information<?>> getNodes(@NotNull BitSet ids) {
+        List<Information<?>> result = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) result.add(nodes[id]);
+        return result;
+    }
+
+    /**
+     * @return the transitive dependency index of the graph, created on first use
+     */
+    @NotNull
+    public synchronized Reachability getReachability() {
+        if (reachability == null) reachability = new Reachability(outOffsets, outTargets);
+        return reachability;
+    }
+
+    /**
+     * @return the transitive dependent index of the graph, i.e. the index of the reversed graph, created on first use
+     */
+    @NotNull
+    public synchronized Reachability getDependentReachability() {
+        if (dependentReachability == null) dependentReachability = new Reachability(inOffsets, inTargets);
+        return dependentReachability;
+    }
+
+    /**
+     * @param seeds the ids of the start nodes
+     * @return the ids of the start nodes and all nodes transitively depending on them
+     */
+    @NotNull
+    public BitSet reverseClosure(@NotNull BitSet seeds) {
+        return getDependentReachability().reachableFrom(seeds);
+    }
+
+    /**
+     * The kind of nodes of a graph
+     */
+    public enum Granularity {
+        /**
+         * Classes only, dependencies of methods belong to their class
+         */
+        CLASS,
+        /**
+         * Classes and methods
+         */
+        METHOD
+    }
+}
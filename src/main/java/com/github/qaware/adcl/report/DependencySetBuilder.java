@@ -0,0 +1,311 @@
+package com.github.qaware.adcl.report;
+
+import com.github.qaware.adcl.information.Information;
+import com.github.qaware.adcl.information.VersionInformation;
+import com.github.qaware.adcl.util.Utils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the dependency set of a node and its children at a version in a single post-order pass.
+ * <br>Each node gets a compact int id. A node passes the ends of all dependencies of its subtree up to its parent as an int list,
+ * deduplicated per level with a stamp array, so only distinct (start, end) pairs are ever materialized.
+ * <br>Synthetic flags follow the recursive expansion this replaces: own dependencies of a node take precedence over aggregated ones,
+ * real ends take precedence over aggregated ends of the same node and otherwise the first child in iteration order wins
+ */
+final class DependencySetBuilder {
+    private static final int[] EMPTY = new int[0];
+
+    @NotNull
+    private final VersionInformation at;
+    private final boolean aggregateDepStart;
+    private final boolean aggregateDepEnd;
+
+    private final Map<Information<?>, Integer> ids = new IdentityHashMap<>();
+    private final List<Information<?>> nodes = new ArrayList<>();
+    // computed when the first entry of the node is created
+    private final List<String> paths = new ArrayList<>();
+    private final List<int[]> ancestors = new ArrayList<>();
+    private int[] stamps = new int[64];
+    private int stamp;
+
+    private final Set<DiffExtractor.DependencyEntry> result = new HashSet<>();
+    @Nullable
+    private final Consumer<DiffExtractor.DependencyEntry> sink;
+
+    /**
+     * Creates a builder collecting the entries, see {@link #getResult()}
+     *
+     * @param at                the version to create the dependency set
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     */
+    DependencySetBuilder(@NotNull VersionInformation at, boolean aggregateDepStart, boolean aggregateDepEnd) {
+        this.at = at;
+        this.aggregateDepStart = aggregateDepStart;
+        this.aggregateDepEnd = aggregateDepEnd;
+        this.sink = result::add;
+    }
+
+    /**
+     * Creates a builder passing the entries on instead of collecting them. Each entry is passed once, as every node is processed once
+     *
+     * @param at                the version to create the dependency set
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     * @param sink              receives the entries, null if only the ends are needed
+     */
+    DependencySetBuilder(@NotNull VersionInformation at, boolean aggregateDepStart, boolean aggregateDepEnd, @Nullable Consumer<DiffExtractor.DependencyEntry> sink) {
+        this.at = at;
+        this.aggregateDepStart = aggregateDepStart;
+        this.aggregateDepEnd = aggregateDepEnd;
+        this.sink = sink;
+    }
+
+    /**
+     * @param info the node to start at
+     * @return all dependencies starting at this node or at one of its children
+     */
+    @NotNull
+    Set<DiffExtractor.DependencyEntry> build(@NotNull Information<?> info) {
+        process(info);
+        return result;
+    }
+
+    /**
+     * Processes a whole subtree, like {@link DependencySetBuilder#build(Information)}
+     *
+     * @param info the node to start at
+     * @return the ends reachable from the node, to be passed to {@link DependencySetBuilder#aggregate(Information, List)} of another builder
+     */
+    @NotNull
+    Ends buildSubtree(@NotNull Information<?> info) {
+        return toEnds(process(info));
+    }
+
+    /**
+     * Processes a single node whose children were processed by other builders
+     *
+     * @param info      the node to process
+     * @param childEnds the ends of each child by {@link DependencySetBuilder#buildSubtree(Information)}, in iteration order of {@link Information#getDirectChildren(VersionInformation)}
+     * @return the ends reachable from the node
+     */
+    @NotNull
+    Ends aggregate(@NotNull Information<?> info, @NotNull List<Ends> childEnds) {
+        List<int[]> converted = new ArrayList<>(childEnds.size());
+        for (Ends ends : childEnds) {
+            int[] encoded = new int[ends.nodes.length];
+            for (int i = 0; i < encoded.length; i++) encoded[i] = id(ends.nodes[i]) << 1 | (ends.synthetic[i] ? 1 : 0);
+            converted.add(encoded);
+        }
+        return toEnds(aggregateIds(info, converted));
+    }
+
+    /**
+     * @return the entries collected so far, empty if the entries are passed to a sink
+     */
+    @NotNull
+    Set<DiffExtractor.DependencyEntry> getResult() {
+        return result;
+    }
+
+    /**
+     * Adds the entries starting at info or one of its children to the result
+     *
+     * @param info the node to process
+     * @return the ends reachable from info as encoded ends ({@code id << 1 | synthetic}), in precedence order. Empty if not needed by the parent
+     */
+    @NotNull
+    private int[] process(@NotNull Information<?> info) {
+        Set<Information<?>> children = info.getDirectChildren(at);
+        List<int[]> childEnds = new ArrayList<>(children.size());
+        for (Information<?> child : children) childEnds.add(process(child));
+        return aggregateIds(info, childEnds);
+    }
+
+    /**
+     * Adds the entries starting at info to the result
+     *
+     * @param info      the node to process
+     * @param childEnds the encoded ends of each child
+     * @return the ends reachable from info as encoded ends ({@code id << 1 | synthetic}), in precedence order. Empty if not needed by the parent
+     */
+    @NotNull
+    private int[] aggregateIds(@NotNull Information<?> info, @NotNull List<int[]> childEnds) {
+        Set<Information<?>> deps = Utils.concatStreams(
+                info.getMethodDependencies(at).stream(),
+                info.getClassDependencies(at).stream(),
+                info.getPackageDependencies(at).stream(),
+                info.getProjectDependencies(at).stream()
+        ).collect(Collectors.toSet());
+
+        int current = ++stamp;
+        EndList ends = new EndList(deps.size());
+        for (Information<?> dep : deps) {
+            int id = id(dep);
+            if (mark(id, current)) ends.add(id << 1);
+        }
+        if (aggregateDepEnd) {
+            for (Information<?> dep : deps) {
+                for (int ancestor : ancestors(id(dep))) {
+                    if (mark(ancestor, current)) ends.add(ancestor << 1 | 1);
+                }
+            }
+        }
+        int ownCount = ends.size;
+        for (int[] childEnd : childEnds) {
+            for (int end : childEnd) {
+                if (mark(end >>> 1, current)) ends.add(end);
+            }
+        }
+
+        if (sink != null) {
+            int self = id(info);
+            for (int i = 0; i < ends.size; i++) sink.accept(createEntry(self, i >= ownCount, ends.values[i]));
+        }
+        return aggregateDepStart ? ends.toArray() : EMPTY;
+    }
+
+    /**
+     * @param encoded encoded ends of this builder
+     * @return the ends independent of this builder's ids
+     */
+    @NotNull
+    private Ends toEnds(@NotNull int[] encoded) {
+        Information<?>[] endNodes = new Information<?>[encoded.length];
+        boolean[] synthetic = new boolean[encoded.length];
+        for (int i = 0; i < encoded.length; i++) {
+            endNodes[i] = nodes.get(encoded[i] >>> 1);
+            synthetic[i] = (encoded[i] & 1) != 0;
+        }
+        return new Ends(endNodes, synthetic);
+    }
+
+    /**
+     * @param id      the node id to mark
+     * @param current the stamp of the current level
+     * @return true if the node was not marked on this level yet
+     */
+    private boolean mark(int id, int current) {
+        if (stamps[id] == current) return false;
+        stamps[id] = current;
+        return true;
+    }
+
+    /**
+     * @param start          the id of the start node
+     * @param syntheticStart whether the entry is aggregated from a child
+     * @param end            the encoded end
+     * @return the entry
+     */
+    @NotNull
+    private DiffExtractor.DependencyEntry createEntry(int start, boolean syntheticStart, int end) {
+        Information<?> startInfo = nodes.get(start);
+        Information<?> endInfo = nodes.get(end >>> 1);
+        return new DiffExtractor.DependencyEntry(syntheticStart, startInfo.getType(), path(start), startInfo.getName(),
+                (end & 1) != 0, endInfo.getType(), path(end >>> 1), endInfo.getName());
+    }
+
+    /**
+     * @param id the node id
+     * @return the path of the node. Memoized, as a node is part of many entries
+     */
+    @NotNull
+    private String path(int id) {
+        String result = paths.get(id);
+        if (result == null) {
+            result = nodes.get(id).getPath();
+            paths.set(id, result);
+        }
+        return result;
+    }
+
+    /**
+     * @param info the node
+     * @return the compact id of the node. Assigned on first call
+     */
+    private int id(@NotNull Information<?> info) {
+        Integer result = ids.get(info);
+        if (result != null) return result;
+        int id = nodes.size();
+        ids.put(info, id);
+        nodes.add(info);
+        paths.add(null);
+        ancestors.add(null);
+        if (id >= stamps.length) stamps = Arrays.copyOf(stamps, stamps.length * 2);
+        return id;
+    }
+
+    /**
+     * @param id the node id
+     * @return the ids of all parents of the node, self not included, root not included. Memoized
+     */
+    @NotNull
+    private int[] ancestors(int id) {
+        int[] result = ancestors.get(id);
+        if (result != null) return result;
+        Information<?> parent = nodes.get(id).getParent();
+        if (parent.getType() == Information.Type.ROOT) {
+            result = EMPTY;
+        } else {
+            int parentId = id(parent);
+            int[] parentAncestors = ancestors(parentId);
+            result = Arrays.copyOf(parentAncestors, parentAncestors.length + 1);
+            result[parentAncestors.length] = parentId;
+        }
+        ancestors.set(id, result);
+        return result;
+    }
+
+    /**
+     * The ends reachable from a node, passed between builders
+     */
+    static final class Ends {
+        /**
+         * No ends, as passed up if dependency starts are not aggregated
+         */
+        static final Ends NONE = new Ends(new Information<?>[0], new boolean[0]);
+
+        @NotNull
+        private final Information<?>[] nodes;
+        @NotNull
+        private final boolean[] synthetic;
+
+        private Ends(@NotNull Information<?>[] nodes, @NotNull boolean[] synthetic) {
+            this.nodes = nodes;
+            this.synthetic = synthetic;
+        }
+    }
+
+    /**
+     * A growable list of encoded ends
+     */
+    private static final class EndList {
+        private int[] values;
+        private int size;
+
+        private EndList(int capacity) {
+            values = new int[Math.max(capacity, 8)];
+        }
+
+        private void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        @NotNull
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.github.qaware.adcl.report;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.neo4j.ogm.session.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stores computed diffs in the database next to the version history, so repeated report requests for the same versions are not recomputed.
+ * <br>Entries are keyed by project, start version, end version and aggregation flags and hold the diff in the compact binary format of {@link BinaryDiffWriter}.
+ * As the existence of a dependency at a version only depends on markers up to this version, an entry stays valid until one of its versions is analysed again.
+ */
+public class DiffCache {
+    /**
+     * The label of the cache entry nodes. They are not part of the information graph
+     */
+    public static final String LABEL = "DiffCacheEntry";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DiffCache.class);
+
+    private static final String KEY = "{project: $project, from: $from, to: $to, aggregateDepStart: $aggregateDepStart, aggregateDepEnd: $aggregateDepEnd}";
+    private static final String QUERY_GET = "MATCH (c:" + LABEL + " " + KEY + ") RETURN c.data AS data LIMIT 1";
+    private static final String QUERY_PUT = "MERGE (c:" + LABEL + " " + KEY + ") SET c.data = $data";
+    private static final String QUERY_INVALIDATE = "MATCH (c:" + LABEL + " {project: $project}) WHERE c.from = $version OR c.to = $version DELETE c";
+    private static final String QUERY_CLEAR = "MATCH (c:" + LABEL + ") DELETE c";
+
+    @NotNull
+    private final Session session;
+
+    /**
+     * @param session the session to access the cache entries
+     */
+    public DiffCache(@NotNull Session session) {
+        this.session = session;
+    }
+
+    /**
+     * @param project           the project name
+     * @param from              the name of the start version
+     * @param to                the name of the end version
+     * @param aggregateDepStart whether dependencies starting at a level are displayed for higher levels
+     * @param aggregateDepEnd   whether dependencies ending at a level are displayed for higher levels
+     * @return the cached diff or null if not cached (or not readable)
+     */
+    @Nullable
+    public Entry get(@NotNull String project, @NotNull String from, @NotNull String to, boolean aggregateDepStart, boolean aggregateDepEnd) {
+        Iterator<Map<String, Object>> result = session.query(QUERY_GET, key(project, from, to, aggregateDepStart, aggregateDepEnd)).queryResults().iterator();
+        if (!result.hasNext()) return null;
+        Object data = result.next().get("data");
+        if (!(data instanceof byte[])) return null;
+        Entry entry = new Entry((byte[]) data);
+        try {
+            // only validates, the records are not kept
+            entry.read(new BinaryDiffReader.Handler() {
+            });
+            return entry;
+        } catch (IOException e) {
+            LOGGER.warn("Ignoring unreadable cached diff of {} {}..{}", project, from, to, e);
+            return null;
+        }
+    }
+
+    /**
+     * Computes the diff and stores it, replacing an existing entry. The changes are written as they are computed, only the binary diff is held
+     *
+     * @param project           the project name
+     * @param from              the name of the start version
+     * @param to                the name of the end version
+     * @param aggregateDepStart whether dependencies starting at a level are displayed for higher levels
+     * @param aggregateDepEnd   whether dependencies ending at a level are displayed for higher levels
+     * @param generator         the generator to compute the diff with
+     * @return the stored diff
+     */
+    @NotNull
+    public Entry put(@NotNull String project, @NotNull String from, @NotNull String to, boolean aggregateDepStart, boolean aggregateDepEnd, @NotNull DiffGenerator generator) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BinaryDiffWriter writer = new BinaryDiffWriter(bytes, generator.getProjectName(), generator.getProjectVersion())) {
+            generator.streamDependencyDiff(aggregateDepStart, aggregateDepEnd, writer::writeDependency);
+            for (DiffExtractor.PomDependencyEntry pomDependency : generator.generatePomDiff()) writer.writePomDependency(pomDependency);
+        } catch (IOException e) {
+            throw new IllegalStateException("In-memory stream failed", e);
+        }
+        Entry entry = new Entry(bytes.toByteArray());
+        Map<String, Object> parameters = key(project, from, to, aggregateDepStart, aggregateDepEnd);
+        parameters.put("data", entry.data);
+        session.query(QUERY_PUT, parameters);
+        return entry;
+    }
+
+    /**
+     * Removes all entries starting or ending at a version, to be called whenever the version gets analysed
+     *
+     * @param project the project name
+     * @param version the version name
+     */
+    public void invalidate(@NotNull String project, @NotNull String version) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("project", project);
+        parameters.put("version", version);
+        session.query(QUERY_INVALIDATE, parameters);
+    }
+
+    /**
+     * Removes all entries
+     */
+    public void clear() {
+        session.query(QUERY_CLEAR, Collections.emptyMap());
+    }
+
+    @NotNull
+    private static Map<String, Object> key(@NotNull String project, @NotNull String from, @NotNull String to, boolean aggregateDepStart, boolean aggregateDepEnd) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("project", project);
+        result.put("from", from);
+        result.put("to", to);
+        result.put("aggregateDepStart", aggregateDepStart);
+        result.put("aggregateDepEnd", aggregateDepEnd);
+        return result;
+    }
+
+    /**
+     * A cached diff. Held in the binary format, the records are decoded on every access
+     */
+    public static final class Entry {
+        @NotNull
+        private final byte[] data;
+
+        private Entry(@NotNull byte[] data) {
+            this.data = data;
+        }
+
+        /**
+         * Passes the changed dependencies one at a time, without collecting them
+         *
+         * @param action receives each changed dependency
+         * @throws IOException if the action failed
+         */
+        public void streamDependencies(@NotNull DiffGenerator.EntryAction action) throws IOException {
+            try {
+                read(new BinaryDiffReader.Handler() {
+                    @Override
+                    public void dependency(@NotNull DiffExtractor.DependencyEntry entry) {
+                        try {
+                            action.accept(entry);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * @return the changed dependencies
+         */
+        @NotNull
+        public Set<DiffExtractor.DependencyEntry> getDependencies() {
+            Set<DiffExtractor.DependencyEntry> result = new HashSet<>();
+            readValidated(new BinaryDiffReader.Handler() {
+                @Override
+                public void dependency(@NotNull DiffExtractor.DependencyEntry entry) {
+                    result.add(entry);
+                }
+            });
+            return result;
+        }
+
+        /**
+         * @return the changed pom dependencies
+         */
+        @NotNull
+        public Set<DiffExtractor.PomDependencyEntry> getPomDependencies() {
+            Set<DiffExtractor.PomDependencyEntry> result = new HashSet<>();
+            readValidated(new BinaryDiffReader.Handler() {
+                @Override
+                public void pomDependency(@NotNull DiffExtractor.PomDependencyEntry entry) {
+                    result.add(entry);
+                }
+            });
+            return result;
+        }
+
+        /**
+         * @param handler receives the records
+         * @throws IOException if the data is malformed
+         */
+        private void read(@NotNull BinaryDiffReader.Handler handler) throws IOException {
+            try (BinaryDiffReader reader = new BinaryDiffReader(new ByteArrayInputStream(data))) {
+                reader.read(handler);
+            }
+        }
+
+        /**
+         * @param handler receives the records
+         */
+        private void readValidated(@NotNull BinaryDiffReader.Handler handler) {
+            try {
+                read(handler);
+            } catch (IOException e) {
+                throw new IllegalStateException("Validated cached diff became unreadable", e);
+            }
+        }
+    }
+}
@@ -1,16 +1,19 @@
 package com.github.qaware.adcl.report;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.github.qaware.adcl.information.Information;
 import com.github.qaware.adcl.information.VersionInformation;
-import com.github.qaware.adcl.util.Utils;
+import com.github.qaware.adcl.util.RunMetrics;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -18,17 +21,20 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Generates a list of differences between two versions of a project
  */
-public class DiffExtractor {
+public class DiffExtractor implements DiffGenerator {
     @Nullable
     private final VersionInformation from;
     @NotNull
     private final VersionInformation to;
+    private final boolean parallel;
     private final ObjectMapper objectMapper;
 
     /**
@@ -38,55 +44,21 @@ public class DiffExtractor {
      * @param to   the end version to create a diff
      */
     public DiffExtractor(@Nullable VersionInformation from, @NotNull VersionInformation to) {
-        this.from = from;
-        this.to = to;
-        this.objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
-    }
-
-    /**
-     * @param info              the information of whose parents should be listed
-     * @param at                the version to create the dependency set
-     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
-     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
-     * @return all dependencies starting at this node or at one of its children
-     */
-    @NotNull
-    private static Stream<DependencyEntry> generateDependencySet(@NotNull Information<?> info, VersionInformation at, boolean aggregateDepStart, boolean aggregateDepEnd) {
-        Set<Information<?>> deps = Utils.concatStreams(
-                info.getMethodDependencies(at).stream(),
-                info.getClassDependencies(at).stream(),
-                info.getPackageDependencies(at).stream(),
-                info.getProjectDependencies(at).stream()
-        ).collect(Collectors.toSet());
-
-        Stream<DependencyEntry> ownEntries = deps.stream().map(i -> // original dependencies
-                new DependencyEntry(new DependencyEntry.DependencyNode(false, info), new DependencyEntry.DependencyNode(false, i))
-        );
-
-        if (aggregateDepEnd) ownEntries = Stream.concat(ownEntries, // aggregated end notes
-                deps.stream().flatMap(DiffExtractor::allParents).map(i ->
-                        new DependencyEntry(new DependencyEntry.DependencyNode(false, info), new DependencyEntry.DependencyNode(true, i))
-                )
-        );
-
-        Stream<DependencyEntry> childEntries = info.getDirectChildren(at).stream().flatMap(i -> // children
-                generateDependencySet(i, at, aggregateDepStart, aggregateDepEnd)
-        );
-
-        if (aggregateDepStart)
-            childEntries = childEntries.flatMap(e -> Stream.of(e, // children with aggregated start nodes
-                    new DependencyEntry(new DependencyEntry.DependencyNode(true, info), new DependencyEntry.DependencyNode(e, true))
-            ));
-
-        return Stream.concat(ownEntries, childEntries);
+        this(from, to, false);
     }
 
     /**
-     * @param info the information of whose parents should be listed
-     * @return All parent information of parameter 'info', self not included, root not included
+     * Creates a new diff extractor. Does not take version order into consideration
+     *
+     * @param from     the start version to create a diff
+     * @param to       the end version to create a diff
+     * @param parallel whether to compute the dependency diff of packages in parallel on the common fork/join pool
      */
-    private static Stream<Information<?>> allParents(@NotNull Information<?> info) {
-        return info.getParent().getType() == Information.Type.ROOT ? Stream.empty() : Stream.concat(allParents(info.getParent()), Stream.of(info.getParent()));
+    public DiffExtractor(@Nullable VersionInformation from, @NotNull VersionInformation to, boolean parallel) {
+        this.from = from;
+        this.to = to;
+        this.parallel = parallel;
+        this.objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
     }
 
     /**
@@ -117,11 +89,81 @@ public class DiffExtractor {
      * @return a set describing the code differences between the specified versions in constructor
      */
     @NotNull
+    @Override
     public Set<DependencyEntry> generateDependencyDiff(boolean aggregateDepStart, boolean aggregateDepEnd) {
-        Map<DependencyEntry, Boolean> result = generateDiff(
-                from == null ? Collections.emptySet() : generateDependencySet(from.getProject(), from, aggregateDepStart, aggregateDepEnd).collect(Collectors.toSet()),
-                generateDependencySet(to.getProject(), to, aggregateDepStart, aggregateDepEnd).collect(Collectors.toSet())
-        );
+        Set<DependencyEntry> result = new HashSet<>();
+        generateDependencyDiff(aggregateDepStart, aggregateDepEnd, result::add);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void streamDependencyDiff(boolean aggregateDepStart, boolean aggregateDepEnd, @NotNull EntryAction action) throws IOException {
+        try {
+            generateDependencyDiff(aggregateDepStart, aggregateDepEnd, entry -> {
+                try {
+                    action.accept(entry);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Computes the changed dependencies node by node, passing the changes of a node on before moving to the next one
+     *
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     * @param sink              receives each changed dependency once, called by one thread at a time
+     */
+    private void generateDependencyDiff(boolean aggregateDepStart, boolean aggregateDepEnd, @NotNull Consumer<DependencyEntry> sink) {
+        AtomicInteger count = new AtomicInteger();
+        try (RunMetrics.Phase ignored = RunMetrics.phase("diff")) {
+            if (from == null || from.getProject() == to.getProject()) {
+                if (parallel) {
+                    Object lock = new Object();
+                    Consumer<DependencyEntry> synchronizedSink = entry -> {
+                        synchronized (lock) {
+                            count.incrementAndGet();
+                            sink.accept(entry);
+                        }
+                    };
+                    ForkJoinPool.commonPool().invoke(new DependencyDiffTask(to.getProject(), from, to, aggregateDepStart, aggregateDepEnd, false, true, synchronizedSink));
+                } else {
+                    new DependencyDiffTask(to.getProject(), from, to, aggregateDepStart, aggregateDepEnd, false, false, entry -> {
+                        count.incrementAndGet();
+                        sink.accept(entry);
+                    }).invoke();
+                }
+            } else {
+                // the start paths of different projects differ, so all entries of the start version are removed and all of the end version added
+                new DependencySetBuilder(from, aggregateDepStart, aggregateDepEnd, entry -> {
+                    count.incrementAndGet();
+                    sink.accept(entry);
+                }).build(from.getProject());
+                new DependencySetBuilder(to, aggregateDepStart, aggregateDepEnd, entry -> {
+                    entry.change = true;
+                    count.incrementAndGet();
+                    sink.accept(entry);
+                }).build(to.getProject());
+            }
+        }
+        RunMetrics.record("adcl.diff.entries", count.get());
+    }
+
+    /**
+     * @param before the dependency entries present before
+     * @param after  the dependency entries present after
+     * @return the removed and added (flagged as change) entries
+     */
+    @NotNull
+    static Set<DependencyEntry> generateDependencyDiff(@NotNull Set<DependencyEntry> before, @NotNull Set<DependencyEntry> after) {
+        Map<DependencyEntry, Boolean> result = generateDiff(before, after);
         result.entrySet().stream().filter(Map.Entry::getValue).forEach(e -> e.getKey().change = true);
         return result.keySet();
     }
@@ -140,6 +182,7 @@ public class DiffExtractor {
      * @return a set describing the pom differences between the specified versions in constructor
      */
     @NotNull
+    @Override
     public Set<PomDependencyEntry> generatePomDiff() {
         return new HashSet<>(generateDiff(
                 from == null ? Collections.emptySet() : from.getProject().getPomDependencies(from),
@@ -164,15 +207,52 @@ public class DiffExtractor {
     }
 
     /**
-     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
-     * @param aggregateDepEnd   whether a dependency starting at a level should be displayed for higher levels
-     * @return a diff describing the differences between the specified versions in constructor
-     * @throws JsonProcessingException on json generation failure
+     * {@inheritDoc}
      */
+    @NotNull
+    @Override
     public Diff generateDiff(boolean aggregateDepStart, boolean aggregateDepEnd) throws JsonProcessingException {
         return new Diff(generateDependencyDiffAsJson(aggregateDepStart, aggregateDepEnd), generatePomDiffAsJson(), to.getProject().getName(), to.getName());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeDependencyDiff(@NotNull JsonGenerator generator, boolean aggregateDepStart, boolean aggregateDepEnd) throws IOException {
+        generator.writeStartArray();
+        streamDependencyDiff(aggregateDepStart, aggregateDepEnd, generator::writeObject);
+        generator.writeEndArray();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writePomDiff(@NotNull JsonGenerator generator) throws IOException {
+        generator.writeStartArray();
+        for (PomDependencyEntry entry : generatePomDiff()) generator.writeObject(entry);
+        generator.writeEndArray();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String getProjectName() {
+        return to.getProject().getName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String getProjectVersion() {
+        return to.getName();
+    }
+
     /**
      * Serialization class. Represents a change in code dependencies
      * syntheticStart / syntheticEnd describe whether this dependency entry's start / end node represents the actual dependency or represents an aggregated version of another dependency entry
@@ -203,15 +283,28 @@ public class DiffExtractor {
         @JsonProperty("changeStatus")
         public boolean change;
 
-        private DependencyEntry(@NotNull DependencyNode from, @NotNull DependencyNode to) {
-            this.syntheticStart = from.isSynthetic();
-            this.startType = from.getType();
-            this.startPath = from.getPath();
-            this.startName = from.getName();
-            this.syntheticEnd = to.isSynthetic();
-            this.endType = to.getType();
-            this.endPath = to.getPath();
-            this.endName = to.getName();
+        /**
+         * Creates an entry from raw node data, e.g. queried from the database
+         *
+         * @param syntheticStart whether the start node represents an aggregated dependency
+         * @param startType      the type of the start node
+         * @param startPath      the path of the start node
+         * @param startName      the name of the start node
+         * @param syntheticEnd   whether the end node represents an aggregated dependency
+         * @param endType        the type of the end node
+         * @param endPath        the path of the end node
+         * @param endName        the name of the end node
+         */
+        DependencyEntry(boolean syntheticStart, @NotNull Information.Type startType, @NotNull String startPath, @NotNull String startName,
+                        boolean syntheticEnd, @NotNull Information.Type endType, @NotNull String endPath, @NotNull String endName) {
+            this.syntheticStart = syntheticStart;
+            this.startType = startType;
+            this.startPath = startPath;
+            this.startName = startName;
+            this.syntheticEnd = syntheticEnd;
+            this.endType = endType;
+            this.endPath = endPath;
+            this.endName = endName;
         }
 
         @Override
@@ -231,53 +324,6 @@ public class DiffExtractor {
         public String toString() {
             return startPath + (change ? '+' : '-') + '>' + endPath;
         }
-
-        /**
-         * Serialization class. Represents a code dependency
-         */
-        private static class DependencyNode {
-            private final boolean synthetic;
-            private final Information.Type type;
-            private final String path;
-            private final String name;
-
-            private DependencyNode(boolean synthetic, Information.Type type, String path, String name) {
-                this.synthetic = synthetic;
-                this.type = type;
-                this.path = path;
-                this.name = name;
-            }
-
-            private DependencyNode(boolean synthetic, @NotNull Information<?> info) {
-                this(synthetic, info.getType(), info.getPath(), info.getName());
-            }
-
-            /**
-             * Reconstructs a node from a dependency entry
-             *
-             * @param end   whether to create the start or the end node
-             * @param entry the Dependency entry to copy from
-             */
-            private DependencyNode(DependencyEntry entry, boolean end) {
-                this(end ? entry.syntheticEnd : entry.syntheticStart, end ? entry.endType : entry.startType, end ? entry.endPath : entry.startPath, end ? entry.endName : entry.startName);
-            }
-
-            public boolean isSynthetic() {
-                return synthetic;
-            }
-
-            public Information.Type getType() {
-                return type;
-            }
-
-            public String getPath() {
-                return path;
-            }
-
-            public String getName() {
-                return name;
-            }
-        }
     }
 
     /**
@@ -0,0 +1,108 @@
+package com.github.qaware.adcl.report;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+
+/**
+ * Generates a {@link DiffExtractor.Diff} between two versions of a project, regardless of where the version data resides
+ *
+ * @see DiffExtractor in-memory implementation
+ * @see CypherDiffExtractor database implementation
+ */
+public interface DiffGenerator {
+    /**
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     * @return a set describing the code differences between the two versions. {@link DiffExtractor.DependencyEntry#change} is true for added dependencies
+     */
+    @NotNull
+    Set<DiffExtractor.DependencyEntry> generateDependencyDiff(boolean aggregateDepStart, boolean aggregateDepEnd);
+
+    /**
+     * Passes the changed dependencies one at a time as they are computed, without collecting them first
+     *
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     * @param action            receives each changed dependency once. {@link DiffExtractor.DependencyEntry#change} is true for added dependencies
+     * @throws IOException if the action failed
+     */
+    void streamDependencyDiff(boolean aggregateDepStart, boolean aggregateDepEnd, @NotNull EntryAction action) throws IOException;
+
+    /**
+     * @return a set describing the pom differences between the two versions
+     */
+    @NotNull
+    Set<DiffExtractor.PomDependencyEntry> generatePomDiff();
+
+    /**
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     * @return a diff describing the differences between the two versions
+     * @throws JsonProcessingException on json generation failure
+     */
+    @NotNull
+    DiffExtractor.Diff generateDiff(boolean aggregateDepStart, boolean aggregateDepEnd) throws JsonProcessingException;
+
+    /**
+     * Writes the changed dependencies as json array of {@link DiffExtractor.DependencyEntry} without building the json in memory
+     *
+     * @param generator         the generator to write to
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     * @throws IOException on write or serialization failure
+     */
+    void writeDependencyDiff(@NotNull JsonGenerator generator, boolean aggregateDepStart, boolean aggregateDepEnd) throws IOException;
+
+    /**
+     * Writes the changed pom dependencies as json array of {@link DiffExtractor.PomDependencyEntry} without building the json in memory
+     *
+     * @param generator the generator to write to
+     * @throws IOException on write or serialization failure
+     */
+    void writePomDiff(@NotNull JsonGenerator generator) throws IOException;
+
+    /**
+     * Writes the changed dependencies and pom dependencies in the compact binary format
+     *
+     * @param out               the stream to write to. Gets closed afterwards
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     * @throws IOException on write failure
+     * @see BinaryDiffReader
+     */
+    default void writeBinaryDiff(@NotNull OutputStream out, boolean aggregateDepStart, boolean aggregateDepEnd) throws IOException {
+        try (BinaryDiffWriter writer = new BinaryDiffWriter(out, getProjectName(), getProjectVersion())) {
+            streamDependencyDiff(aggregateDepStart, aggregateDepEnd, writer::writeDependency);
+            for (DiffExtractor.PomDependencyEntry entry : generatePomDiff()) writer.writePomDependency(entry);
+        }
+    }
+
+    /**
+     * @return the name of the compared project
+     */
+    @NotNull
+    String getProjectName();
+
+    /**
+     * @return the name of the end version
+     */
+    @NotNull
+    String getProjectVersion();
+
+    /**
+     * Receives the changed dependencies of {@link #streamDependencyDiff(boolean, boolean, EntryAction)}
+     */
+    @FunctionalInterface
+    interface EntryAction {
+        /**
+         * @param entry a changed dependency
+         * @throws IOException if the entry could not be processed, e.g. written
+         */
+        void accept(@NotNull DiffExtractor.DependencyEntry entry) throws IOException;
+    }
+}
@@ -1,14 +1,21 @@
 package com.github.qaware.adcl.report;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Objects;
 import java.util.Scanner;
 
@@ -17,6 +24,12 @@ import java.util.Scanner;
  */
 public class HTMLReporter {
     private static final Logger LOGGER = LoggerFactory.getLogger(HTMLReporter.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final String TEMPLATE = "/com/github/qaware/adcl/report/adcl_template.html";
+    private static final String SHARDED_TEMPLATE = "/com/github/qaware/adcl/report/adcl_sharded_template.html";
+    private static final String DEPENDENCY_DATA_MARKER = "<!--INSERT_DEPENDENCY_DATA_HERE-->";
+    private static final String INDEX_DATA_MARKER = "<!--INSERT_INDEX_DATA_HERE-->";
+    private static final String CYCLE_DATA_MARKER = "<!--INSERT_CYCLE_DATA_HERE-->";
 
     /**
      * Should not be initialized.
@@ -32,36 +45,172 @@ public class HTMLReporter {
      * @param outputPath the location there the generated report should be placed at.
      */
     public static void generateReport(DiffExtractor.Diff diff, Path outputPath) {
-        InputStream is = HTMLReporter.class.getResourceAsStream("/com/github/qaware/adcl/report/adcl_template.html");
+        try {
+            writeReport(TEMPLATE, DEPENDENCY_DATA_MARKER, "data_dependencies", diff.projectName, diff.projectVersion,
+                    writer -> writer.write(diff.changedDependencies), writer -> writer.write(diff.changedPomDependencies), cycleSection(null), outputPath);
+        } catch (IOException e) {
+            LOGGER.error("Unable to resolve report path: {}", outputPath);
+        }
+    }
 
-        StringBuilder report = new StringBuilder();
+    /**
+     * Generates a local ADCL report in HTML on the specified output path. The diff is serialized directly into the report file while it is written,
+     * so no intermediate json strings are held in memory.
+     *
+     * @param diffGenerator     the generator of the dependency changes.
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     * @param outputPath        the location there the generated report should be placed at.
+     * @throws IOException if the report could not be written or the diff could not be serialized
+     */
+    public static void generateReport(@NotNull DiffGenerator diffGenerator, boolean aggregateDepStart, boolean aggregateDepEnd, Path outputPath) throws IOException {
+        generateReport(diffGenerator, aggregateDepStart, aggregateDepEnd, null, outputPath);
+    }
+
+    /**
+     * Generates a local ADCL report in HTML on the specified output path, including the changed dependency cycles.
+     *
+     * @param diffGenerator     the generator of the dependency changes.
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     * @param cycles            the introduced and resolved dependency cycles, null if not computed
+     * @param outputPath        the location there the generated report should be placed at.
+     * @throws IOException if the report could not be written or the diff could not be serialized
+     * @see CycleTracker#diff
+     */
+    public static void generateReport(@NotNull DiffGenerator diffGenerator, boolean aggregateDepStart, boolean aggregateDepEnd,
+                                      @Nullable List<CycleTracker.CycleEntry> cycles, Path outputPath) throws IOException {
+        writeReport(TEMPLATE, DEPENDENCY_DATA_MARKER, "data_dependencies", diffGenerator.getProjectName(), diffGenerator.getProjectVersion(),
+                writer -> writeJson(writer, generator -> diffGenerator.writeDependencyDiff(generator, aggregateDepStart, aggregateDepEnd)),
+                writer -> writeJson(writer, diffGenerator::writePomDiff),
+                cycleSection(cycles), outputPath);
+    }
 
-        try (Scanner scanner = new Scanner(Objects.requireNonNull(is))) {
+    /**
+     * Generates a local ADCL report in HTML on the specified output path, with the dependency changes split into one shard per package.
+     * The HTML file only contains an index of the shards and the pom changes. The shards are stored compressed in a directory next to it
+     * and are loaded by the browser once a package gets expanded, so the report opens fast regardless of the diff size.
+     *
+     * @param diffGenerator     the generator of the dependency changes.
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     * @param outputPath        the location there the generated report should be placed at.
+     * @throws IOException if the report or its shards could not be written
+     * @see ReportShardWriter
+     */
+    public static void generateShardedReport(@NotNull DiffGenerator diffGenerator, boolean aggregateDepStart, boolean aggregateDepEnd, Path outputPath) throws IOException {
+        generateShardedReport(diffGenerator, aggregateDepStart, aggregateDepEnd, null, outputPath);
+    }
+
+    /**
+     * Generates a sharded local ADCL report in HTML on the specified output path, including the changed dependency cycles.
+     *
+     * @param diffGenerator     the generator of the dependency changes.
+     * @param aggregateDepStart whether a dependency starting at a level should be displayed for higher levels
+     * @param aggregateDepEnd   whether a dependency ending at a level should be displayed for higher levels
+     * @param cycles            the introduced and resolved dependency cycles, null if not computed
+     * @param outputPath        the location there the generated report should be placed at.
+     * @throws IOException if the report or its shards could not be written
+     * @see #generateShardedReport(DiffGenerator, boolean, boolean, Path)
+     */
+    public static void generateShardedReport(@NotNull DiffGenerator diffGenerator, boolean aggregateDepStart, boolean aggregateDepEnd,
+                                             @Nullable List<CycleTracker.CycleEntry> cycles, Path outputPath) throws IOException {
+        String projectName = diffGenerator.getProjectName();
+        String projectVersion = diffGenerator.getProjectVersion();
+        String shardDirectory = "adcl_report_" + projectName.replace(":", "_") + "_" + projectVersion + "_shards";
+        List<ReportShardWriter.Shard> index = new ReportShardWriter(projectName, outputPath.resolve(shardDirectory), shardDirectory)
+                .write(diffGenerator.generateDependencyDiff(aggregateDepStart, aggregateDepEnd));
+        writeReport(SHARDED_TEMPLATE, INDEX_DATA_MARKER, "data_index", projectName, projectVersion,
+                writer -> writeJson(writer, generator -> generator.writeObject(index)),
+                writer -> writeJson(writer, diffGenerator::writePomDiff),
+                cycleSection(cycles), outputPath);
+    }
+
+    /**
+     * Copies a report template to the report file, inserting the data
+     *
+     * @param template       the resource path of the template
+     * @param dataMarker     the marker to replace by the dependency data
+     * @param dataVariable   the javascript variable holding the dependency data
+     * @param projectName    the project name
+     * @param projectVersion the project version
+     * @param dependencies   writes the dependency data
+     * @param pom            writes the pom data
+     * @param cycles         writes the cycle data
+     * @param outputPath     the location there the generated report should be placed at.
+     * @throws IOException if the report could not be written
+     */
+    private static void writeReport(@NotNull String template, @NotNull String dataMarker, @NotNull String dataVariable, String projectName, String projectVersion,
+                                    @NotNull Section dependencies, @NotNull Section pom, @NotNull Section cycles, Path outputPath) throws IOException {
+        InputStream is = HTMLReporter.class.getResourceAsStream(template);
+        String fileName = projectName.replace(":", "_") + "_" + projectVersion + ".html";
+
+        try (Scanner scanner = new Scanner(Objects.requireNonNull(is));
+             BufferedWriter report = Files.newBufferedWriter(outputPath.resolve("adcl_report_" + fileName), StandardCharsets.UTF_8)) {
             String nextLine;
             while (scanner.hasNext()) {
                 nextLine = scanner.nextLine();
-                if (nextLine.contains("<!--INSERT_DEPENDENCY_DATA_HERE-->")) {
-                    report.append("var data_dependencies = ");
-                    report.append(diff.changedDependencies);
-                    report.append(";");
-
+                if (nextLine.contains(dataMarker)) {
+                    report.write("var " + dataVariable + " = ");
+                    dependencies.write(report);
+                    report.write(";");
                 } else if (nextLine.contains("<!--INSERT_POM_DATA_HERE-->")) {
-                    report.append("var data_pom = ");
-                    report.append(diff.changedPomDependencies);
-                    report.append(";");
+                    report.write("var data_pom = ");
+                    pom.write(report);
+                    report.write(";");
+                } else if (nextLine.contains(CYCLE_DATA_MARKER)) {
+                    report.write("var data_cycles = ");
+                    cycles.write(report);
+                    report.write(";");
                 } else if (nextLine.contains("<!--INSERT_PROJECT_AND_VERSION_HERE-->")) {
-                    report.append("<h3>Project: ").append(diff.projectName).append("/").append(diff.projectVersion).append("</h3>").append(System.lineSeparator());
+                    report.write("<h3>Project: " + projectName + "/" + projectVersion + "</h3>" + System.lineSeparator());
                 } else {
-                    report.append(nextLine).append(System.lineSeparator());
+                    report.write(nextLine + System.lineSeparator());
                 }
             }
         }
-        String fileName = diff.projectName.replace(":", "_") + "_" + diff.projectVersion + ".html";
-        try (BufferedWriter writer = Files.newBufferedWriter(outputPath.resolve("adcl_report_" + fileName), StandardCharsets.UTF_8)) {
-            writer.write(report.toString());
-        } catch (IOException e) {
-            LOGGER.error("Unable to resolve report path: {}", outputPath);
-        }
         LOGGER.info("to {}/{}", outputPath, fileName);
     }
+
+    /**
+     * @param cycles the changed dependency cycles, null if not computed
+     * @return the section writing the cycles, null if not computed so the report can tell it apart from no changes
+     */
+    @NotNull
+    private static Section cycleSection(@Nullable List<CycleTracker.CycleEntry> cycles) {
+        if (cycles == null) return writer -> writer.write("null");
+        return writer -> writeJson(writer, generator -> generator.writeObject(cycles));
+    }
+
+    /**
+     * Writes json to the report writer, formatted like {@link DiffExtractor.Diff} contents. The writer is neither flushed nor closed
+     *
+     * @param writer  the report writer
+     * @param content writes the json content
+     * @throws IOException on write or serialization failure
+     */
+    private static void writeJson(@NotNull Writer writer, @NotNull JsonContent content) throws IOException {
+        try (JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(writer)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            generator.useDefaultPrettyPrinter();
+            content.write(generator);
+        }
+    }
+
+    /**
+     * A data section of the report
+     */
+    @FunctionalInterface
+    private interface Section {
+        void write(@NotNull Writer writer) throws IOException;
+    }
+
+    /**
+     * Json content of a data section of the report
+     */
+    @FunctionalInterface
+    private interface JsonContent {
+        void write(@NotNull JsonGenerator generator) throws IOException;
+    }
 }
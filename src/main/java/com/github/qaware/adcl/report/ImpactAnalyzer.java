@@ -0,0 +1,144 @@
+package com.github.qaware.adcl.report;
+
+import com.github.qaware.adcl.information.ClassInformation;
+import com.github.qaware.adcl.information.Information;
+import com.github.qaware.adcl.information.MethodInformation;
+import com.github.qaware.adcl.information.PackageInformation;
+import com.github.qaware.adcl.information.ProjectInformation;
+import com.github.qaware.adcl.information.VersionInformation;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Computes which classes, methods and packages of a project are affected by changed classes, i.e. the changed classes and everything transitively depending on them.
+ * Meant for selecting the tests to run in CI.
+ * <br>The dependency graph is built once per analyzer, each query is a bitset traversal of its {@linkplain DependencyGraph#getDependentReachability() dependent index},
+ * which memoizes the closures of recently changed classes for further queries
+ */
+public class ImpactAnalyzer {
+    @NotNull
+    private final ProjectInformation project;
+    @NotNull
+    private final DependencyGraph graph;
+
+    /**
+     * @param project     the project to analyse
+     * @param at          the version of the project
+     * @param granularity whether to trace dependencies between classes or between methods
+     */
+    public ImpactAnalyzer(@NotNull ProjectInformation project, @NotNull VersionInformation at, @NotNull DependencyGraph.Granularity granularity) {
+        this.project = project;
+        this.graph = DependencyGraph.build(project, at, granularity);
+    }
+
+    /**
+     * @return the underlying dependency graph
+     */
+    @NotNull
+    public DependencyGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @param changedClasses the changed classes, as binary class names relative to the project (e.g. {@code packageA.ClassA$Inner})
+     *                       or as class file paths relative to the class output directory (e.g. {@code packageA/ClassA$Inner.class})
+     * @return the impact of the changes
+     */
+    @NotNull
+    public Impact analyse(@NotNull Collection<String> changedClasses) {
+        BitSet seeds = new BitSet(graph.size());
+        Set<String> unresolved = new LinkedHashSet<>();
+        for (String changedClass : changedClasses) {
+            String name = changedClass.endsWith(".class") ? changedClass.substring(0, changedClass.length() - ".class".length()) : changedClass;
+            int id = graph.getId(project.getPath() + '.' + name.replace('/', '.').replace('\\', '.'));
+            if (id < 0) {
+                unresolved.add(changedClass);
+                continue;
+            }
+            seeds.set(id);
+            // a changed class file may change any of its methods
+            if (graph.getGranularity() == DependencyGraph.Granularity.METHOD) {
+                for (Information<?> method : graph.getNode(id).getDirectChildren(null)) {
+                    int methodId = graph.getId(method.getPath());
+                    if (methodId >= 0) seeds.set(methodId);
+                }
+            }
+        }
+
+        BitSet affected = graph.reverseClosure(seeds);
+        Set<ClassInformation<?>> classes = new HashSet<>();
+        Set<MethodInformation> methods = new HashSet<>();
+        Set<PackageInformation<?>> packages = new HashSet<>();
+        for (int id = affected.nextSetBit(0); id >= 0; id = affected.nextSetBit(id + 1)) {
+            Information<?> node = graph.getNode(id);
+            if (node instanceof MethodInformation) {
+                methods.add((MethodInformation) node);
+                node = node.getParent();
+            }
+            classes.add((ClassInformation<?>) node);
+            // packages already added had their parents added as well
+            Information<?> parent = node.getParent();
+            while (parent instanceof PackageInformation && packages.add((PackageInformation<?>) parent)) parent = parent.getParent();
+        }
+        return new Impact(classes, methods, packages, unresolved);
+    }
+
+    /**
+     * The result of an impact analysis
+     */
+    public static final class Impact {
+        @NotNull
+        private final Set<ClassInformation<?>> classes;
+        @NotNull
+        private final Set<MethodInformation> methods;
+        @NotNull
+        private final Set<PackageInformation<?>> packages;
+        @NotNull
+        private final Set<String> unresolved;
+
+        private Impact(@NotNull Set<ClassInformation<?>> classes, @NotNull Set<MethodInformation> methods, @NotNull Set<PackageInformation<?>> packages, @NotNull Set<String> unresolved) {
+            this.classes = Collections.unmodifiableSet(classes);
+            this.methods = Collections.unmodifiableSet(methods);
+            this.packages = Collections.unmodifiableSet(packages);
+            this.unresolved = Collections.unmodifiableSet(unresolved);
+        }
+
+        /**
+         * @return the changed classes and all classes transitively depending on them
+         */
+        @NotNull
+        public Set<ClassInformation<?>> getClasses() {
+            return classes;
+        }
+
+        /**
+         * @return the methods of the changed classes and all methods transitively depending on them. Empty at class granularity
+         */
+        @NotNull
+        public Set<MethodInformation> getMethods() {
+            return methods;
+        }
+
+        /**
+         * @return all packages containing an affected class
+         */
+        @NotNull
+        public Set<PackageInformation<?>> getPackages() {
+            return packages;
+        }
+
+        /**
+         * @return the changed classes not found in the project version, e.g. new or external classes
+         */
+        @NotNull
+        public Set<String> getUnresolved() {
+            return unresolved;
+        }
+    }
+}
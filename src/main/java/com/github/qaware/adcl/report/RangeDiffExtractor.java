@@ -0,0 +1,225 @@
+package com.github.qaware.adcl.report;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.qaware.adcl.information.Information;
+import com.github.qaware.adcl.information.ProjectInformation;
+import com.github.qaware.adcl.information.RelationshipInformation;
+import com.github.qaware.adcl.information.VersionInformation;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a timeline of dependency changes for every version in a range of versions of a project, in a single pass over the graph.
+ * <br>Instead of building the dependency sets per version, the existence of each relation is resolved from its version markers only:
+ * the existence of every node is represented as step function over the range, derived top-down from the markers on its parent chain.
+ * A dependency only gets looked at in detail if a marker on it or on the parent chain of its owner lies inside the range.
+ * <br>Dependencies are not aggregated, like {@link DiffExtractor#generateDependencyDiff(boolean, boolean)} with both flags false.
+ */
+public class RangeDiffExtractor {
+    @NotNull
+    private final ProjectInformation project;
+    @NotNull
+    private final List<VersionInformation> versions;
+    private final int fromIndex;
+    private final int toIndex;
+    private final Map<VersionInformation, Integer> versionIndex = new HashMap<>();
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Creates a new range diff extractor
+     *
+     * @param from the version the range starts at. Changes in this version itself are not part of the timeline
+     * @param to   the last version of the range
+     * @throws IllegalArgumentException if the versions belong to different projects or from is not before to
+     */
+    public RangeDiffExtractor(@NotNull VersionInformation from, @NotNull VersionInformation to) {
+        this.project = to.getProject();
+        this.versions = project.getVersions();
+        for (int i = 0; i < versions.size(); i++) versionIndex.put(versions.get(i), i);
+        Integer fromIdx = versionIndex.get(from);
+        if (fromIdx == null || from.getProject() != project) throw new IllegalArgumentException("Versions " + from + " and " + to + " belong to different projects");
+        this.fromIndex = fromIdx;
+        this.toIndex = versionIndex.get(to);
+        if (fromIndex >= toIndex) throw new IllegalArgumentException("Version " + from + " is not before " + to);
+        this.objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * @return for every version after the start version up to the end version (in chronological order) the dependencies added or removed by it.
+     * {@link DiffExtractor.DependencyEntry#change} is true for added dependencies
+     */
+    @NotNull
+    public Map<String, Set<DiffExtractor.DependencyEntry>> generateDependencyTimeline() {
+        Map<String, Set<DiffExtractor.DependencyEntry>> result = new LinkedHashMap<>();
+        List<Set<DiffExtractor.DependencyEntry>> byIndex = new ArrayList<>();
+        for (int i = fromIndex + 1; i <= toIndex; i++) {
+            Set<DiffExtractor.DependencyEntry> changes = new HashSet<>();
+            result.put(versions.get(i).getName(), changes);
+            byIndex.add(changes);
+        }
+        collect(project, Timeline.ALWAYS, byIndex);
+        return result;
+    }
+
+    /**
+     * @return the timeline as json string
+     * @throws JsonProcessingException on json generation failure
+     * @see RangeDiffExtractor#generateDependencyTimeline()
+     */
+    @NotNull
+    public String generateDependencyTimelineAsJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(generateDependencyTimeline());
+    }
+
+    /**
+     * Collects the dependency changes of a node and its children, at any time
+     *
+     * @param info           the node
+     * @param parentTimeline the existence of the parent node
+     * @param byIndex        the change sets by version index relative to the first version after the start version
+     */
+    private void collect(@NotNull Information<?> info, @NotNull Timeline parentTimeline, @NotNull List<Set<DiffExtractor.DependencyEntry>> byIndex) {
+        Timeline timeline = info.getParentRelation() == null ? parentTimeline : combine(info.getParentRelation(), parentTimeline);
+        // without markers in the range neither in the subtree nor in the parent chain, the subtree does not change
+        if (timeline.indexes.length == 0 && !info.hasSubtreeChangesBetween(versions.get(fromIndex), versions.get(toIndex))) return;
+        info.getDependencyRelations().forEach(relation -> {
+            Timeline existence = combine(relation, timeline);
+            boolean current = existence.baseValue;
+            for (int i = 0; i < existence.indexes.length; i++) {
+                if (existence.values[i] == current) continue;
+                current = existence.values[i];
+                DiffExtractor.DependencyEntry entry = new DiffExtractor.DependencyEntry(false, info.getType(), info.getPath(), info.getName(),
+                        false, relation.getTo().getType(), relation.getTo().getPath(), relation.getTo().getName());
+                entry.change = current;
+                byIndex.get(existence.indexes[i] - fromIndex - 1).add(entry);
+            }
+        });
+        for (Information<?> child : info.getDirectChildren(null)) collect(child, timeline, byIndex);
+    }
+
+    /**
+     * Combines the markers of a relation with the existence of its owner. On equal versions the marker of the relation wins, as it is nearer
+     *
+     * @param relation      the relation
+     * @param ownerTimeline the existence of the owner of the relation
+     * @return the existence of the relation within the range
+     */
+    @NotNull
+    private Timeline combine(@NotNull RelationshipInformation<?> relation, @NotNull Timeline ownerTimeline) {
+        Map<VersionInformation, Boolean> markers = relation.getVersionMarkers();
+        if (markers.isEmpty()) return ownerTimeline;
+
+        int ownBaseIndex = -1;
+        boolean ownBaseValue = true;
+        int[] ownIndexes = new int[markers.size()];
+        boolean[] ownValues = new boolean[markers.size()];
+        int ownCount = 0;
+        for (Map.Entry<VersionInformation, Boolean> marker : markers.entrySet()) {
+            Integer index = versionIndex.get(marker.getKey());
+            if (index == null || index > toIndex) continue;
+            if (index <= fromIndex) {
+                if (index > ownBaseIndex) {
+                    ownBaseIndex = index;
+                    ownBaseValue = marker.getValue();
+                }
+            } else {
+                ownIndexes[ownCount] = index;
+                ownValues[ownCount++] = marker.getValue();
+            }
+        }
+        if (ownCount == 0 && ownBaseIndex < 0) return ownerTimeline;
+        sort(ownIndexes, ownValues, ownCount);
+
+        int baseIndex = Math.max(ownBaseIndex, ownerTimeline.baseIndex);
+        boolean baseValue = ownBaseIndex >= 0 && ownBaseIndex >= ownerTimeline.baseIndex ? ownBaseValue : ownerTimeline.baseValue;
+
+        // merge both breakpoint lists, the latest marker wins, on equal versions the own one
+        int[] indexes = new int[ownCount + ownerTimeline.indexes.length];
+        boolean[] values = new boolean[indexes.length];
+        int count = 0;
+        int own = 0;
+        int owner = 0;
+        int lastOwn = ownBaseIndex;
+        boolean lastOwnValue = ownBaseValue;
+        int lastOwner = ownerTimeline.baseIndex;
+        boolean lastOwnerValue = ownerTimeline.baseValue;
+        while (own < ownCount || owner < ownerTimeline.indexes.length) {
+            int next = Math.min(own < ownCount ? ownIndexes[own] : Integer.MAX_VALUE, owner < ownerTimeline.indexes.length ? ownerTimeline.indexes[owner] : Integer.MAX_VALUE);
+            while (own < ownCount && ownIndexes[own] == next) {
+                lastOwn = next;
+                lastOwnValue = ownValues[own++];
+            }
+            while (owner < ownerTimeline.indexes.length && ownerTimeline.indexes[owner] == next) {
+                lastOwner = next;
+                lastOwnerValue = ownerTimeline.values[owner++];
+            }
+            indexes[count] = next;
+            values[count++] = lastOwn >= 0 && lastOwn >= lastOwner ? lastOwnValue : lastOwnerValue;
+        }
+        return new Timeline(baseIndex, baseValue, Arrays.copyOf(indexes, count), Arrays.copyOf(values, count));
+    }
+
+    /**
+     * Sorts the first count markers by version index (insertion sort, as there are only a few markers per relation)
+     */
+    private static void sort(@NotNull int[] indexes, @NotNull boolean[] values, int count) {
+        for (int i = 1; i < count; i++) {
+            int index = indexes[i];
+            boolean value = values[i];
+            int j = i - 1;
+            for (; j >= 0 && indexes[j] > index; j--) {
+                indexes[j + 1] = indexes[j];
+                values[j + 1] = values[j];
+            }
+            indexes[j + 1] = index;
+            values[j + 1] = value;
+        }
+    }
+
+    /**
+     * The existence of a node or relation within the range as step function. Keeps a breakpoint for every marker in its path,
+     * even if the existence does not change, as later markers override nearer earlier ones
+     */
+    private static final class Timeline {
+        /**
+         * Existence if no marker exists at all
+         */
+        private static final Timeline ALWAYS = new Timeline(-1, true, new int[0], new boolean[0]);
+
+        /**
+         * The version index of the latest marker up to the start version, -1 if none
+         */
+        private final int baseIndex;
+        /**
+         * The existence at the start version
+         */
+        private final boolean baseValue;
+        /**
+         * Ascending version indexes of the markers after the start version
+         */
+        @NotNull
+        private final int[] indexes;
+        /**
+         * The existence from the version at the same position in {@link Timeline#indexes} on
+         */
+        @NotNull
+        private final boolean[] values;
+
+        private Timeline(int baseIndex, boolean baseValue, @NotNull int[] indexes, @NotNull boolean[] values) {
+            this.baseIndex = baseIndex;
+            this.baseValue = baseValue;
+            this.indexes = indexes;
+            this.values = values;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.github.qaware.adcl.report;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Answers transitive dependency queries on a {@link DependencyGraph}.
+ * <br>The graph gets condensed into its strongly connected components once, as all nodes of a cycle reach the same nodes.
+ * The closure of a component is the union of its members and the closures of the components it depends on, stored as a {@link BitSet} of node ids.
+ * Closures are computed on demand by traversing the condensed graph. The recently used ones are memoized, bounded by {@link Reachability#CACHE_BITS}
+ * so that the memory needed does not grow with the square of the graph size. Queries may run concurrently
+ */
+public final class Reachability {
+    /**
+     * The number of bits all memoized closures may take together, 16 MiB
+     */
+    static final long CACHE_BITS = 1L << 27;
+
+    private final int nodeCount;
+    @NotNull
+    private final int[] component;
+    @NotNull
+    private final int[] memberOffsets;
+    @NotNull
+    private final int[] members;
+    @NotNull
+    private final int[] dagOffsets;
+    @NotNull
+    private final int[] dagTargets;
+    private final int componentCount;
+    @NotNull
+    private final Map<Integer, BitSet> cache;
+
+    /**
+     * @param outOffsets the CSR offsets of the dependencies of the nodes
+     * @param outTargets the CSR targets of the dependencies of the nodes
+     */
+    Reachability(@NotNull int[] outOffsets, @NotNull int[] outTargets) {
+        this.nodeCount = outOffsets.length - 1;
+        this.component = new int[nodeCount];
+        componentCount = findComponents(outOffsets, outTargets, component);
+
+        // members grouped by component
+        memberOffsets = new int[componentCount + 1];
+        for (int c : component) memberOffsets[c + 1]++;
+        for (int c = 0; c < componentCount; c++) memberOffsets[c + 1] += memberOffsets[c];
+        members = new int[nodeCount];
+        int[] fill = Arrays.copyOf(memberOffsets, componentCount);
+        for (int node = 0; node < nodeCount; node++) members[fill[component[node]]++] = node;
+
+        // condensed acyclic graph, without duplicate edges
+        dagOffsets = new int[componentCount + 1];
+        int[] targets = new int[Math.max(outTargets.length, 16)];
+        int[] lastSource = new int[componentCount];
+        Arrays.fill(lastSource, -1);
+        int edgeCount = 0;
+        for (int c = 0; c < componentCount; c++) {
+            for (int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++) {
+                int node = members[m];
+                for (int e = outOffsets[node]; e < outOffsets[node + 1]; e++) {
+                    int target = component[outTargets[e]];
+                    if (target == c || lastSource[target] == c) continue;
+                    lastSource[target] = c;
+                    targets[edgeCount++] = target;
+                }
+            }
+            dagOffsets[c + 1] = edgeCount;
+        }
+        dagTargets = Arrays.copyOf(targets, edgeCount);
+        int maxCached = (int) Math.min(componentCount, Math.max(1, CACHE_BITS / Math.max(nodeCount, 1)));
+        cache = Collections.synchronizedMap(new LinkedHashMap<Integer, BitSet>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, BitSet> eldest) {
+                return size() > maxCached;
+            }
+        });
+    }
+
+    /**
+     * Finds the strongly connected components with an iterative version of Tarjan's algorithm.
+     * Components are numbered in reverse topological order, so a component only depends on components with a lower number
+     *
+     * @param outOffsets the CSR offsets of the dependencies of the nodes
+     * @param outTargets the CSR targets of the dependencies of the nodes
+     * @param component  the array to store the component of each node in
+     * @return the number of components
+     */
+    private static int findComponents(@NotNull int[] outOffsets, @NotNull int[] outTargets, @NotNull int[] component) {
+        int nodeCount = component.length;
+        int[] index = new int[nodeCount];
+        Arrays.fill(index, -1);
+        int[] low = new int[nodeCount];
+        int[] edge = new int[nodeCount];
+        int[] stack = new int[nodeCount];
+        int[] calls = new int[nodeCount];
+        BitSet onStack = new BitSet(nodeCount);
+        int counter = 0;
+        int componentCount = 0;
+        int stackSize = 0;
+        for (int root = 0; root < nodeCount; root++) {
+            if (index[root] >= 0) continue;
+            int callCount = 0;
+            index[root] = low[root] = counter++;
+            edge[root] = outOffsets[root];
+            stack[stackSize++] = root;
+            onStack.set(root);
+            calls[callCount++] = root;
+            while (callCount > 0) {
+                int node = calls[callCount - 1];
+                if (edge[node] < outOffsets[node + 1]) {
+                    int target = outTargets[edge[node]++];
+                    if (index[target] < 0) {
+                        index[target] = low[target] = counter++;
+                        edge[target] = outOffsets[target];
+                        stack[stackSize++] = target;
+                        onStack.set(target);
+                        calls[callCount++] = target;
+                    } else if (onStack.get(target)) {
+                        low[node] = Math.min(low[node], index[target]);
+                    }
+                    continue;
+                }
+                callCount--;
+                if (callCount > 0) low[calls[callCount - 1]] = Math.min(low[calls[callCount - 1]], low[node]);
+                if (low[node] != index[node]) continue;
+                int member;
+                do {
+                    member = stack[--stackSize];
+                    onStack.clear(member);
+                    component[member] = componentCount;
+                } while (member != node);
+                componentCount++;
+            }
+        }
+        return componentCount;
+    }
+
+    /**
+     * @return the number of strongly connected components
+     */
+    public int componentCount() {
+        return componentCount;
+    }
+
+    /**
+     * @param id the node id
+     * @return the strongly connected component of the node
+     */
+    public int componentOf(int id) {
+        return component[id];
+    }
+
+    /**
+     * @param id the node id
+     * @return whether the node is part of a dependency cycle of at least two nodes
+     */
+    public boolean isInCycle(int id) {
+        int c = component[id];
+        return memberOffsets[c + 1] - memberOffsets[c] > 1;
+    }
+
+    /**
+     * @param component the component
+     * @return the ids of the nodes of the component
+     */
+    @NotNull
+    public int[] getMembers(int component) {
+        return Arrays.copyOfRange(members, memberOffsets[component], memberOffsets[component + 1]);
+    }
+
+    /**
+     * @param id the node id
+     * @return the ids of the node and all nodes it transitively depends on. Must not be modified
+     */
+    @NotNull
+    public BitSet reachableFrom(int id) {
+        return closure(component[id]);
+    }
+
+    /**
+     * @param ids the ids of the start nodes
+     * @return the ids of the start nodes and all nodes they transitively depend on
+     */
+    @NotNull
+    public BitSet reachableFrom(@NotNull BitSet ids) {
+        BitSet result = new BitSet(nodeCount);
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            // the closure of a component already reached is part of the result
+            if (!result.get(id)) result.or(closure(component[id]));
+        }
+        return result;
+    }
+
+    /**
+     * @param from the id of the depending node
+     * @param to   the id of the node depended on
+     * @return whether from transitively depends on to (or is to)
+     */
+    public boolean reaches(int from, int to) {
+        return component[from] == component[to] || (component[to] < component[from] && closure(component[from]).get(to));
+    }
+
+    /**
+     * @param c the component
+     * @return the closure of the component, memoized as long as it is among the recently used closures
+     */
+    @NotNull
+    private BitSet closure(int c) {
+        BitSet result = cache.get(c);
+        if (result != null) return result;
+        result = computeClosure(c);
+        cache.put(c, result);
+        return result;
+    }
+
+    /**
+     * Traverses the condensed graph from the component, taking the memoized closures of the components on the way instead of traversing them again
+     *
+     * @param c the component
+     * @return the closure of the component
+     */
+    @NotNull
+    private BitSet computeClosure(int c) {
+        BitSet result = new BitSet(nodeCount);
+        // dependencies have lower numbers, so at most c + 1 components are queued
+        int[] queue = new int[c + 1];
+        int tail = 0;
+        addMembers(c, result);
+        queue[tail++] = c;
+        for (int head = 0; head < tail; head++) {
+            int current = queue[head];
+            for (int e = dagOffsets[current]; e < dagOffsets[current + 1]; e++) {
+                int target = dagTargets[e];
+                // a component is reached if its members are, which also holds for all components of an added closure
+                if (result.get(members[memberOffsets[target]])) continue;
+                BitSet cached = cache.get(target);
+                if (cached != null) {
+                    result.or(cached);
+                } else {
+                    addMembers(target, result);
+                    queue[tail++] = target;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param c      the component
+     * @param result the set to add the ids of the members of the component to
+     */
+    private void addMembers(int c, @NotNull BitSet result) {
+        for (int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++) result.set(members[m]);
+    }
+}
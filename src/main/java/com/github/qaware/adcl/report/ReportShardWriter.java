@@ -0,0 +1,150 @@
+package com.github.qaware.adcl.report;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.qaware.adcl.information.Information;
+import com.github.qaware.adcl.util.Utils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Splits dependency changes into one shard per package and writes each shard as script file, to be loaded on demand by the sharded report.
+ * <br>A shard contains all entries whose start node lies directly in the package, so entries of sub packages are in their own shards.
+ * Entries starting at the project itself or outside of any package belong to the project shard.
+ * <br>Shard scripts call {@code adclShardLoaded(id, data)} with the gzip compressed json entries in base64, as scripts can also be loaded from the local file system
+ */
+class ReportShardWriter {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @NotNull
+    private final String projectName;
+    @NotNull
+    private final Path directory;
+    @NotNull
+    private final String relativeDirectory;
+
+    /**
+     * @param projectName       the name of the project, which is the path of the project shard
+     * @param directory         the directory to write the shards to. Existing content gets replaced
+     * @param relativeDirectory the directory relative to the report file
+     */
+    ReportShardWriter(@NotNull String projectName, @NotNull Path directory, @NotNull String relativeDirectory) {
+        this.projectName = projectName;
+        this.directory = directory;
+        this.relativeDirectory = relativeDirectory;
+    }
+
+    /**
+     * @param entries the dependency changes
+     * @return the index of the written shards, sorted by path
+     * @throws IOException if a shard could not be written
+     */
+    @NotNull
+    List<Shard> write(@NotNull Collection<DiffExtractor.DependencyEntry> entries) throws IOException {
+        Map<String, List<DiffExtractor.DependencyEntry>> shards = new TreeMap<>();
+        for (DiffExtractor.DependencyEntry entry : entries) {
+            shards.computeIfAbsent(shardPath(entry), k -> new ArrayList<>()).add(entry);
+        }
+
+        if (Files.exists(directory)) Utils.delete(directory);
+        Files.createDirectories(directory);
+        List<Shard> result = new ArrayList<>(shards.size());
+        for (Map.Entry<String, List<DiffExtractor.DependencyEntry>> shard : shards.entrySet()) {
+            int id = result.size();
+            String fileName = id + ".js";
+            try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(fileName), StandardCharsets.UTF_8)) {
+                writer.write("adclShardLoaded(" + id + ", \"" + compress(shard.getValue()) + "\");");
+            }
+            int added = (int) shard.getValue().stream().filter(e -> e.change).count();
+            result.add(new Shard(id, shard.getKey(), shard.getKey().equals(projectName) ? Information.Type.PROJECT : Information.Type.PACKAGE,
+                    relativeDirectory + '/' + fileName, added, shard.getValue().size() - added));
+        }
+        return result;
+    }
+
+    /**
+     * @param entry the entry to find the shard for
+     * @return the path of the package containing the start node (the start node itself if it is a package), or the project name
+     * @implNote Derived from the start path like the model resolves paths: the last segment of a class path and the last two segments of a method path
+     * are class and method, all segments between the project and them are packages. Method parameters are skipped as they may contain dots
+     */
+    @NotNull
+    String shardPath(@NotNull DiffExtractor.DependencyEntry entry) {
+        int ownSegments;
+        switch (entry.startType) {
+            case PACKAGE:
+                return entry.startPath;
+            case CLASS:
+                ownSegments = 1;
+                break;
+            case METHOD:
+                ownSegments = 2;
+                break;
+            default:
+                return projectName;
+        }
+        int parameters = entry.startPath.indexOf('(');
+        String path = parameters < 0 ? entry.startPath : entry.startPath.substring(0, parameters);
+        int end = path.length();
+        for (int i = 0; i < ownSegments && end > 0; i++) end = path.lastIndexOf('.', end - 1);
+        boolean inPackage = end > projectName.length() && path.startsWith(projectName) && path.charAt(projectName.length()) == '.';
+        return inPackage ? path.substring(0, end) : projectName;
+    }
+
+    /**
+     * @param entries the entries of a shard
+     * @return the entries as gzip compressed json in base64
+     * @throws IOException on serialization failure
+     */
+    @NotNull
+    private static String compress(@NotNull List<DiffExtractor.DependencyEntry> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            OBJECT_MAPPER.writeValue(gzip, entries);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Serialization class. An entry of the shard index
+     */
+    static class Shard {
+        @JsonProperty("id")
+        public final int id;
+        @JsonProperty("path")
+        @NotNull
+        public final String path;
+        @JsonProperty("type")
+        @NotNull
+        public final Information.Type type;
+        @JsonProperty("file")
+        @NotNull
+        public final String file;
+        @JsonProperty("added")
+        public final int added;
+        @JsonProperty("removed")
+        public final int removed;
+
+        private Shard(int id, @NotNull String path, @NotNull Information.Type type, @NotNull String file, int added, int removed) {
+            this.id = id;
+            this.path = path;
+            this.type = type;
+            this.file = file;
+            this.added = added;
+            this.removed = removed;
+        }
+    }
+}
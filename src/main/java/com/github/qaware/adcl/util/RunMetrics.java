@@ -0,0 +1,168 @@
+package com.github.qaware.adcl.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the phase durations and counters of a run as Micrometer meters.
+ * <br>The meters of a run are kept in an own registry, which is part of Micrometer's global registry, so registries added there (e.g. by an embedding application)
+ * receive them as well. Counters used in hot paths should be looked up once per unit of work, e.g. per class file, and not per increment.
+ * At the end of a run the meters can be written as a JSON summary
+ */
+public final class RunMetrics {
+    /**
+     * The timer of the phases, tagged with the phase name
+     */
+    public static final String PHASE = "adcl.phase";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    // the phases in the order they started first, for a readable summary
+    private static final Map<String, Integer> PHASE_ORDER = new ConcurrentHashMap<>();
+    private static volatile SimpleMeterRegistry registry = register();
+
+    private RunMetrics() {
+    }
+
+    /**
+     * @return a new registry for a run, added to the global registry
+     */
+    @NotNull
+    private static SimpleMeterRegistry register() {
+        SimpleMeterRegistry result = new SimpleMeterRegistry();
+        Metrics.addRegistry(result);
+        return result;
+    }
+
+    /**
+     * Drops all meters of the previous run, to be called at the start of a run
+     */
+    public static synchronized void reset() {
+        Metrics.removeRegistry(registry);
+        registry.close();
+        PHASE_ORDER.clear();
+        registry = register();
+    }
+
+    /**
+     * @return the registry of the current run
+     */
+    @NotNull
+    public static MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Starts timing a phase. A phase can be timed multiple times, the durations add up
+     *
+     * @param name the phase name
+     * @return the running phase, to be closed when the phase ends
+     */
+    @NotNull
+    public static Phase phase(@NotNull String name) {
+        PHASE_ORDER.computeIfAbsent(name, n -> PHASE_ORDER.size());
+        return new Phase(registry.timer(PHASE, "phase", name));
+    }
+
+    /**
+     * @param name the counter name
+     * @return the counter of the current run
+     */
+    @NotNull
+    public static Counter counter(@NotNull String name) {
+        return registry.counter(name);
+    }
+
+    /**
+     * Records a sampled value like a size or a rate
+     *
+     * @param name  the distribution name
+     * @param value the value
+     */
+    public static void record(@NotNull String name, double value) {
+        registry.summary(name).record(value);
+    }
+
+    /**
+     * @return the phase durations in seconds, the counter values and the count, total and maximum of the recorded values
+     */
+    @NotNull
+    public static Map<String, Object> summary() {
+        Map<String, Double> phases = new TreeMap<>((a, b) -> Integer.compare(PHASE_ORDER.getOrDefault(a, Integer.MAX_VALUE), PHASE_ORDER.getOrDefault(b, Integer.MAX_VALUE)));
+        Map<String, Double> counters = new TreeMap<>();
+        Map<String, Map<String, Double>> values = new TreeMap<>();
+        for (Meter meter : registry.getMeters()) {
+            String name = meter.getId().getName();
+            if (meter instanceof Timer && PHASE.equals(name)) {
+                phases.put(meter.getId().getTag("phase"), ((Timer) meter).totalTime(TimeUnit.SECONDS));
+            } else if (meter instanceof Counter) {
+                counters.put(name, ((Counter) meter).count());
+            } else if (meter instanceof DistributionSummary) {
+                DistributionSummary summary = (DistributionSummary) meter;
+                Map<String, Double> value = new LinkedHashMap<>();
+                value.put("count", (double) summary.count());
+                value.put("total", summary.totalAmount());
+                value.put("max", summary.max());
+                values.put(name, value);
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("phases", phases);
+        result.put("counters", counters);
+        result.put("values", values);
+        return result;
+    }
+
+    /**
+     * Writes the {@link #summary()} of the current run
+     *
+     * @param file the JSON file to write
+     * @throws IOException if the file could not be written
+     */
+    public static void writeSummary(@NotNull Path file) throws IOException {
+        OBJECT_MAPPER.writeValue(file.toFile(), summary());
+    }
+
+    /**
+     * A running phase
+     */
+    public static final class Phase implements AutoCloseable {
+        @NotNull
+        private final Timer timer;
+        private final long start = System.nanoTime();
+
+        private Phase(@NotNull Timer timer) {
+            this.timer = timer;
+        }
+
+        /**
+         * @return the seconds since the phase started
+         */
+        public double elapsedSeconds() {
+            return (System.nanoTime() - start) / 1e9;
+        }
+
+        /**
+         * Ends the phase and records its duration
+         */
+        @Override
+        public void close() {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.qaware.adcl.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The global symbol table of the model: package segments, class names and method signatures recur in every project and version,
+ * so each of them is held only once. Interning is thread safe. The table only references its symbols weakly, so symbols no longer used
+ * by any model are released, e.g. after a long running process discarded a model
+ */
+public final class Symbols {
+    // the values reference the keys weakly as well, as a strongly referenced value would keep its own key alive
+    private static final Map<String, WeakReference<String>> TABLE = new WeakHashMap<>();
+
+    private Symbols() {
+    }
+
+    /**
+     * @param symbol a symbol
+     * @return the canonical instance of the symbol
+     */
+    @NotNull
+    public static String intern(@NotNull String symbol) {
+        synchronized (TABLE) {
+            WeakReference<String> reference = TABLE.get(symbol);
+            String existing = reference == null ? null : reference.get();
+            if (existing != null) return existing;
+            TABLE.put(symbol, new WeakReference<>(symbol));
+            return symbol;
+        }
+    }
+
+    /**
+     * @return the number of interned symbols still in use, approximately as released symbols are removed lazily
+     */
+    public static int size() {
+        synchronized (TABLE) {
+            return TABLE.size();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.qaware.adcl;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DaemonTest {
+    @Test
+    void requestTest() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        AtomicInteger runs = new AtomicInteger();
+        Daemon daemon = new Daemon(0, options -> {
+            runs.incrementAndGet();
+            return Integer.parseInt(options.get("exitCode"));
+        });
+        int port = daemon.getPort();
+        CompletableFuture<Void> serving = CompletableFuture.runAsync(daemon::serve);
+
+        assertThat(Daemon.isRunning(port)).isTrue();
+        Path tokenFile = Daemon.tokenFile(port);
+        assertThat(tokenFile).exists();
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            assertThat(Files.getPosixFilePermissions(tokenFile)).containsExactlyInAnyOrder(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE);
+        }
+        // requests without the token are rejected, runs must not be executed by the client either
+        assertThat(sendWithToken(port, Daemon.RUN, "wrong")).isEqualTo(Daemon.UNAUTHORIZED);
+        assertThat(sendWithToken(port, Daemon.STOP, "")).isEqualTo(1);
+        assertThat(Daemon.isRunning(port)).isTrue();
+        assertThat(runs.get()).isZero();
+
+        Map<String, String> options = new HashMap<>();
+        options.put("exitCode", "3");
+        options.put("project.uri", "path with spaces/target");
+        assertThat(Daemon.run(port, options)).isEqualTo(3);
+        options.put("exitCode", "0");
+        assertThat(Daemon.run(port, options)).isZero();
+        // the client executes refused runs itself
+        options.put("exitCode", String.valueOf(Daemon.REFUSED));
+        assertThat(Daemon.run(port, options)).isNull();
+        // a failing run does not stop the daemon
+        assertThat(Daemon.run(port, Collections.emptyMap())).isEqualTo(1);
+        assertThat(runs.get()).isEqualTo(4);
+
+        assertThat(Daemon.stop(port)).isTrue();
+        serving.get(10, TimeUnit.SECONDS);
+        assertThat(Daemon.isRunning(port)).isFalse();
+        assertThat(Daemon.run(port, options)).isNull();
+        assertThat(runs.get()).isEqualTo(4);
+        assertThat(tokenFile).doesNotExist();
+    }
+
+    private static int sendWithToken(int port, byte request, String token) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeByte(request);
+            out.writeUTF(token);
+            if (request == Daemon.RUN) out.writeInt(0);
+            out.flush();
+            return new DataInputStream(socket.getInputStream()).readInt();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.qaware.adcl;
+
+import com.github.qaware.adcl.database.Neo4jService;
+import com.github.qaware.adcl.depex.DependencyExtractor;
+import com.github.qaware.adcl.information.ClassInformation;
+import com.github.qaware.adcl.information.ProjectInformation;
+import com.github.qaware.adcl.information.RootInformation;
+import com.github.qaware.adcl.information.VersionInformation;
+import com.github.qaware.adcl.report.DiffExtractor;
+import com.github.qaware.adcl.util.SyntheticProject;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.kernel.configuration.BoltConnector;
+import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.session.SessionFactory;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Analyses synthetic projects. The scaling tests assert time and heap budgets per 1000 classes and only run with {@code -Dadcl.scaling=true},
+ * e.g. {@code mvn test -P fat,!thin -Dtest=ScalingTest -Dadcl.scaling=true}. The 200k classes need a heap of several GB, e.g. {@code -DargLine=-Xmx8g}.
+ * Slower machines may loosen all budgets by a factor with {@code -Dadcl.scaling.budget=2}
+ */
+class ScalingTest {
+    private static final long EXTRACTION_MILLIS_PER_1000_CLASSES = 1500;
+    private static final long DIFF_MILLIS_PER_1000_CLASSES = 500;
+    private static final long SAVE_MILLIS_PER_1000_CLASSES = 15000;
+    private static final long HEAP_BYTES_PER_1000_CLASSES = 32L << 20;
+    private static final int BOLT_PORT = 7689;
+
+    @Test
+    void generatorIsDeterministic() throws IOException {
+        Path first = Files.createTempDirectory("adcl_ScalingTest");
+        Path second = Files.createTempDirectory("adcl_ScalingTest");
+        SyntheticProject.of(1, 300).write(first);
+        SyntheticProject.of(1, 300).write(second);
+
+        Set<Path> files = listFiles(first);
+        assertThat(files).isEqualTo(listFiles(second)).hasSize(SyntheticProject.of(1, 300).getClassFileCount());
+        for (Path file : files) assertThat(first.resolve(file)).hasBinaryContent(Files.readAllBytes(second.resolve(file)));
+    }
+
+    @Test
+    void syntheticHistoryIsAnalysed() throws IOException {
+        SyntheticProject synthetic = SyntheticProject.of(2, 500);
+        History history = new History(synthetic);
+
+        assertThat(history.project.findAll(ClassInformation.class, history.first)).hasSizeGreaterThanOrEqualTo(synthetic.getClassCount());
+        assertThat(new DiffExtractor(history.first, history.second).generateDependencyDiff(false, false))
+                .anyMatch(e -> e.change).anyMatch(e -> !e.change);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 50_000, 200_000})
+    @EnabledIfSystemProperty(named = "adcl.scaling", matches = "true")
+    void scaling(int classes) throws IOException {
+        double budget = Double.parseDouble(System.getProperty("adcl.scaling.budget", "1"));
+        SyntheticProject synthetic = SyntheticProject.of(classes, classes);
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        History history = new History(synthetic);
+        long extractionMillis = millisSince(start) - history.generationMillis;
+        long heapBytes = usedHeap() - heapBefore;
+
+        start = System.nanoTime();
+        assertThat(new DiffExtractor(history.first, history.second, true).generateDependencyDiff(true, true)).isNotEmpty();
+        long diffMillis = millisSince(start);
+
+        Path databaseDirectory = Files.createTempDirectory("adcl_ScalingTest");
+        BoltConnector bolt = new BoltConnector("0");
+        GraphDatabaseService database = new GraphDatabaseFactory()
+                .newEmbeddedDatabaseBuilder(databaseDirectory.toFile())
+                .setConfig(bolt.type, "BOLT")
+                .setConfig(bolt.enabled, "true")
+                .setConfig(bolt.listen_address, "localhost:" + BOLT_PORT)
+                .newGraphDatabase();
+        SessionFactory sessionFactory = new SessionFactory(new Configuration.Builder().uri("bolt://localhost:" + BOLT_PORT).build(),
+                RootInformation.class.getPackage().getName());
+        long saveMillis;
+        try {
+            start = System.nanoTime();
+            new Neo4jService(sessionFactory).overrideRoot(history.root);
+            saveMillis = millisSince(start);
+        } finally {
+            sessionFactory.close();
+            database.shutdown();
+            FileSystemUtils.deleteRecursively(databaseDirectory);
+        }
+
+        double thousands = classes / 1000.0 * budget;
+        assertThat(extractionMillis).as("extraction millis").isLessThanOrEqualTo((long) (EXTRACTION_MILLIS_PER_1000_CLASSES * thousands));
+        assertThat(diffMillis).as("diff millis").isLessThanOrEqualTo((long) (DIFF_MILLIS_PER_1000_CLASSES * thousands));
+        assertThat(saveMillis).as("save millis").isLessThanOrEqualTo((long) (SAVE_MILLIS_PER_1000_CLASSES * thousands));
+        assertThat(heapBytes).as("heap bytes").isLessThanOrEqualTo((long) (HEAP_BYTES_PER_1000_CLASSES * thousands));
+    }
+
+    @NotNull
+    private static Set<Path> listFiles(@NotNull Path directory) throws IOException {
+        try (Stream<Path> walker = Files.walk(directory)) {
+            return walker.filter(Files::isRegularFile).map(directory::relativize).collect(Collectors.toSet());
+        }
+    }
+
+    private static long millisSince(long nanoTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nanoTime);
+    }
+
+    /**
+     * @return the used heap after a garbage collection
+     */
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Two analysed versions of a synthetic project, the second with 5% changed classes
+     */
+    private static final class History {
+        private final RootInformation root = new RootInformation();
+        private final ProjectInformation project = new ProjectInformation(root, "synthetic", true, "1");
+        private final VersionInformation first;
+        private final VersionInformation second;
+        private long generationMillis;
+
+        private History(@NotNull SyntheticProject synthetic) throws IOException {
+            first = project.getLatestVersion();
+            analyse(synthetic, first);
+            synthetic.mutate(0.05);
+            second = project.addVersion("2");
+            analyse(synthetic, second);
+        }
+
+        private void analyse(@NotNull SyntheticProject synthetic, @NotNull VersionInformation version) throws IOException {
+            Path classes = Files.createTempDirectory("adcl_ScalingTest");
+            try {
+                long start = System.nanoTime();
+                synthetic.write(classes);
+                generationMillis += millisSince(start);
+                new DependencyExtractor(classes, version, null).runAnalysis();
+            } finally {
+                FileSystemUtils.deleteRecursively(classes);
+            }
+        }
+    }
+}
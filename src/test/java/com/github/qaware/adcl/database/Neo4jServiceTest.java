@@ -2,9 +2,9 @@ package com.github.qaware.adcl.database;
 
 import com.github.qaware.adcl.Application;
 import com.github.qaware.adcl.PomDependencyExtractor;
-import com.github.qaware.adcl.depex.DependencyExtractor;
 import com.github.qaware.adcl.information.*;
 import com.github.qaware.adcl.pm.MavenProjectManager;
+import com.github.qaware.adcl.report.CypherDiffExtractor;
 import com.github.qaware.adcl.report.DiffExtractor;
 import com.github.qaware.adcl.util.DataGenerationUtil;
 import com.github.qaware.adcl.util.Utils;
@@ -34,6 +34,8 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static com.github.qaware.adcl.util.DataGenerationUtil.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -160,11 +162,21 @@ public class Neo4jServiceTest {
         }
     }
 
-    @NotNull
-    private static VersionInformation runDepEx(@NotNull ProjectInformation project, String folderName, String versionName) throws IOException {
-        VersionInformation result = project.addVersion(versionName);
-        new DependencyExtractor(Paths.get("src", "test", "resources", "testclassfiles2", folderName, "target", "classes"), result, null).runAnalysis();
-        return result;
+    @Test
+    public void asyncSaveTest() throws Exception {
+        SessionFactory sessionFactory = ctx.getBean(SessionFactory.class);
+        Session newSession = sessionFactory.openSession();
+        newSession.purgeDatabase();
+
+        neo4jService.overrideRoot(dm);
+        neo4jService.saveRootAsync().get();
+
+        try (Transaction ignored = newSession.beginTransaction()) {
+            newSession.loadAll(Information.class);
+            RootInformation loaded = newSession.loadAll(RootInformation.class).iterator().next();
+            assertThat(loaded).isNotSameAs(dm);
+            assertThat(loaded.deepEquals(dm)).isTrue();
+        }
     }
 
     @NotNull
@@ -273,6 +285,87 @@ public class Neo4jServiceTest {
         );
     }
 
+    @Test
+    void loadWithoutSpringTest() {
+        SessionFactory sessionFactory = ctx.getBean(SessionFactory.class);
+        sessionFactory.openSession().purgeDatabase();
+        neo4jService.overrideRoot(pomRoot);
+
+        SessionFactory plainSessionFactory = new SessionFactory(ctx.getBean(Configuration.class), RootInformation.class.getPackage().getName());
+        try {
+            RootInformation loaded = new Neo4jService(plainSessionFactory).getRoot();
+            assertThat(loaded).isNotSameAs(pomRoot);
+
+            ProjectInformation proj = (ProjectInformation) loaded.find("proj", null);
+            assertThat(proj).isNotNull();
+            assertThat(new DiffExtractor(proj.getVersion("0.0.1"), proj.getVersion("0.0.2")).generatePomDiff().stream().map(Object::toString)).containsExactlyInAnyOrder(
+                    "-> null@org-springframework:spring-context",
+                    "-> 18.0.0@org-jetbrains:annotations"
+            );
+        } finally {
+            plainSessionFactory.close();
+        }
+    }
+
+    @Test
+    void cypherDiffTest() {
+        SessionFactory sessionFactory = ctx.getBean(SessionFactory.class);
+        Session newSession = sessionFactory.openSession();
+        newSession.purgeDatabase();
+        neo4jService.overrideRoot(depExRoot);
+
+        ProjectInformation proj = (ProjectInformation) depExRoot.find("proj", null);
+        assertThat(proj).isNotNull();
+        assertThat(neo4jService.getVersionNames("proj")).containsExactly("0.0.1", "0.0.2", "0.0.3");
+        assertThat(neo4jService.getVersionNames("unknown")).isNull();
+
+        String[][] versionPairs = {{"0.0.1", "0.0.2"}, {"0.0.2", "0.0.3"}, {"0.0.1", "0.0.3"}};
+        boolean[] flags = {false, true};
+        for (String[] versions : versionPairs) {
+            DiffExtractor expected = new DiffExtractor(proj.getVersion(versions[0]), proj.getVersion(versions[1]));
+            CypherDiffExtractor actual = neo4jService.createDiffExtractor("proj", versions[0], versions[1]);
+            for (boolean aggregateDepStart : flags) {
+                for (boolean aggregateDepEnd : flags) {
+                    assertThat(actual.generateDependencyDiff(aggregateDepStart, aggregateDepEnd).stream().map(Object::toString))
+                            .containsExactlyInAnyOrderElementsOf(expected.generateDependencyDiff(aggregateDepStart, aggregateDepEnd).stream().map(Object::toString).collect(Collectors.toList()));
+                }
+            }
+        }
+    }
+
+    @Test
+    void diffCacheTest() {
+        neo4jService.overrideRoot(depExRoot);
+        Set<String> diff12 = describe(neo4jService.createDiffExtractor("proj", "0.0.1", "0.0.2").generateDependencyDiff(true, false));
+        Set<String> diff13 = describe(neo4jService.createDiffExtractor("proj", "0.0.1", "0.0.3").generateDependencyDiff(true, false));
+        assertThat(diff12).isNotEqualTo(diff13);
+
+        // the delegates compute a different diff than the cache key states, so it is visible whether the cache was used
+        assertThat(describe(neo4jService.createCachingDiffGenerator(neo4jService.createDiffExtractor("proj", "0.0.1", "0.0.2"), "0.0.1", "0.0.2")
+                .generateDependencyDiff(true, false))).isEqualTo(diff12);
+        assertThat(describe(neo4jService.createCachingDiffGenerator(neo4jService.createDiffExtractor("proj", "0.0.1", "0.0.3"), "0.0.1", "0.0.2")
+                .generateDependencyDiff(true, false))).isEqualTo(diff12);
+        assertThat(describe(neo4jService.createCachingDiffGenerator(neo4jService.createDiffExtractor("proj", "0.0.1", "0.0.3"), "0.0.1", "0.0.2")
+                .generateDependencyDiff(false, false))).isNotEqualTo(diff12);
+
+        neo4jService.saveRoot();
+        assertThat(describe(neo4jService.createCachingDiffGenerator(neo4jService.createDiffExtractor("proj", "0.0.1", "0.0.3"), "0.0.1", "0.0.2")
+                .generateDependencyDiff(true, false))).isEqualTo(diff12);
+
+        neo4jService.invalidateDiffCache("proj", "0.0.2");
+        assertThat(describe(neo4jService.createCachingDiffGenerator(neo4jService.createDiffExtractor("proj", "0.0.1", "0.0.3"), "0.0.1", "0.0.2")
+                .generateDependencyDiff(true, false))).isEqualTo(diff13);
+    }
+
+    @Test
+    void schemaTest() {
+        neo4jService.ensureSchema();
+        neo4jService.ensureSchema(); // idempotent
+
+        assertThat(neo4jService.getIndexStatus()).containsKeys(SchemaManager.getSchema().stream().map(SchemaManager.SchemaEntry::getKey).toArray(String[]::new));
+        assertThat(neo4jService.getIndexStatus()).containsEntry("ProjectInformation(name)", "ONLINE");
+    }
+
     @TestConfiguration
     static class TestConfig {
         @Profile("test")
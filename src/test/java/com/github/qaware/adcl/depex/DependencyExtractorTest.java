@@ -1,12 +1,14 @@
 package com.github.qaware.adcl.depex;
 
 import com.github.qaware.adcl.information.*;
+import com.github.qaware.adcl.util.RunMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Map;
 
 import static com.github.qaware.adcl.util.DataGenerationUtil.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -117,4 +119,24 @@ class DependencyExtractorTest {
         new DependencyExtractor(TESTCLASS_FOLDER, proj.getLatestVersion(), null).runAnalysis();
         assertThat(root.deepEquals(dm)).overridingErrorMessage("Not deep equal!\nExpected:\n%s\n\nActual:\n%s", dm, root).isTrue();
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void countsClassFilesAndEdges() throws IOException {
+        RunMetrics.reset();
+        RootInformation root = new RootInformation();
+        ProjectInformation proj = new ProjectInformation(root, "proj", true, "v1.0.0");
+        new DependencyExtractor(TESTCLASS_FOLDER, proj.getLatestVersion(), null).runAnalysis();
+
+        assertThat(RunMetrics.counter("adcl.depex.class.files").count()).isEqualTo(7);
+        double created = RunMetrics.counter("adcl.depex.edges.created").count();
+        assertThat(created).isPositive();
+        assertThat(RunMetrics.counter("adcl.depex.references.repeated").count()).isPositive();
+
+        // a second version reuses all relations
+        new DependencyExtractor(TESTCLASS_FOLDER, proj.addVersion("v1.0.1"), null).runAnalysis();
+        assertThat(RunMetrics.counter("adcl.depex.edges.created").count()).isEqualTo(created);
+        assertThat(RunMetrics.counter("adcl.depex.edges.deduplicated").count()).isGreaterThanOrEqualTo(created);
+        assertThat((Map<String, Double>) RunMetrics.summary().get("phases")).containsKeys("index", "parse");
+    }
 }
\ No newline at end of file
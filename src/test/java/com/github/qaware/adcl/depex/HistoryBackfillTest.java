@@ -0,0 +1,110 @@
+package com.github.qaware.adcl.depex;
+
+import com.github.qaware.adcl.information.ProjectInformation;
+import com.github.qaware.adcl.information.RootInformation;
+import com.github.qaware.adcl.information.VersionInformation;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HistoryBackfillTest {
+    private static final Path TESTPROJECT = Paths.get("src", "test", "resources", "testclassfiles2", "testproject", "target", "classes");
+    private static final Path TESTPROJECT2 = Paths.get("src", "test", "resources", "testclassfiles2", "testproject2", "target", "classes");
+
+    @Test
+    void resolveVersionsInVersionOrder() throws IOException {
+        Path repository = createRepository();
+
+        Map<String, Path> archives = HistoryBackfill.resolve(new String[]{"com.example:proj"}, repository, repository);
+
+        assertThat(archives.keySet()).containsExactly("1.0.0", "1.9.0", "1.10.0");
+        assertThat(HistoryBackfill.projectNameOf(new String[]{"com.example:proj"})).isEqualTo("com-example:proj");
+        assertThat(HistoryBackfill.resolve(new String[]{"com/example/proj/1.9.0/proj-1.9.0.jar", "com.example:proj:1.10.0"}, repository, repository))
+                .containsOnlyKeys("1.9.0", "1.10.0");
+    }
+
+    @Test
+    void backfillMatchesDirectoryAnalysis() throws IOException {
+        Path repository = createRepository();
+        Map<String, Path> archives = HistoryBackfill.resolve(new String[]{"com.example:proj"}, repository, repository);
+
+        RootInformation backfilled = new RootInformation();
+        assertThat(new HistoryBackfill(backfilled, "com-example:proj", archives).run())
+                .extracting(VersionInformation::getName).containsExactly("1.0.0", "1.9.0", "1.10.0");
+
+        RootInformation expected = new RootInformation();
+        ProjectInformation project = new ProjectInformation(expected, "com-example:proj", true, "1.0.0");
+        new DependencyExtractor(TESTPROJECT, project.getLatestVersion(), null).runAnalysis();
+        new DependencyExtractor(TESTPROJECT, project.addVersion("1.9.0"), null).runAnalysis();
+        new DependencyExtractor(TESTPROJECT2, project.addVersion("1.10.0"), null).runAnalysis();
+
+        assertThat(backfilled.deepEquals(expected)).overridingErrorMessage("Not deep equal!\nExpected:\n%s\n\nActual:\n%s", expected, backfilled).isTrue();
+    }
+
+    @Test
+    void skipAnalysedVersions() throws IOException {
+        Path repository = createRepository();
+        Map<String, Path> archives = HistoryBackfill.resolve(new String[]{"com.example:proj"}, repository, repository);
+        RootInformation root = new RootInformation();
+        new HistoryBackfill(root, "com-example:proj", HistoryBackfill.resolve(new String[]{"com.example:proj:1.0.0"}, repository, repository)).run();
+
+        assertThat(new HistoryBackfill(root, "com-example:proj", archives).run()).extracting(VersionInformation::getName).containsExactly("1.9.0", "1.10.0");
+        assertThat(new HistoryBackfill(root, "com-example:proj", archives).run()).isEmpty();
+    }
+
+    @Test
+    void rejectVersionsBeforeAnalysedVersions() throws IOException {
+        Path repository = createRepository();
+        Map<String, Path> archives = HistoryBackfill.resolve(new String[]{"com.example:proj"}, repository, repository);
+        RootInformation root = new RootInformation();
+        new HistoryBackfill(root, "com-example:proj", HistoryBackfill.resolve(new String[]{"com.example:proj:1.9.0"}, repository, repository)).run();
+
+        assertThatThrownBy(() -> new HistoryBackfill(root, "com-example:proj", archives).run()).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HistoryBackfill(root, "com-example:proj", HistoryBackfill.resolve(new String[]{"com.example:proj:1.0.0"}, repository, repository)).run())
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(((ProjectInformation) root.find("com-example:proj", null)).getVersions()).extracting(VersionInformation::getName).containsExactly("1.9.0");
+    }
+
+    @Test
+    void rejectDuplicateVersions() throws IOException {
+        Path repository = createRepository();
+
+        assertThatThrownBy(() -> HistoryBackfill.resolve(new String[]{"com.example:proj:1.9.0", "com/example/proj/1.9.0/proj-1.9.0.jar"}, repository, repository))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("1.9.0");
+    }
+
+    @NotNull
+    private static Path createRepository() throws IOException {
+        Path repository = Files.createTempDirectory("adcl_HistoryBackfillTest");
+        createJar(TESTPROJECT, repository, "1.0.0");
+        createJar(TESTPROJECT, repository, "1.9.0");
+        createJar(TESTPROJECT2, repository, "1.10.0");
+        return repository;
+    }
+
+    private static void createJar(@NotNull Path classes, @NotNull Path repository, @NotNull String version) throws IOException {
+        Path directory = Files.createDirectories(repository.resolve("com/example/proj").resolve(version));
+        try (OutputStream out = Files.newOutputStream(directory.resolve("proj-" + version + ".jar"));
+             ZipOutputStream zip = new ZipOutputStream(out);
+             Stream<Path> walker = Files.walk(classes)) {
+            for (Path file : walker.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                zip.putNextEntry(new ZipEntry(classes.relativize(file).toString().replace('\\', '/')));
+                Files.copy(file, zip);
+                zip.closeEntry();
+            }
+        }
+    }
+}
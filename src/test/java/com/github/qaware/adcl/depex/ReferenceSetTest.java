@@ -0,0 +1,40 @@
+package com.github.qaware.adcl.depex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReferenceSetTest {
+    @Test
+    void distinctReferencesInInsertionOrder() {
+        ReferenceSet set = new ReferenceSet();
+        assertThat(set.add("a/B")).isTrue();
+        assertThat(set.add("a/B", "run", "()V")).isTrue();
+        assertThat(set.add("a/B", "run", "(I)V")).isTrue();
+        assertThat(set.add(new String("a/B"))).isFalse();
+        assertThat(set.add("a/B", "run", new String("()V"))).isFalse();
+        assertThat(set.add("a/C")).isTrue();
+
+        List<String> references = new ArrayList<>();
+        set.forEach((owner, name, descriptor) -> references.add(owner + (name == null ? "" : "." + name + descriptor)));
+        assertThat(references).containsExactly("a/B", "a/B.run()V", "a/B.run(I)V", "a/C");
+    }
+
+    @Test
+    void growsAndIsReusable() {
+        ReferenceSet set = new ReferenceSet();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 1000; i++) assertThat(set.add("a/C" + i)).isTrue();
+            for (int i = 0; i < 1000; i++) assertThat(set.add("a/C" + i)).isFalse();
+            assertThat(set.size()).isEqualTo(1000);
+            set.clear();
+            assertThat(set.size()).isZero();
+        }
+        List<String> references = new ArrayList<>();
+        set.forEach((owner, name, descriptor) -> references.add(owner));
+        assertThat(references).isEmpty();
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.qaware.adcl.depex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UtilsTest {
+    @Test
+    void typesOfDescriptors() {
+        List<String> types = new ArrayList<>();
+        Utils.forEachType("(ILjava/lang/String;[[Lcom/example/Lambda;J)Ljava/util/List;", types::add);
+        assertThat(types).containsExactly("java/lang/String", "com/example/Lambda", "java/util/List");
+
+        types.clear();
+        Utils.forEachType("(IJ[D)V", types::add);
+        Utils.forEachType("Z", types::add);
+        assertThat(types).isEmpty();
+
+        Utils.forEachType("Ljava/lang/Deprecated;", types::add);
+        assertThat(types).containsExactly("java/lang/Deprecated");
+    }
+
+    @Test
+    void elementTypes() {
+        assertThat(Utils.elementType("java/lang/String")).isEqualTo("java/lang/String");
+        assertThat(Utils.elementType("[[Ljava/lang/String;")).isEqualTo("java/lang/String");
+        assertThat(Utils.elementType("[I")).isNull();
+    }
+
+    @Test
+    void convertDescriptors() {
+        assertThat(Utils.convertDescriptor("()V")).isEqualTo("()");
+        assertThat(Utils.convertDescriptor("(ZBCSIJFD)V")).isEqualTo("(boolean, byte, char, short, int, long, float, double)");
+        assertThat(Utils.convertDescriptor("(Ljava/lang/String;[I)Ljava/lang/Object;")).isEqualTo("(java.lang.String, int[])");
+        // a single [] regardless of the dimensions
+        assertThat(Utils.convertDescriptor("([[Ljava/lang/Object;J)V")).isEqualTo("(java.lang.Object[], long)");
+        // cached
+        assertThat(Utils.convertDescriptor(new String("(Ljava/lang/String;[I)Ljava/lang/Object;"))).isSameAs(Utils.convertDescriptor("(Ljava/lang/String;[I)Ljava/lang/Object;"));
+        assertThatThrownBy(() -> Utils.convertDescriptor("(X)V")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void thisReferences() {
+        assertThat(Utils.isThisReference("this")).isTrue();
+        assertThat(Utils.isThisReference("this$0")).isTrue();
+        assertThat(Utils.isThisReference("this$12")).isTrue();
+        assertThat(Utils.isThisReference("this$")).isFalse();
+        assertThat(Utils.isThisReference("this$a")).isFalse();
+        assertThat(Utils.isThisReference("thisValue")).isFalse();
+        assertThat(Utils.isThisReference("that")).isFalse();
+    }
+}
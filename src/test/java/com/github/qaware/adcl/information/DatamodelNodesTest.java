@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.Set;
 
 import static com.github.qaware.adcl.util.DataGenerationUtil.*;
@@ -163,6 +164,62 @@ public class DatamodelNodesTest {
         assertThat(created.getRoot().findOrCreate("a.bb.x", null, Information.Type.CLASS).getPath()).isEqualTo("a.bb.x");
     }
 
+    @Test
+    void pathsAreMaterializedOnDemand() {
+        dm.internNames();
+        MethodInformation method = caMb.getStored();
+        assertThat(method.getMaterializedPath()).isNull();
+        assertThat(method.hashCode()).isEqualTo(Objects.hash(Information.Type.METHOD, "proj.packageA.ClassA.methodB(packageB.ClassB)"));
+        assertThat(method.hasPath("proj.packageA.ClassA.methodB(packageB.ClassB)")).isTrue();
+        assertThat(method.hasPath("proj.packageA.ClassA.methodB(packageB.ClassC)")).isFalse();
+        assertThat(method.hasPath("proj.packageAClassA.methodB(packageB.ClassB)")).isFalse();
+        assertThat(method.hasPath("packageA.ClassA.methodB(packageB.ClassB)")).isFalse();
+        assertThat(method).isEqualTo(caMb.getStored()).isNotEqualTo(caMa.getStored());
+        assertThat(method.getMaterializedPath()).isNull();
+
+        // computed, but not kept
+        assertThat(method.getPath()).isEqualTo("proj.packageA.ClassA.methodB(packageB.ClassB)");
+        assertThat(method.getMaterializedPath()).isNull();
+        assertThat(method.getParent().getMaterializedPath()).isNull();
+
+        // held for saving only
+        method.materializePath();
+        assertThat(method.getMaterializedPath()).isEqualTo("proj.packageA.ClassA.methodB(packageB.ClassB)");
+        assertThat(method.getParent().getMaterializedPath()).isNull();
+        assertThat(method.hasPath("proj.packageA.ClassA.methodB(packageB.ClassB)")).isTrue();
+        method.releasePath();
+        assertThat(method.getMaterializedPath()).isNull();
+        assertThat(method.hashCode()).isEqualTo(Objects.hash(Information.Type.METHOD, "proj.packageA.ClassA.methodB(packageB.ClassB)"));
+        dm.internNames();
+        assertThat(dm.getMaterializedPath()).isEmpty();
+        assertThat(dm.getAllChildren(null)).contains(method);
+    }
+
+    @Test
+    void pathsAreComparedWithoutMaterializing() {
+        RootInformation root = new RootInformation();
+        Information<?> abc = root.findOrCreate("a.b.c", null, Information.Type.CLASS);
+        Information<?>[] nodes = {abc, abc.getParent(), root.findOrCreate("a.b-x", null, Information.Type.PACKAGE),
+                root.findOrCreate("a.bb", null, Information.Type.PACKAGE), root.findOrCreate("a.b.d", null, Information.Type.CLASS)};
+        abc.getParent().materializePath();
+        for (Information<?> first : nodes) {
+            for (Information<?> second : nodes) {
+                assertThat(Integer.signum(first.compareTo(second)))
+                        .as("%s <> %s", first.getPath(), second.getPath())
+                        .isEqualTo(first.getType() != second.getType() ? Integer.signum(first.getType().compareTo(second.getType()))
+                                : Integer.signum(first.getPath().compareTo(second.getPath())));
+            }
+        }
+        assertThat(abc.getMaterializedPath()).isNull();
+    }
+
+    @Test
+    void namesAreInterned() {
+        assertThat(caC.getStored().getName()).isSameAs(cbC.getStored().getName());
+        assertThat(caE.getStored().getName()).isSameAs(cabaseE.getStored().getName());
+        assertThat(new RootInformation().findOrCreate("proj2.packageA", null, Information.Type.PACKAGE).getName()).isSameAs(pa.getStored().getName());
+    }
+
     @Test
     void versionTest() {
         assertThat(dm.getProjects(null).iterator().next().getLatestVersion().toString()).isEqualTo("proj@v1.0.0");
@@ -83,4 +83,32 @@ public class DatamodelRelationsTest {
         assertThat(dm.getAllProjectDependenciesAggregated(null, true)).containsExactlyInAnyOrder(proj.getStored());
     }
 
+    @Test
+    void testDependents() {
+        for (int i = 0; i < 2; i++) {
+            assertThat(cb.getStored().getDependents(null)).containsExactlyInAnyOrder(caMb.getStored());
+            assertThat(cb.getStored().getAllDependents(null, true)).containsExactlyInAnyOrder(caMb.getStored(), caMa.getStored());
+            assertThat(pa.getStored().getAllDependents(null, false)).containsExactlyInAnyOrder(cbGia1.getStored(), cbCC.getStored());
+            assertThat(cca.getStored().getAllDependents(null, false)).containsExactlyInAnyOrder(ccC.getStored());
+            assertThat(cca.getStored().getAllDependentsAggregated(null, false)).containsExactlyInAnyOrder(ccC.getStored(), cc.getStored());
+            assertThat(cca.getStored().getAllDependentsAggregated(null, true)).containsExactlyInAnyOrder(ccC.getStored(), cc.getStored(), proj.getStored());
+            assertThat(pb.getStored().getAllDependentsAggregated(null, false)).containsExactlyInAnyOrder(caMb.getStored(), caMa.getStored(), ca.getStored(), pa.getStored());
+            assertThat(proj.getStored().getAllDependents(null, false)).isEmpty();
+            assertThat(proj.getStored().getAllDependents(null, true)).containsExactlyInAnyOrder(
+                    cbM.getStored(), cbGia1.getStored(), caMb.getStored(), ccC.getStored(), caMa.getStored(), cbCC.getStored());
+            dm.rebuildDependents(); // as after loading from database
+        }
+    }
+
+    @Test
+    void dependentsSurviveExistenceChanges() {
+        VersionInformation v1 = proj.getStored().getLatestVersion();
+        assertThat(ccRca.getStored().addClassDependency(cb.getStored(), null)).isTrue();
+        VersionInformation v2 = proj.getStored().addVersion("v2.0.0");
+        assertThat(ccRca.getStored().addClassDependency(cb.getStored(), v2)).isFalse();
+        assertThat(cb.getStored().getDependentCount()).isEqualTo(2);
+        assertThat(cb.getStored().getDependents(v1)).containsExactlyInAnyOrder(caMb.getStored(), ccRca.getStored());
+        assertThat(cb.getStored().getDependents(v2)).containsExactlyInAnyOrder(caMb.getStored(), ccRca.getStored());
+    }
+
 }
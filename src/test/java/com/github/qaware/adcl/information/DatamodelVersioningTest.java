@@ -1,7 +1,6 @@
 package com.github.qaware.adcl.information;
 
 import com.github.qaware.adcl.PomDependencyExtractor;
-import com.github.qaware.adcl.depex.DependencyExtractor;
 import com.github.qaware.adcl.pm.MavenProjectManager;
 import com.github.qaware.adcl.report.DiffExtractor;
 import org.apache.maven.shared.invoker.MavenInvocationException;
@@ -112,11 +111,27 @@ public class DatamodelVersioningTest {
         );
     }
 
-    @NotNull
-    private VersionInformation runDepEx(@NotNull ProjectInformation project, String folderName, String versionName) throws IOException {
-        VersionInformation result = project.addVersion(versionName);
-        new DependencyExtractor(Paths.get("src", "test", "resources", "testclassfiles2", folderName, "target", "classes"), result, null).runAnalysis();
-        return result;
+    @Test
+    void subtreeChangesTest() throws IOException {
+        RootInformation root = new RootInformation();
+        ProjectInformation project = new ProjectInformation(root, "proj", true, "<unknown>");
+        VersionInformation v1 = runDepEx(project, "testproject", "0.0.1");
+        VersionInformation v2 = runDepEx(project, "testproject2", "0.0.2");
+        VersionInformation v3 = runDepEx(project, "testproject3", "0.0.3");
+        Information<?> packageA = project.find("packageA", null);
+        Information<?> packageB = project.find("packageB", null);
+        assertThat(packageA).isNotNull();
+        assertThat(packageB).isNotNull();
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(project.hasSubtreeChangesBetween(v2, v3)).isTrue();
+            assertThat(packageA.hasSubtreeChangesBetween(v2, v3)).isTrue();
+            assertThat(packageA.hasSubtreeChangesBetween(v3, v2)).isTrue();
+            assertThat(packageB.hasSubtreeChangesBetween(v2, v3)).isFalse();
+            assertThat(packageB.hasSubtreeChangesBetween(v1, v2)).isTrue();
+            assertThat(packageA.hasSubtreeChangesBetween(v3, v3)).isFalse();
+            root.rebuildSubtreeChanges(); // as after loading from database
+        }
     }
 
     @Test
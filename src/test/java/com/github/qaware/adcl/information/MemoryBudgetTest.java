@@ -0,0 +1,100 @@
+package com.github.qaware.adcl.information;
+
+import com.github.qaware.adcl.depex.DependencyExtractor;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemoryBudgetTest {
+    private static final Path TESTCLASSES = Paths.get("src", "test", "resources", "testclassfiles2");
+
+    @Test
+    void statisticsCountNodesAndEdges() throws IOException {
+        RootInformation root = analyse();
+        ModelStatistics statistics = ModelStatistics.of(root);
+
+        assertThat(statistics.getNodeCounts()).containsEntry(Information.Type.ROOT, 1).containsKeys(Information.Type.PROJECT, Information.Type.CLASS, Information.Type.METHOD);
+        assertThat(statistics.getNodeCount()).isEqualTo(root.getAllChildren(null).size() + 1);
+        // every node except the root has a parent relation
+        assertThat(statistics.getEdgeCounts()).containsEntry("ParentInformation", statistics.getNodeCount() - 1).containsKeys("ClassDependency", "MethodDependency");
+        assertThat(statistics.getVersionMarkerCount()).isPositive();
+        assertThat(statistics.getIndexEntryCount()).isPositive();
+        for (ModelStatistics.Component component : ModelStatistics.Component.values()) assertThat(statistics.getBytes(component)).isPositive();
+        assertThat(statistics.getTotalBytes()).isGreaterThan(statistics.getBytes(statistics.getLargestComponent()));
+    }
+
+    @Test
+    void compactionKeepsContent() throws IOException {
+        RootInformation root = analyse();
+        ModelStatistics before = ModelStatistics.of(root);
+        MemoryBudget.compact(root);
+        ModelStatistics after = ModelStatistics.of(root);
+
+        RootInformation expected = analyse();
+        assertThat(root.deepEquals(expected)).overridingErrorMessage("Not deep equal!\nExpected:\n%s\n\nActual:\n%s", expected, root).isTrue();
+        assertThat(after.getIndexEntryCount()).isZero();
+        assertThat(after.getBytes(ModelStatistics.Component.CLASS_INDEX)).isZero();
+        assertThat(after.getVersionMarkerCount()).isEqualTo(before.getVersionMarkerCount());
+        assertThat(after.getEdgeCounts()).isEqualTo(before.getEdgeCounts());
+    }
+
+    @Test
+    void compactionReplacesVersionCopies() {
+        RootInformation root = new RootInformation();
+        ProjectInformation project = new ProjectInformation(root, "proj", true, "1");
+        ClassInformation<?> from = (ClassInformation<?>) project.findOrCreate("a.From", null, Information.Type.CLASS);
+        ClassInformation<?> to = (ClassInformation<?>) project.findOrCreate("a.To", null, Information.Type.CLASS);
+        from.addClassDependency(to, null);
+        VersionInformation second = project.addVersion("2");
+        RelationshipInformation<?> relation = from.getDependencyRelations().findAny().orElseThrow(IllegalStateException::new);
+        relation.setExists(new VersionInformation("2", project), false);
+
+        Map<VersionInformation, VersionInformation> canonical = new HashMap<>();
+        project.getVersions().forEach(v -> canonical.put(v, v));
+        assertThat(relation.compactVersionMarkers(canonical)).isEqualTo(1);
+        assertThat(relation.compactVersionMarkers(canonical)).isZero();
+        assertThat(relation.getVersionMarkers().keySet()).anyMatch(v -> v == second);
+        assertThat(relation.exists(second)).isFalse();
+        assertThat(relation.exists(project.getVersion("1"))).isTrue();
+    }
+
+    @Test
+    void enforceBudget() throws IOException, MemoryBudget.ExceededException {
+        RootInformation root = analyse();
+        long size = ModelStatistics.of(root).getTotalBytes();
+
+        assertThat(new MemoryBudget(size).enforce(root).getIndexEntryCount()).isPositive();
+        // compaction releases the class index, which is enough
+        assertThat(new MemoryBudget(size - 1).enforce(root).getIndexEntryCount()).isZero();
+        assertThatThrownBy(() -> new MemoryBudget(1024).enforce(root))
+                .isInstanceOf(MemoryBudget.ExceededException.class).hasMessageContaining("memory budget").hasMessageContaining("nodes");
+    }
+
+    @Test
+    void parseSizes() {
+        assertThat(MemoryBudget.parse("1024")).isEqualTo(1024);
+        assertThat(MemoryBudget.parse("512k")).isEqualTo(512L << 10);
+        assertThat(MemoryBudget.parse(" 3M ")).isEqualTo(3L << 20);
+        assertThat(MemoryBudget.parse("4g")).isEqualTo(4L << 30);
+        assertThatThrownBy(() -> MemoryBudget.parse("0")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MemoryBudget.parse("lots")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @NotNull
+    private static RootInformation analyse() throws IOException {
+        RootInformation root = new RootInformation();
+        ProjectInformation project = new ProjectInformation(root, "proj", true, "v1");
+        new DependencyExtractor(TESTCLASSES.resolve("testproject").resolve("target").resolve("classes"), project.getLatestVersion(), null).runAnalysis();
+        new DependencyExtractor(TESTCLASSES.resolve("testproject2").resolve("target").resolve("classes"), project.addVersion("v2"), null).runAnalysis();
+        new DependencyExtractor(TESTCLASSES.resolve("testproject3").resolve("target").resolve("classes"), project.addVersion("v3"), null).runAnalysis();
+        return root;
+    }
+}
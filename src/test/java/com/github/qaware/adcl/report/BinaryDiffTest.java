@@ -0,0 +1,70 @@
+package com.github.qaware.adcl.report;
+
+import com.github.qaware.adcl.information.ProjectInformation;
+import com.github.qaware.adcl.information.RootInformation;
+import com.github.qaware.adcl.information.VersionInformation;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.qaware.adcl.util.DataGenerationUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryDiffTest {
+    @Test
+    void roundTripTest() throws IOException {
+        ProjectInformation project = new ProjectInformation(new RootInformation(), "proj", true, "<unknown>");
+        VersionInformation v1 = runDepEx(project, "testproject", "0.0.1");
+        VersionInformation v2 = runDepEx(project, "testproject2", "0.0.2");
+        DiffExtractor diffExtractor = new DiffExtractor(v1, v2);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        diffExtractor.writeBinaryDiff(out, true, true);
+        assertThat(out.size()).isLessThan(diffExtractor.generateDependencyDiffAsJson(true, true).length() / 2);
+
+        List<DiffExtractor.DependencyEntry> dependencies = new ArrayList<>();
+        try (BinaryDiffReader reader = new BinaryDiffReader(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(reader.getProjectName()).isEqualTo("proj");
+            assertThat(reader.getProjectVersion()).isEqualTo("0.0.2");
+            reader.read(new BinaryDiffReader.Handler() {
+                @Override
+                public void dependency(@NotNull DiffExtractor.DependencyEntry entry) {
+                    dependencies.add(entry);
+                }
+            });
+        }
+        assertThat(describe(dependencies)).isNotEmpty().isEqualTo(describe(diffExtractor.generateDependencyDiff(true, true)));
+    }
+
+    @Test
+    void pomRoundTripTest() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BinaryDiffWriter writer = new BinaryDiffWriter(out, "proj", "1.0")) {
+            writer.writePomDependency(new DiffExtractor.PomDependencyEntry(null, "org-example:removed"));
+            writer.writePomDependency(new DiffExtractor.PomDependencyEntry("2.0", "org-example:updated").flagUpdated());
+            writer.writePomDependency(new DiffExtractor.PomDependencyEntry("1.0", "org-example:added"));
+        }
+
+        List<String> read = new ArrayList<>();
+        try (BinaryDiffReader reader = new BinaryDiffReader(new ByteArrayInputStream(out.toByteArray()))) {
+            reader.read(new BinaryDiffReader.Handler() {
+                @Override
+                public void pomDependency(@NotNull DiffExtractor.PomDependencyEntry entry) {
+                    read.add(entry + (entry.updated ? " (updated)" : ""));
+                }
+            });
+        }
+        assertThat(read).containsExactly("-> null@org-example:removed", "-> 2.0@org-example:updated (updated)", "-> 1.0@org-example:added");
+    }
+
+    @Test
+    void invalidInputTest() {
+        assertThatThrownBy(() -> new BinaryDiffReader(new ByteArrayInputStream("{}".getBytes()))).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.qaware.adcl.report;
+
+import com.github.qaware.adcl.information.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static com.github.qaware.adcl.util.DataGenerationUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings({"unused", "SpellCheckingInspection"})
+class CycleTrackerTest {
+    Ref<ProjectInformation, RootInformation> proj;
+    Ref<PackageInformation<ProjectInformation>, ProjectInformation> pa, pb;
+    Ref<ClassInformation<PackageInformation<?>>, PackageInformation<?>> ca, cb;
+    Ref<ClassInformation<ProjectInformation>, ProjectInformation> cc, cca;
+    Ref<MethodInformation, ClassInformation<?>> caC, caMb, cbCC, cbGia1, ccC, ccaGcc;
+    private RootInformation dm;
+
+    @BeforeEach
+    void generateDataModel() {
+        dm = root(
+                proj = project("proj", true, "v1",
+                        pa = pir("packageA",
+                                ca = cio("ClassA", false,
+                                        caC = mi("<init>()"),
+                                        caMb = mi("methodB(packageB.ClassB)")
+                                )
+                        ),
+                        pb = pir("packageB",
+                                cb = cio("ClassB", true,
+                                        cbCC = mi("<clinit>()"),
+                                        cbGia1 = mi("getInstanceA()")
+                                )
+                        ),
+                        cc = cir("ClassC", false,
+                                ccC = mi("<init>()")
+                        ),
+                        cca = cir("ClassC$1", false,
+                                ccaGcc = mi("getClassC()")
+                        )
+                )
+        );
+
+        p(caMb, cb);
+        p(cbCC, caC);
+        p(ccC, cca);
+        p(ccaGcc, cc);
+    }
+
+    @Test
+    void incrementalTest() {
+        ProjectInformation project = proj.getStored();
+        VersionInformation v1 = project.getVersion("v1");
+        CycleTracker packages = new CycleTracker(project, v1, CycleTracker.Level.PACKAGE);
+        CycleTracker classes = new CycleTracker(project, v1, CycleTracker.Level.CLASS);
+        assertThat(packages.getCycles()).containsExactly(new HashSet<>(Arrays.asList(pa.getStored(), pb.getStored())));
+        // inner classes belong to their outer class
+        assertThat(classes.getCycles()).containsExactly(new HashSet<>(Arrays.asList(ca.getStored(), cb.getStored())));
+
+        VersionInformation v2 = project.addVersion("v2");
+        cbCC.getStored().getDependencyRelations().filter(r -> r.getTo() == caC.getStored()).forEach(r -> r.setExists(v2, false));
+        List<CycleTracker.CycleEntry> changes = packages.advance(v2);
+        assertThat(changes).hasSize(1);
+        assertThat(changes.get(0).change).isFalse();
+        assertThat(changes.get(0).members).containsExactly("proj.packageA", "proj.packageB");
+        assertThat(packages.getCycles()).isEmpty();
+        assertThat(classes.advance(v2)).extracting(e -> e.change).containsExactly(false);
+
+        VersionInformation v3 = project.addVersion("v3");
+        cbGia1.getStored().addClassDependency(ca.getStored(), v3);
+        changes = packages.advance(v3);
+        assertThat(changes).hasSize(1);
+        assertThat(changes.get(0).change).isTrue();
+        assertThat(changes.get(0).level).isEqualTo(CycleTracker.Level.PACKAGE);
+        assertThat(classes.advance(v3)).extracting(e -> e.members).containsExactly(Arrays.asList("proj.packageA.ClassA", "proj.packageB.ClassB"));
+
+        assertThat(CycleTracker.diff(v1, v3)).isEmpty();
+        assertThat(CycleTracker.diff(v2, v3)).extracting(e -> e.level).containsExactly(CycleTracker.Level.PACKAGE, CycleTracker.Level.CLASS);
+        assertThat(new CycleTracker(project, v3, CycleTracker.Level.PACKAGE).getCycles()).isEqualTo(packages.getCycles());
+        assertThat(new CycleTracker(project, v2, CycleTracker.Level.CLASS).advance(v1)).extracting(e -> e.change).containsExactly(true);
+    }
+
+    @Test
+    void diffAdvancesLastTrackers() {
+        ProjectInformation project = proj.getStored();
+        VersionInformation v1 = project.getVersion("v1");
+        VersionInformation v2 = project.addVersion("v2");
+        cbCC.getStored().getDependencyRelations().filter(r -> r.getTo() == caC.getStored()).forEach(r -> r.setExists(v2, false));
+        assertThat(CycleTracker.diff(v1, v2)).extracting(e -> e.change).containsExactly(false, false);
+        CycleTracker classes = CycleTracker.lastTracker(CycleTracker.Level.CLASS);
+        assertThat(classes.getVersion()).isSameAs(v2);
+
+        VersionInformation v3 = project.addVersion("v3");
+        cbGia1.getStored().addClassDependency(ca.getStored(), v3);
+        assertThat(CycleTracker.diff(v2, v3)).extracting(e -> e.change).containsExactly(true, true);
+        assertThat(CycleTracker.lastTracker(CycleTracker.Level.CLASS)).isSameAs(classes);
+        assertThat(classes.getCycles()).isEqualTo(new CycleTracker(project, v3, CycleTracker.Level.CLASS).getCycles());
+
+        // trackers at another version are replaced
+        assertThat(CycleTracker.diff(v1, v3)).isEmpty();
+        assertThat(CycleTracker.lastTracker(CycleTracker.Level.CLASS)).isNotSameAs(classes);
+        CycleTracker.clearCache();
+        assertThat(CycleTracker.lastTracker(CycleTracker.Level.CLASS)).isNull();
+    }
+
+    @Test
+    void extractedVersionsTest() throws IOException {
+        ProjectInformation project = new ProjectInformation(new RootInformation(), "proj", true, "<unknown>");
+        for (String folderName : Arrays.asList("testproject", "testproject2", "testproject3", "testproject")) {
+            runDepEx(project, folderName, folderName + "-" + project.getVersions().size());
+        }
+        List<VersionInformation> versions = project.getVersions().subList(1, project.getVersions().size());
+        for (CycleTracker.Level level : CycleTracker.Level.values()) {
+            CycleTracker tracker = new CycleTracker(project, versions.get(0), level);
+            for (VersionInformation version : versions.subList(1, versions.size())) {
+                tracker.advance(version);
+                assertThat(tracker.getCycles()).isEqualTo(new CycleTracker(project, version, level).getCycles());
+            }
+        }
+        assertThat(CycleTracker.diff(versions.get(0), versions.get(versions.size() - 1))).isEqualTo(Collections.emptyList());
+    }
+}
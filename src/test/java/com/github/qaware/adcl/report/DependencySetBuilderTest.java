@@ -0,0 +1,81 @@
+package com.github.qaware.adcl.report;
+
+import com.github.qaware.adcl.information.Information;
+import com.github.qaware.adcl.information.ProjectInformation;
+import com.github.qaware.adcl.information.RootInformation;
+import com.github.qaware.adcl.information.VersionInformation;
+import com.github.qaware.adcl.util.Utils;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.qaware.adcl.util.DataGenerationUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DependencySetBuilderTest {
+    private static ProjectInformation project;
+    // the analysed versions, without the empty initial version
+    private static List<VersionInformation> versions;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        project = new ProjectInformation(new RootInformation(), "proj", true, "<unknown>");
+        versions = Arrays.asList(
+                runDepEx(project, "testproject", "0.0.1"),
+                runDepEx(project, "testproject2", "0.0.2"),
+                runDepEx(project, "testproject3", "0.0.3"));
+    }
+
+    @Test
+    void sameAsRecursiveExpansionTest() {
+        boolean[] flags = {false, true};
+        for (VersionInformation version : versions) {
+            for (boolean aggregateDepStart : flags) {
+                for (boolean aggregateDepEnd : flags) {
+                    Set<String> expected = describe(expand(project, version, aggregateDepStart, aggregateDepEnd).collect(Collectors.toSet()));
+                    Set<String> actual = describe(new DependencySetBuilder(version, aggregateDepStart, aggregateDepEnd).build(project));
+                    assertThat(actual).isNotEmpty().isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    /**
+     * The naive recursive expansion formerly used by {@link DiffExtractor}, kept as reference
+     */
+    @NotNull
+    private static Stream<DiffExtractor.DependencyEntry> expand(@NotNull Information<?> info, VersionInformation at, boolean aggregateDepStart, boolean aggregateDepEnd) {
+        Set<Information<?>> deps = Utils.concatStreams(
+                info.getMethodDependencies(at).stream(),
+                info.getClassDependencies(at).stream(),
+                info.getPackageDependencies(at).stream(),
+                info.getProjectDependencies(at).stream()
+        ).collect(Collectors.toSet());
+
+        Stream<DiffExtractor.DependencyEntry> ownEntries = deps.stream().map(i -> entry(false, info, false, i));
+        if (aggregateDepEnd) ownEntries = Stream.concat(ownEntries, deps.stream().flatMap(DependencySetBuilderTest::allParents).map(i -> entry(false, info, true, i)));
+
+        Stream<DiffExtractor.DependencyEntry> childEntries = info.getDirectChildren(at).stream().flatMap(i -> expand(i, at, aggregateDepStart, aggregateDepEnd));
+        if (aggregateDepStart) childEntries = childEntries.flatMap(e -> Stream.of(e,
+                new DiffExtractor.DependencyEntry(true, info.getType(), info.getPath(), info.getName(), e.syntheticEnd, e.endType, e.endPath, e.endName)
+        ));
+
+        return Stream.concat(ownEntries, childEntries);
+    }
+
+    private static Stream<Information<?>> allParents(@NotNull Information<?> info) {
+        return info.getParent().getType() == Information.Type.ROOT ? Stream.empty() : Stream.concat(allParents(info.getParent()), Stream.of(info.getParent()));
+    }
+
+    @NotNull
+    private static DiffExtractor.DependencyEntry entry(boolean syntheticStart, @NotNull Information<?> start, boolean syntheticEnd, @NotNull Information<?> end) {
+        return new DiffExtractor.DependencyEntry(syntheticStart, start.getType(), start.getPath(), start.getName(), syntheticEnd, end.getType(), end.getPath(), end.getName());
+    }
+}
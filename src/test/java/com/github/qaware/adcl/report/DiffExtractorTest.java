@@ -0,0 +1,56 @@
+package com.github.qaware.adcl.report;
+
+import com.github.qaware.adcl.information.ProjectInformation;
+import com.github.qaware.adcl.information.RootInformation;
+import com.github.qaware.adcl.information.VersionInformation;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static com.github.qaware.adcl.util.DataGenerationUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiffExtractorTest {
+    private static ProjectInformation project;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        project = new ProjectInformation(new RootInformation(), "proj", true, "<unknown>");
+        runDepEx(project, "testproject", "0.0.1");
+        runDepEx(project, "testproject2", "0.0.2");
+        runDepEx(project, "testproject3", "0.0.3");
+    }
+
+    @Test
+    void parallelDiffTest() throws IOException {
+        VersionInformation[][] versionPairs = {
+                {null, project.getVersion("0.0.1")},
+                {project.getVersion("0.0.1"), project.getVersion("0.0.2")},
+                {project.getVersion("0.0.2"), project.getVersion("0.0.3")},
+                {project.getVersion("0.0.3"), project.getVersion("0.0.1")}
+        };
+        boolean[] flags = {false, true};
+        for (VersionInformation[] versions : versionPairs) {
+            for (boolean aggregateDepStart : flags) {
+                for (boolean aggregateDepEnd : flags) {
+                    // the difference of the full dependency sets of both versions
+                    Set<String> expected = describe(DiffExtractor.generateDependencyDiff(
+                            versions[0] == null ? Collections.emptySet() : new DependencySetBuilder(versions[0], aggregateDepStart, aggregateDepEnd).build(project),
+                            new DependencySetBuilder(versions[1], aggregateDepStart, aggregateDepEnd).build(project)));
+                    assertThat(expected).isNotEmpty();
+                    assertThat(describe(new DiffExtractor(versions[0], versions[1], false).generateDependencyDiff(aggregateDepStart, aggregateDepEnd))).isEqualTo(expected);
+                    assertThat(describe(new DiffExtractor(versions[0], versions[1], true).generateDependencyDiff(aggregateDepStart, aggregateDepEnd))).isEqualTo(expected);
+                    List<DiffExtractor.DependencyEntry> streamed = new ArrayList<>();
+                    new DiffExtractor(versions[0], versions[1], true).streamDependencyDiff(aggregateDepStart, aggregateDepEnd, streamed::add);
+                    assertThat(streamed).doesNotHaveDuplicates();
+                    assertThat(describe(streamed)).isEqualTo(expected);
+                }
+            }
+        }
+    }
+}
@@ -1,17 +1,33 @@
 package com.github.qaware.adcl.report;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.qaware.adcl.information.ProjectInformation;
+import com.github.qaware.adcl.information.RootInformation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
+import static com.github.qaware.adcl.util.DataGenerationUtil.*;
 import static org.assertj.core.api.Assertions.assertThat;
 
 class HTMLReporterTest {
+    private static final String DEPENDENCIES = "var data_dependencies = ";
     private DiffExtractor.Diff diff;
 
     @BeforeEach
@@ -26,4 +42,63 @@ class HTMLReporterTest {
 
         assertThat(tmpDir.resolve("adcl_report_de-fhbingen_epro_1.1-SNAPSHOT.html")).hasSameContentAs(Paths.get("src", "test", "resources", "report", "adcl_report_expected.html"));
     }
+
+    @Test
+    void generateStreamedReportTest() throws IOException {
+        ProjectInformation project = new ProjectInformation(new RootInformation(), "proj", true, "<unknown>");
+        DiffExtractor diffExtractor = new DiffExtractor(runDepEx(project, "testproject", "0.0.1"), runDepEx(project, "testproject2", "0.0.2"));
+
+        Path stringDir = Files.createTempDirectory("adcl_HtmlReporterTest");
+        HTMLReporter.generateReport(diffExtractor.generateDiff(true, true), stringDir);
+        Path streamDir = Files.createTempDirectory("adcl_HtmlReporterTest");
+        HTMLReporter.generateReport(diffExtractor, true, true, streamDir);
+
+        // the streamed dependencies follow the order they are computed in
+        String streamed = new String(Files.readAllBytes(streamDir.resolve("adcl_report_proj_0.0.2.html")), StandardCharsets.UTF_8);
+        String collected = new String(Files.readAllBytes(stringDir.resolve("adcl_report_proj_0.0.2.html")), StandardCharsets.UTF_8);
+        assertThat(dependencies(streamed)).isNotEmpty().containsExactlyInAnyOrderElementsOf(dependencies(collected));
+        assertThat(withoutDependencies(streamed)).isEqualTo(withoutDependencies(collected));
+    }
+
+    private static List<JsonNode> dependencies(String report) throws IOException {
+        List<JsonNode> result = new ArrayList<>();
+        int start = report.indexOf(DEPENDENCIES) + DEPENDENCIES.length();
+        try (JsonParser parser = new ObjectMapper().getFactory().createParser(report.substring(start))) {
+            JsonNode entries = new ObjectMapper().readTree(parser);
+            entries.forEach(result::add);
+        }
+        return result;
+    }
+
+    private static String withoutDependencies(String report) throws IOException {
+        int start = report.indexOf(DEPENDENCIES) + DEPENDENCIES.length();
+        try (JsonParser parser = new ObjectMapper().getFactory().createParser(report.substring(start))) {
+            new ObjectMapper().readTree(parser);
+            return report.substring(0, start) + report.substring(start + (int) parser.getCurrentLocation().getCharOffset());
+        }
+    }
+
+    @Test
+    void generateShardedReportTest() throws IOException {
+        ProjectInformation project = new ProjectInformation(new RootInformation(), "proj", true, "<unknown>");
+        DiffExtractor diffExtractor = new DiffExtractor(runDepEx(project, "testproject", "0.0.1"), runDepEx(project, "testproject2", "0.0.2"));
+
+        Path tmpDir = Files.createTempDirectory("adcl_HtmlReporterTest");
+        HTMLReporter.generateShardedReport(diffExtractor, true, true, tmpDir);
+
+        assertThat(new String(Files.readAllBytes(tmpDir.resolve("adcl_report_proj_0.0.2.html")), StandardCharsets.UTF_8))
+                .contains("var data_index = ").contains("\"file\" : \"adcl_report_proj_0.0.2_shards/0.js\"").doesNotContain("data_dependencies =");
+
+        Set<String> sharded = new HashSet<>();
+        try (Stream<Path> shards = Files.list(tmpDir.resolve("adcl_report_proj_0.0.2_shards"))) {
+            for (Path shard : (Iterable<Path>) shards::iterator) {
+                String script = new String(Files.readAllBytes(shard), StandardCharsets.UTF_8);
+                assertThat(script).startsWith("adclShardLoaded(");
+                byte[] compressed = Base64.getDecoder().decode(script.substring(script.indexOf('"') + 1, script.lastIndexOf('"')));
+                JsonNode entries = new ObjectMapper().readTree(new GZIPInputStream(new ByteArrayInputStream(compressed)));
+                entries.forEach(e -> sharded.add(e.get("usedByPath").asText() + "->" + e.get("dependencyPath").asText()));
+            }
+        }
+        assertThat(sharded).isEqualTo(diffExtractor.generateDependencyDiff(true, true).stream().map(e -> e.startPath + "->" + e.endPath).collect(Collectors.toSet()));
+    }
 }
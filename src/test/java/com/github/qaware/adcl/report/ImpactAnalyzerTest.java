@@ -0,0 +1,99 @@
+package com.github.qaware.adcl.report;
+
+import com.github.qaware.adcl.information.*;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import static com.github.qaware.adcl.util.DataGenerationUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings({"unused", "SpellCheckingInspection"})
+class ImpactAnalyzerTest {
+    Ref<ProjectInformation, RootInformation> proj;
+    Ref<PackageInformation<ProjectInformation>, ProjectInformation> pa, pb;
+    Ref<ClassInformation<PackageInformation<?>>, PackageInformation<?>> ca, cabase, cb;
+    Ref<ClassInformation<ProjectInformation>, ProjectInformation> cc, cca;
+    Ref<MethodInformation, ClassInformation<?>> caC, caMa, caMb, caE, cbC, cbCC, cbGia1, ccC, ccRca, ccaC, ccaGcc;
+    private RootInformation dm;
+
+    @BeforeEach
+    void generateDataModel() {
+        dm = root(
+                proj = project("proj", true, "v1.0.0",
+                        pa = pir("packageA",
+                                ca = cio("ClassA", false,
+                                        caC = mi("<init>()"),
+                                        caMa = mi("methodA()"),
+                                        caMb = mi("methodB(packageB.ClassB)"),
+                                        caE = mi("empty()")
+                                ),
+                                cabase = cio("ClassABase", false)
+                        ),
+                        pb = pir("packageB",
+                                cb = cio("ClassB", true,
+                                        cbC = mi("<init>()"),
+                                        cbCC = mi("<clinit>()"),
+                                        cbGia1 = mi("getInstanceA()")
+                                )
+                        ),
+                        cc = cir("ClassC", false,
+                                ccC = mi("<init>()"),
+                                ccRca = mi("retrieveClassA()")
+                        ),
+                        cca = cir("ClassC$1", false,
+                                ccaC = mi("<init>(ClassC)"),
+                                ccaGcc = mi("getClassC()")
+                        )
+                )
+        );
+
+        p(cbGia1, pa);
+        p(caMb, cb);
+        p(ccC, cca, ccaC);
+        p(caMa, cbC);
+        p(cbCC, caC);
+    }
+
+    @Test
+    void classImpactTest() {
+        ImpactAnalyzer analyzer = new ImpactAnalyzer(proj.getStored(), proj.getStored().getLatestVersion(), DependencyGraph.Granularity.CLASS);
+        assertThat(analyzer.getGraph().size()).isEqualTo(5);
+
+        ImpactAnalyzer.Impact impact = analyzer.analyse(Collections.singletonList("packageB/ClassB.class"));
+        assertThat(impact.getClasses()).containsExactlyInAnyOrder(ca.getStored(), cb.getStored());
+        assertThat(impact.getPackages()).containsExactlyInAnyOrder(pa.getStored(), pb.getStored());
+        assertThat(impact.getMethods()).isEmpty();
+
+        impact = analyzer.analyse(Arrays.asList("ClassC$1", "packageX.Unknown"));
+        assertThat(impact.getClasses()).containsExactlyInAnyOrder(cc.getStored(), cca.getStored());
+        assertThat(impact.getPackages()).isEmpty();
+        assertThat(impact.getUnresolved()).containsExactly("packageX.Unknown");
+
+        assertThat(analyzer.analyse(Collections.singletonList("packageA.ClassABase")).getClasses()).containsExactly(cabase.getStored());
+    }
+
+    @Test
+    void methodImpactTest() {
+        ImpactAnalyzer analyzer = new ImpactAnalyzer(proj.getStored(), proj.getStored().getLatestVersion(), DependencyGraph.Granularity.METHOD);
+
+        ImpactAnalyzer.Impact impact = analyzer.analyse(Collections.singletonList("ClassC$1"));
+        assertThat(paths(impact.getMethods())).containsExactlyInAnyOrder(
+                "proj.ClassC$1.<init>(ClassC)", "proj.ClassC$1.getClassC()", "proj.ClassC.<init>()");
+        assertThat(impact.getClasses()).containsExactlyInAnyOrder(cc.getStored(), cca.getStored());
+
+        impact = analyzer.analyse(Collections.singletonList("packageA.ClassA"));
+        assertThat(impact.getMethods()).containsExactlyInAnyOrder(caC.getStored(), caMa.getStored(), caMb.getStored(), caE.getStored(), cbCC.getStored());
+        assertThat(impact.getClasses()).containsExactlyInAnyOrder(ca.getStored(), cb.getStored());
+    }
+
+    @NotNull
+    private static Collection<String> paths(@NotNull Collection<? extends Information<?>> nodes) {
+        return nodes.stream().map(Information::getPath).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.qaware.adcl.report;
+
+import com.github.qaware.adcl.information.ProjectInformation;
+import com.github.qaware.adcl.information.RootInformation;
+import com.github.qaware.adcl.information.VersionInformation;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.github.qaware.adcl.util.DataGenerationUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RangeDiffExtractorTest {
+    private static ProjectInformation project;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        project = new ProjectInformation(new RootInformation(), "proj", true, "<unknown>");
+        runDepEx(project, "testproject", "0.0.1");
+        runDepEx(project, "testproject2", "0.0.2");
+        runDepEx(project, "testproject3", "0.0.3");
+        runDepEx(project, "testproject", "0.0.4");
+    }
+
+    @Test
+    void timelineTest() {
+        List<VersionInformation> versions = project.getVersions();
+        for (int from = 0; from < versions.size(); from++) {
+            for (int to = from + 1; to < versions.size(); to++) {
+                Map<String, Set<DiffExtractor.DependencyEntry>> timeline = new RangeDiffExtractor(versions.get(from), versions.get(to)).generateDependencyTimeline();
+                assertThat(timeline.keySet()).containsExactlyElementsOf(versions.subList(from + 1, to + 1).stream().map(VersionInformation::getName).collect(Collectors.toList()));
+                for (int i = from + 1; i <= to; i++) {
+                    Set<String> expected = describe(new DiffExtractor(versions.get(i - 1), versions.get(i), false).generateDependencyDiff(false, false));
+                    assertThat(describe(timeline.get(versions.get(i).getName()))).isNotEmpty().isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    void invalidRangeTest() {
+        assertThatThrownBy(() -> new RangeDiffExtractor(project.getVersion("0.0.2"), project.getVersion("0.0.1"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RangeDiffExtractor(project.getVersion("0.0.2"), project.getVersion("0.0.2"))).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.qaware.adcl.report;
+
+import com.github.qaware.adcl.information.*;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.function.IntFunction;
+
+import static com.github.qaware.adcl.util.DataGenerationUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings({"unused", "SpellCheckingInspection"})
+class ReachabilityTest {
+    Ref<ProjectInformation, RootInformation> proj;
+    Ref<PackageInformation<ProjectInformation>, ProjectInformation> pa, pb;
+    Ref<ClassInformation<PackageInformation<?>>, PackageInformation<?>> ca, cabase, cb;
+    Ref<ClassInformation<ProjectInformation>, ProjectInformation> cc, cca;
+    Ref<MethodInformation, ClassInformation<?>> caC, caMa, caMb, caE, cbC, cbCC, cbGia1, ccC, ccRca, ccaC, ccaGcc;
+    private RootInformation dm;
+
+    @BeforeEach
+    void generateDataModel() {
+        dm = root(
+                proj = project("proj", true, "v1.0.0",
+                        pa = pir("packageA",
+                                ca = cio("ClassA", false,
+                                        caC = mi("<init>()"),
+                                        caMa = mi("methodA()"),
+                                        caMb = mi("methodB(packageB.ClassB)"),
+                                        caE = mi("empty()")
+                                ),
+                                cabase = cio("ClassABase", false)
+                        ),
+                        pb = pir("packageB",
+                                cb = cio("ClassB", true,
+                                        cbC = mi("<init>()"),
+                                        cbCC = mi("<clinit>()"),
+                                        cbGia1 = mi("getInstanceA()")
+                                )
+                        ),
+                        cc = cir("ClassC", false,
+                                ccC = mi("<init>()"),
+                                ccRca = mi("retrieveClassA()")
+                        ),
+                        cca = cir("ClassC$1", false,
+                                ccaC = mi("<init>(ClassC)"),
+                                ccaGcc = mi("getClassC()")
+                        )
+                )
+        );
+
+        p(cbGia1, pa);
+        p(caMb, cb);
+        p(ccC, cca, ccaC);
+        p(caMa, cbC);
+        p(cbCC, caC);
+        p(ccRca, ca);
+    }
+
+    @Test
+    void classReachabilityTest() {
+        DependencyGraph graph = DependencyGraph.build(proj.getStored(), proj.getStored().getLatestVersion(), DependencyGraph.Granularity.CLASS);
+        Reachability reachability = graph.getReachability();
+        assertThat(graph.getReachability()).isSameAs(reachability);
+
+        int a = graph.getId("proj.packageA.ClassA"), b = graph.getId("proj.packageB.ClassB"), c = graph.getId("proj.ClassC");
+        assertThat(reachability.componentCount()).isEqualTo(4);
+        assertThat(reachability.componentOf(a)).isEqualTo(reachability.componentOf(b));
+        assertThat(reachability.isInCycle(a)).isTrue();
+        assertThat(reachability.isInCycle(c)).isFalse();
+        assertThat(reachability.getMembers(reachability.componentOf(a))).containsExactlyInAnyOrder(a, b);
+
+        assertThat(graph.getNodes(reachability.reachableFrom(c))).containsExactlyInAnyOrder(cc.getStored(), cca.getStored(), ca.getStored(), cb.getStored());
+        assertThat(graph.getNodes(reachability.reachableFrom(b))).containsExactlyInAnyOrder(ca.getStored(), cb.getStored());
+        assertThat(reachability.reaches(c, b)).isTrue();
+        assertThat(reachability.reaches(b, c)).isFalse();
+        assertThat(reachability.reaches(a, b)).isTrue();
+    }
+
+    @Test
+    void closuresEqualTraversalTest() {
+        DependencyGraph graph = DependencyGraph.build(proj.getStored(), proj.getStored().getLatestVersion(), DependencyGraph.Granularity.METHOD);
+        // twice, the second round uses the memoized closures
+        for (int round = 0; round < 2; round++) {
+            for (int id = 0; id < graph.size(); id++) {
+                assertThat(graph.getReachability().reachableFrom(id)).isEqualTo(bruteForce(id, graph::getDependencies));
+                assertThat(graph.getDependentReachability().reachableFrom(id)).isEqualTo(bruteForce(id, graph::getDependents));
+            }
+        }
+
+        BitSet seeds = new BitSet();
+        seeds.set(graph.getId("proj.packageB.ClassB.getInstanceA()"));
+        seeds.set(graph.getId("proj.ClassC$1.<init>(ClassC)"));
+        BitSet expected = bruteForce(graph.getId("proj.packageB.ClassB.getInstanceA()"), graph::getDependents);
+        expected.or(bruteForce(graph.getId("proj.ClassC$1.<init>(ClassC)"), graph::getDependents));
+        assertThat(graph.reverseClosure(seeds)).isEqualTo(expected);
+    }
+
+    @NotNull
+    private static BitSet bruteForce(int start, @NotNull IntFunction<int[]> edges) {
+        BitSet result = new BitSet();
+        result.set(start);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int id = result.nextSetBit(0); id >= 0; id = result.nextSetBit(id + 1)) {
+                for (int target : edges.apply(id)) {
+                    if (!result.get(target)) {
+                        result.set(target);
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
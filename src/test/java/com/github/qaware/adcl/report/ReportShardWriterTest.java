@@ -0,0 +1,32 @@
+package com.github.qaware.adcl.report;
+
+import com.github.qaware.adcl.information.Information;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportShardWriterTest {
+    private final ReportShardWriter writer = new ReportShardWriter("proj", Paths.get("shards"), "shards");
+
+    @Test
+    void shardOfEntryDependsOnlyOnItsStart() {
+        assertThat(writer.shardPath(entry(Information.Type.PACKAGE, "proj.a.b"))).isEqualTo("proj.a.b");
+        assertThat(writer.shardPath(entry(Information.Type.CLASS, "proj.a.b.C"))).isEqualTo("proj.a.b");
+        assertThat(writer.shardPath(entry(Information.Type.CLASS, "proj.a.b.C$Inner"))).isEqualTo("proj.a.b");
+        assertThat(writer.shardPath(entry(Information.Type.METHOD, "proj.a.b.C.m(java.lang.String, int)"))).isEqualTo("proj.a.b");
+        assertThat(writer.shardPath(entry(Information.Type.METHOD, "proj.a.C.<init>()"))).isEqualTo("proj.a");
+    }
+
+    @Test
+    void entriesOutsideOfPackagesBelongToTheProject() {
+        assertThat(writer.shardPath(entry(Information.Type.PROJECT, "proj"))).isEqualTo("proj");
+        assertThat(writer.shardPath(entry(Information.Type.CLASS, "proj.C"))).isEqualTo("proj");
+        assertThat(writer.shardPath(entry(Information.Type.METHOD, "proj.C.m(a.b.D)"))).isEqualTo("proj");
+    }
+
+    private static DiffExtractor.DependencyEntry entry(Information.Type startType, String startPath) {
+        return new DiffExtractor.DependencyEntry(false, startType, startPath, startPath, false, Information.Type.CLASS, "other.D", "D");
+    }
+}
@@ -1,10 +1,17 @@
 package com.github.qaware.adcl.util;
 
+import com.github.qaware.adcl.depex.DependencyExtractor;
 import com.github.qaware.adcl.information.*;
+import com.github.qaware.adcl.report.DiffExtractor;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @SuppressWarnings({"unused", "java:S1452" /* Wildcards are needed */})
@@ -114,6 +121,31 @@ public class DataGenerationUtil {
         }
     }
 
+    /**
+     * Analyses the compiled classes of a test project as a new version
+     *
+     * @param project     the project to add the version to
+     * @param folderName  the test project in {@code src/test/resources/testclassfiles2}
+     * @param versionName the name of the new version
+     * @return the analysed version
+     */
+    @NotNull
+    public static VersionInformation runDepEx(@NotNull ProjectInformation project, String folderName, String versionName) throws IOException {
+        VersionInformation result = project.addVersion(versionName);
+        new DependencyExtractor(Paths.get("src", "test", "resources", "testclassfiles2", folderName, "target", "classes"), result, null).runAnalysis();
+        return result;
+    }
+
+    /**
+     * @param entries dependency entries
+     * @return a comparable description of each entry, covering all its fields
+     */
+    @NotNull
+    public static Set<String> describe(@NotNull Collection<DiffExtractor.DependencyEntry> entries) {
+        return entries.stream().map(e -> (e.syntheticStart ? "~" : "") + e.startType + ":" + e.startPath + "/" + e.startName + (e.change ? " +> " : " -> ")
+                + (e.syntheticEnd ? "~" : "") + e.endType + ":" + e.endPath + "/" + e.endName).collect(Collectors.toSet());
+    }
+
     public static class Ref<T extends Information<P>, P extends Information<?>> implements Function<P, T> {
         private final Function<P, T> getter;
         private T obj;
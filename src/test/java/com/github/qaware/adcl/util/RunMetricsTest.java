@@ -0,0 +1,53 @@
+package com.github.qaware.adcl.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RunMetricsTest {
+    @BeforeEach
+    void reset() {
+        RunMetrics.reset();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void summary() {
+        try (RunMetrics.Phase ignored = RunMetrics.phase("second")) {
+            RunMetrics.counter("adcl.test.counter").increment(2);
+        }
+        try (RunMetrics.Phase ignored = RunMetrics.phase("first")) {
+            RunMetrics.counter("adcl.test.counter").increment();
+        }
+        RunMetrics.phase("second").close();
+        RunMetrics.record("adcl.test.value", 4);
+        RunMetrics.record("adcl.test.value", 6);
+
+        Map<String, Object> summary = RunMetrics.summary();
+        assertThat((Map<String, Double>) summary.get("phases")).containsOnlyKeys("second", "first");
+        assertThat(((Map<String, Double>) summary.get("phases")).keySet()).containsExactly("second", "first");
+        assertThat((Map<String, Double>) summary.get("counters")).containsEntry("adcl.test.counter", 3.0);
+        assertThat(((Map<String, Map<String, Double>>) summary.get("values")).get("adcl.test.value"))
+                .containsEntry("count", 2.0).containsEntry("total", 10.0).containsEntry("max", 6.0);
+
+        RunMetrics.reset();
+        assertThat((Map<String, Double>) RunMetrics.summary().get("counters")).isEmpty();
+    }
+
+    @Test
+    void writeSummary() throws IOException {
+        RunMetrics.counter("adcl.test.counter").increment();
+        Path file = Files.createTempDirectory("adcl_RunMetricsTest").resolve("metrics.json");
+
+        RunMetrics.writeSummary(file);
+
+        assertThat(new ObjectMapper().readTree(file.toFile()).path("counters").path("adcl.test.counter").asDouble()).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,305 @@
+package com.github.qaware.adcl.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates the class files of a synthetic project of configurable size and its history of mutated versions, to test ADCL at realistic scale.
+ * <br>Each class has a static method {@code call()} and a method {@code run()} calling {@code call()} of its dependencies, so every dependency
+ * results in class and method relations. Classes may have a field typed with their first dependency, a static inner class and a lambda.
+ * The generation is deterministic for a seed.
+ */
+public class SyntheticProject {
+    private static final String LAMBDA_METHOD = "lambda$run$0";
+    private static final String VOID_DESCRIPTOR = "()V";
+    private static final Handle METAFACTORY = new Handle(Opcodes.H_INVOKESTATIC, "java/lang/invoke/LambdaMetafactory", "metafactory",
+            "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;Ljava/lang/invoke/MethodType;"
+                    + "Ljava/lang/invoke/MethodHandle;Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/CallSite;", false);
+
+    @NotNull
+    private final Random random;
+    private final int packages;
+    private final int meanFanOut;
+    @NotNull
+    private final FanOut fanOut;
+    private final double innerClassRatio;
+    private final double lambdaRatio;
+    private final List<GeneratedClass> classes = new ArrayList<>();
+    private int nextId;
+
+    /**
+     * Creates the first version
+     *
+     * @param seed            the seed of the generation
+     * @param packages        the number of packages
+     * @param classes         the number of top level classes
+     * @param meanFanOut      the mean number of dependencies of a class
+     * @param fanOut          the distribution of the dependencies
+     * @param innerClassRatio the share of classes with an inner class
+     * @param lambdaRatio     the share of classes with a lambda
+     */
+    public SyntheticProject(long seed, int packages, int classes, int meanFanOut, @NotNull FanOut fanOut, double innerClassRatio, double lambdaRatio) {
+        this.random = new Random(seed);
+        this.packages = packages;
+        this.meanFanOut = meanFanOut;
+        this.fanOut = fanOut;
+        this.innerClassRatio = innerClassRatio;
+        this.lambdaRatio = lambdaRatio;
+        for (int i = 0; i < classes; i++) this.classes.add(createClass());
+        this.classes.forEach(this::pickDependencies);
+    }
+
+    /**
+     * Creates a project with 100 classes per package, a mean fan out of 8 with a power law distribution and 10% inner classes and 20% lambdas
+     *
+     * @param seed    the seed of the generation
+     * @param classes the number of top level classes
+     * @return the first version
+     */
+    @NotNull
+    public static SyntheticProject of(long seed, int classes) {
+        return new SyntheticProject(seed, Math.max(1, classes / 100), classes, 8, FanOut.POWER_LAW, 0.1, 0.2);
+    }
+
+    /**
+     * @return the number of top level classes of the current version
+     */
+    public int getClassCount() {
+        return classes.size();
+    }
+
+    /**
+     * @return the number of class files of the current version, including inner classes
+     */
+    public int getClassFileCount() {
+        return classes.size() + (int) classes.stream().filter(c -> c.inner).count();
+    }
+
+    /**
+     * Creates the next version: the dependencies of a share of the classes are picked anew, and half as many classes are removed and added
+     *
+     * @param changeRatio the share of classes with changed dependencies
+     */
+    public void mutate(double changeRatio) {
+        int changed = (int) (classes.size() * changeRatio);
+        int replaced = Math.min(changed / 2, classes.size() - 1);
+        Set<GeneratedClass> removed = new HashSet<>();
+        List<GeneratedClass> added = new ArrayList<>();
+        for (int i = 0; i < replaced; i++) {
+            removed.add(classes.remove(random.nextInt(classes.size())));
+            added.add(createClass());
+        }
+        classes.addAll(added);
+        List<GeneratedClass> toChange = new ArrayList<>(added);
+        for (int i = 0; i < changed; i++) toChange.add(classes.get(random.nextInt(classes.size())));
+        // dependencies on removed classes would not be recompilable
+        for (GeneratedClass c : classes) {
+            if (c.dependencies.stream().anyMatch(removed::contains)) toChange.add(c);
+        }
+        toChange.forEach(this::pickDependencies);
+    }
+
+    /**
+     * Writes the class files of the current version
+     *
+     * @param directory the class output directory, e.g. target/classes
+     * @throws IOException if a file could not be written
+     */
+    public void write(@NotNull Path directory) throws IOException {
+        for (GeneratedClass c : classes) {
+            Path file = directory.resolve(c.name + ".class");
+            Files.createDirectories(file.getParent());
+            Files.write(file, c.toBytes());
+            if (c.inner) Files.write(directory.resolve(c.innerName() + ".class"), c.innerToBytes());
+        }
+    }
+
+    /**
+     * @return a new class with its own id in a random package, without dependencies
+     */
+    @NotNull
+    private GeneratedClass createClass() {
+        int id = nextId++;
+        int pack = random.nextInt(packages);
+        String name = "com/synthetic/m" + pack % 10 + "/p" + pack + "/C" + id;
+        return new GeneratedClass(name, random.nextDouble() < innerClassRatio, random.nextDouble() < lambdaRatio);
+    }
+
+    /**
+     * @param c the class to (re)pick the dependencies of, among the other classes
+     */
+    private void pickDependencies(@NotNull GeneratedClass c) {
+        c.dependencies.clear();
+        int count = Math.min(classes.size() - 1, fanOut.count(random, meanFanOut));
+        while (c.dependencies.size() < count) {
+            GeneratedClass dependency = classes.get(fanOut.target(random, classes.size()));
+            if (dependency != c && !c.dependencies.contains(dependency)) c.dependencies.add(dependency);
+        }
+    }
+
+    /**
+     * The distribution of the dependencies
+     */
+    public enum FanOut {
+        /**
+         * The number of dependencies is uniformly distributed between 0 and twice the mean, all classes are depended on equally likely
+         */
+        UNIFORM {
+            @Override
+            int count(@NotNull Random random, int mean) {
+                return random.nextInt(2 * mean + 1);
+            }
+
+            @Override
+            int target(@NotNull Random random, int classes) {
+                return random.nextInt(classes);
+            }
+        },
+        /**
+         * Most classes have few dependencies and some many (pareto distributed), old classes are hubs depended on by many classes
+         */
+        POWER_LAW {
+            @Override
+            int count(@NotNull Random random, int mean) {
+                return (int) Math.min(20.0 * mean, mean / 2.0 / Math.sqrt(1 - random.nextDouble()));
+            }
+
+            @Override
+            int target(@NotNull Random random, int classes) {
+                return (int) (classes * Math.pow(random.nextDouble(), 3));
+            }
+        };
+
+        /**
+         * @param random the random source
+         * @param mean   the mean number of dependencies
+         * @return the number of dependencies of a class
+         */
+        abstract int count(@NotNull Random random, int mean);
+
+        /**
+         * @param random  the random source
+         * @param classes the number of classes
+         * @return the index of a dependency
+         */
+        abstract int target(@NotNull Random random, int classes);
+    }
+
+    /**
+     * A generated top level class
+     */
+    private static final class GeneratedClass {
+        @NotNull
+        private final String name;
+        private final boolean inner;
+        private final boolean lambda;
+        private final List<GeneratedClass> dependencies = new ArrayList<>();
+
+        private GeneratedClass(@NotNull String name, boolean inner, boolean lambda) {
+            this.name = name;
+            this.inner = inner;
+            this.lambda = lambda;
+        }
+
+        /**
+         * @return the internal name of the inner class
+         */
+        @NotNull
+        private String innerName() {
+            return name + "$Inner";
+        }
+
+        /**
+         * @return the class file of this class
+         */
+        @NotNull
+        private byte[] toBytes() {
+            ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+            writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, "java/lang/Object", null);
+            if (inner) writer.visitInnerClass(innerName(), name, "Inner", Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC);
+            if (!dependencies.isEmpty()) {
+                writer.visitField(Opcodes.ACC_PRIVATE, "dependency", "L" + dependencies.get(0).name + ";", null, null).visitEnd();
+            }
+            writeConstructor(writer);
+
+            MethodVisitor call = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "call", VOID_DESCRIPTOR, null, null);
+            call.visitCode();
+            call.visitInsn(Opcodes.RETURN);
+            call.visitMaxs(0, 0);
+            call.visitEnd();
+
+            MethodVisitor run = writer.visitMethod(Opcodes.ACC_PUBLIC, "run", VOID_DESCRIPTOR, null, null);
+            run.visitCode();
+            for (GeneratedClass dependency : dependencies) {
+                run.visitMethodInsn(Opcodes.INVOKESTATIC, dependency.name, "call", VOID_DESCRIPTOR, false);
+            }
+            if (lambda) {
+                Type voidMethod = Type.getMethodType(VOID_DESCRIPTOR);
+                run.visitInvokeDynamicInsn("run", "()Ljava/lang/Runnable;", METAFACTORY,
+                        voidMethod, new Handle(Opcodes.H_INVOKESTATIC, name, LAMBDA_METHOD, VOID_DESCRIPTOR, false), voidMethod);
+                run.visitInsn(Opcodes.POP);
+            }
+            run.visitInsn(Opcodes.RETURN);
+            run.visitMaxs(0, 0);
+            run.visitEnd();
+
+            if (lambda) {
+                MethodVisitor body = writer.visitMethod(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC, LAMBDA_METHOD, VOID_DESCRIPTOR, null, null);
+                body.visitCode();
+                String target = dependencies.isEmpty() ? name : dependencies.get(dependencies.size() - 1).name;
+                body.visitMethodInsn(Opcodes.INVOKESTATIC, target, "call", VOID_DESCRIPTOR, false);
+                body.visitInsn(Opcodes.RETURN);
+                body.visitMaxs(0, 0);
+                body.visitEnd();
+            }
+            writer.visitEnd();
+            return writer.toByteArray();
+        }
+
+        /**
+         * @return the class file of the inner class, calling its outer class and the first dependency
+         */
+        @NotNull
+        private byte[] innerToBytes() {
+            ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+            writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, innerName(), null, "java/lang/Object", null);
+            writer.visitInnerClass(innerName(), name, "Inner", Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC);
+            writeConstructor(writer);
+            MethodVisitor run = writer.visitMethod(Opcodes.ACC_PUBLIC, "run", VOID_DESCRIPTOR, null, null);
+            run.visitCode();
+            run.visitMethodInsn(Opcodes.INVOKESTATIC, name, "call", VOID_DESCRIPTOR, false);
+            if (!dependencies.isEmpty()) run.visitMethodInsn(Opcodes.INVOKESTATIC, dependencies.get(0).name, "call", VOID_DESCRIPTOR, false);
+            run.visitInsn(Opcodes.RETURN);
+            run.visitMaxs(0, 0);
+            run.visitEnd();
+            writer.visitEnd();
+            return writer.toByteArray();
+        }
+
+        /**
+         * @param writer the class to write the default constructor to
+         */
+        private static void writeConstructor(@NotNull ClassWriter writer) {
+            MethodVisitor init = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", VOID_DESCRIPTOR, null, null);
+            init.visitCode();
+            init.visitVarInsn(Opcodes.ALOAD, 0);
+            init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", VOID_DESCRIPTOR, false);
+            init.visitInsn(Opcodes.RETURN);
+            init.visitMaxs(0, 0);
+            init.visitEnd();
+        }
+    }
+}